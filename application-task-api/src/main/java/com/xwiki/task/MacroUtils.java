@@ -46,6 +46,21 @@ public interface MacroUtils
      */
     void updateMacroContent(Block macro, String newContent);
 
+    /**
+     * Update the content of a macro replacing it with a clone that has the desired content. The position of the macro
+     * among its siblings is used to avoid looking for it.
+     *
+     * @param macro the macro that needs to be updated. It has to have a parent.
+     * @param newContent the new content that will replace the current content of the macro.
+     * @param index the position of the macro among the children of its parent, if known. When the given position
+     *     doesn't hold the macro, the macro is looked up among its siblings.
+     * @since 3.11.0
+     */
+    default void updateMacroContent(Block macro, String newContent, int index)
+    {
+        updateMacroContent(macro, newContent);
+    }
+
     /**
      * Get the XDOM of the content of a macro.
      *
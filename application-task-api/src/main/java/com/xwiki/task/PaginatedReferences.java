@@ -41,6 +41,8 @@ public class PaginatedReferences
 
     private int total;
 
+    private String nextCursor;
+
     /**
      * Default constructor.
      */
@@ -128,4 +130,21 @@ public class PaginatedReferences
     {
         this.total = total;
     }
+
+    /**
+     * @return the cursor to use for retrieving the elements that follow the returned pages, or {@code null} if there
+     *     are no more elements or the pages were not retrieved with a cursor.
+     */
+    public String getNextCursor()
+    {
+        return nextCursor;
+    }
+
+    /**
+     * @param nextCursor see {@link #getNextCursor()}.
+     */
+    public void setNextCursor(String nextCursor)
+    {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -64,4 +64,59 @@ public interface TaskConfiguration
      * @since 3.8.0
      */
     boolean isIdDisplayed();
+
+    /**
+     * @return whether the task pages should be synchronized with the task macros in the background, instead of
+     *     during the save of the document that contains the macros.
+     * @since 3.11.0
+     */
+    boolean isAsyncTaskPageSyncEnabled();
+
+    /**
+     * @return the number of milliseconds during which the updates of the task macros, made after their task pages
+     *     were modified, are buffered and grouped per owner document; {@code 0} to update the owner right away.
+     * @since 3.11.0
+     */
+    long getOwnerUpdateDelay();
+
+    /**
+     * @return the number of threads that synchronize the task pages of the documents imported during a fold event
+     *     (e.g. a Confluence migration), once the fold event ends; {@code 0} to synchronize them one by one while they
+     *     are imported.
+     * @since 3.11.0
+     */
+    int getBulkSyncWorkers();
+
+    /**
+     * @return the number of imported documents handled by a thread as one unit of work, when
+     *     {@link #getBulkSyncWorkers()} is enabled. Their task pages are still saved one by one.
+     * @since 3.11.0
+     */
+    int getBulkSyncChunkSize();
+
+    /**
+     * @return whether the missing dates of the task macros should be inferred by reading the revisions of their owner
+     *     document once, from the oldest to the newest, instead of comparing each revision with the previous one.
+     * @since 3.11.0
+     */
+    boolean isForwardRevisionScanEnabled();
+
+    /**
+     * @return the number of threads used by the job that infers the missing data of the task macros.
+     * @since 3.11.0
+     */
+    int getDataInferringWorkers();
+
+    /**
+     * @return the number of threads that relativize, chunk by chunk, the references of the task macros.
+     * @since 3.11.0
+     */
+    int getReferenceRelativizerWorkers();
+
+    /**
+     * @return the number of threads that synchronize the task pages of the documents queued when the asynchronous
+     *     synchronization is enabled.
+     * @since 3.11.0
+     */
+    int getSyncQueueWorkers();
 }
@@ -37,4 +37,14 @@ public interface TaskCounter
      * @throws TaskException if the retrieval of the number failed.
      */
     int getNextNumber() throws TaskException;
+
+    /**
+     * Reserve a contiguous range of task numbers, allowing bulk operations to number many tasks at once.
+     *
+     * @param count the number of task numbers to reserve.
+     * @return the first number of the reserved range. The range ends with {@code first + count - 1}.
+     * @throws TaskException if the reservation failed or if the given count is not positive.
+     * @since 3.11.0
+     */
+    int reserve(int count) throws TaskException;
 }
@@ -19,6 +19,9 @@
  */
 package com.xwiki.task;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
@@ -58,6 +61,28 @@ public interface TaskManager
      */
     Task getTask(int id) throws TaskException;
 
+    /**
+     * Retrieve several tasks at once, using a single query instead of one query per task.
+     *
+     * @param ids the IDs of the tasks.
+     * @return the tasks that have one of the given IDs, indexed by their ID. The IDs that don't correspond to any task
+     *     are missing from the result.
+     * @throws TaskException if the retrieval of the tasks failed.
+     * @since 3.11.0
+     */
+    Map<Integer, Task> getTasksById(Collection<Integer> ids) throws TaskException;
+
+    /**
+     * Retrieve several tasks at once, using a single query instead of one query per task.
+     *
+     * @param references the references of pages that contain a Task Object.
+     * @return the tasks of the given pages, indexed by the given references, in the same order. The pages that don't
+     *     have a Task Object are missing from the result.
+     * @throws TaskException if the retrieval of the tasks failed.
+     * @since 3.11.0
+     */
+    Map<EntityReference, Task> getTasks(Collection<EntityReference> references) throws TaskException;
+
     /**
      * Delete the tasks that have a certain page as an owner.
      *
@@ -19,7 +19,10 @@
  */
 package com.xwiki.task;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.DocumentReference;
@@ -83,6 +86,66 @@ public interface TaskMissingDataManager
         return paginatedReferences;
     }
 
+    /**
+     * Retrieve the pages that contain task macros with missing data, in the order of their references, starting after
+     * a given cursor. Unlike {@link #getPaginatedMissingDataTaskOwners(int, int)}, the cost of the retrieval doesn't
+     * grow with the position of the returned pages. The default implementation sorts the pages returned by
+     * {@link #getMissingDataTaskOwners()} on each call, so implementations should override it with a retrieval that
+     * is paginated by the data source.
+     *
+     * @param after the cursor after which the returned pages start, i.e. {@link PaginatedReferences#getNextCursor()}
+     *     of the previous pages; {@code null} or empty to start with the first page.
+     * @param limit the maximum number of returned pages, or {@code 0} for no limit.
+     * @return the paginated list of pages that contain tasks macros with missing data. The offset is not computed.
+     * @throws TaskException if the retrieval of the documents failed.
+     * @since 3.11.0
+     */
+    default PaginatedReferences getMissingDataTaskOwnersAfter(String after, int limit) throws TaskException
+    {
+        // Without a query to rely on, the pages are sorted here and the cursor is the string form of the last one.
+        List<DocumentReference> owners = getMissingDataTaskOwners().stream().distinct()
+            .sorted(Comparator.comparing(DocumentReference::toString)).collect(Collectors.toList());
+        List<DocumentReference> pages = owners.stream()
+            .filter(owner -> after == null || after.isEmpty() || owner.toString().compareTo(after) > 0)
+            .limit(limit > 0 ? limit : Long.MAX_VALUE).collect(Collectors.toList());
+        PaginatedReferences paginatedReferences = new PaginatedReferences();
+        paginatedReferences.setPages(pages);
+        paginatedReferences.setCount(pages.size());
+        paginatedReferences.setTotal(owners.size());
+        if (limit > 0 && pages.size() == limit) {
+            paginatedReferences.setNextCursor(pages.get(pages.size() - 1).toString());
+        }
+        return paginatedReferences;
+    }
+
+    /**
+     * Count the pages that contain task macros with missing data and that come after a given cursor, in the order of
+     * their references.
+     *
+     * @param after a cursor of {@link #getMissingDataTaskOwnersAfter(String, int)}; {@code null} or empty to count all
+     *     the pages.
+     * @return the number of pages that contain task macros with missing data after the given cursor.
+     * @throws TaskException if the count failed.
+     * @since 3.11.0
+     */
+    default int countMissingDataTaskOwnersAfter(String after) throws TaskException
+    {
+        return getMissingDataTaskOwnersAfter(after, 0).getCount();
+    }
+
+    /**
+     * Call a consumer for each page that contains task macros with missing data. The pages are retrieved in chunks,
+     * so that only one chunk is held in memory.
+     *
+     * @param consumer the consumer called with the reference of each page.
+     * @throws TaskException if the retrieval of the documents failed.
+     * @since 3.11.0
+     */
+    default void forEachOwner(Consumer<DocumentReference> consumer) throws TaskException
+    {
+        getMissingDataTaskOwners().forEach(consumer);
+    }
+
     /**
      * Finds any task macros that have the reference parameter as absolute values and makes them relative to the current
      * page. This makes the reference easier to read and allows the copying and moving of pages run smoother.
@@ -19,6 +19,8 @@
  */
 package com.xwiki.task;
 
+import java.util.List;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.stability.Unstable;
@@ -41,4 +43,15 @@ public interface TaskReferenceGenerator
      *     default TaskManager home, depending on the rights of the current user.
      */
     DocumentReference generate(DocumentReference parent) throws TaskException;
+
+    /**
+     * Generate several task references at once. The references use consecutive names, none of which is taken.
+     *
+     * @param parent the parent of the tasks.
+     * @param count the number of references to generate.
+     * @return the generated references, in increasing order.
+     * @throws TaskException if the generation failed.
+     * @since 3.11.0
+     */
+    List<DocumentReference> generate(DocumentReference parent, int count) throws TaskException;
 }
@@ -0,0 +1,69 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.List;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Queue of the documents whose task pages still have to be synchronized with their task macros. When the asynchronous
+ * synchronization is enabled, saving a document that contains task macros only enqueues it and the task pages are
+ * updated in the background. The queue is persisted in each wiki, in the background, so that it survives restarts, and
+ * the repeated saves of a document are coalesced into a single synchronization against its latest version.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Role
+@Unstable
+public interface TaskSyncQueue
+{
+    /**
+     * @return {@code true} if the task pages of the documents saved during the current request are synchronized in
+     *     the background, {@code false} if they are synchronized right away.
+     */
+    boolean isAsynchronous();
+
+    /**
+     * Force the synchronous synchronization of the task pages for the rest of the current request, e.g. for scripts
+     * that need to read the task pages right after saving their owner.
+     *
+     * @param synchronous {@code true} to synchronize the task pages right away, {@code false} to follow the
+     *     configuration of the wiki.
+     */
+    void setSynchronous(boolean synchronous);
+
+    /**
+     * Schedule the synchronization of the task pages of a document with its latest version.
+     *
+     * @param owner the document that contains the task macros.
+     */
+    void enqueue(DocumentReference owner);
+
+    /**
+     * @param wiki the wiki whose queue is retrieved.
+     * @return the documents whose task pages are waiting to be synchronized.
+     * @throws TaskException if the queue could not be retrieved.
+     */
+    List<DocumentReference> getBacklog(String wiki) throws TaskException;
+}
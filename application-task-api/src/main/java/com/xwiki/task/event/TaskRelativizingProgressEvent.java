@@ -0,0 +1,104 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.event;
+
+import org.xwiki.observation.event.Event;
+
+/**
+ * Event sent each time a chunk of pages has been processed by the task relativizing process.
+ *
+ * <ul>
+ * <li>source: The component that processes the documents.</li>
+ * <li>data: The list of documents of the chunk that was processed.</li>
+ * </ul>
+ *
+ * @since 3.11.0
+ * @version $Id$
+ */
+public class TaskRelativizingProgressEvent implements Event
+{
+    private final int processed;
+
+    private final int total;
+
+    private final int updated;
+
+    private final double throughput;
+
+    /**
+     * Used when listening to the event.
+     */
+    public TaskRelativizingProgressEvent()
+    {
+        this(0, 0, 0, 0);
+    }
+
+    /**
+     * @param processed the number of pages processed so far
+     * @param total the number of pages to process
+     * @param updated the number of pages whose task macros were updated so far
+     * @param throughput the number of pages processed per minute so far
+     */
+    public TaskRelativizingProgressEvent(int processed, int total, int updated, double throughput)
+    {
+        this.processed = processed;
+        this.total = total;
+        this.updated = updated;
+        this.throughput = throughput;
+    }
+
+    /**
+     * @return the number of pages processed so far
+     */
+    public int getProcessed()
+    {
+        return processed;
+    }
+
+    /**
+     * @return the number of pages to process
+     */
+    public int getTotal()
+    {
+        return total;
+    }
+
+    /**
+     * @return the number of pages whose task macros were updated so far
+     */
+    public int getUpdated()
+    {
+        return updated;
+    }
+
+    /**
+     * @return the number of pages processed per minute so far
+     */
+    public double getThroughput()
+    {
+        return throughput;
+    }
+
+    @Override
+    public boolean matches(Object otherEvent)
+    {
+        return otherEvent instanceof TaskRelativizingProgressEvent;
+    }
+}
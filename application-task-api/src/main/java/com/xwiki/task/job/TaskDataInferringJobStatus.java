@@ -32,6 +32,12 @@ import org.xwiki.observation.ObservationManager;
  */
 public class TaskDataInferringJobStatus extends DefaultJobStatus<TaskDataInferringJobRequest>
 {
+    private String checkpoint;
+
+    private double throughput;
+
+    private long remainingTime;
+
     /**
      * @param request the request provided when started the job
      * @param parentJobStatus the status of the parent job
@@ -44,4 +50,61 @@ public class TaskDataInferringJobStatus extends DefaultJobStatus<TaskDataInferri
     {
         super("taskmanager.infertaskdata", request, parentJobStatus, observationManager, loggerManager);
     }
+
+    /**
+     * @return the cursor, as accepted by
+     *     {@link com.xwiki.task.TaskMissingDataManager#getMissingDataTaskOwnersAfter(String, int)}, up to which all the
+     *     pages have been processed successfully, or {@code null} if the job processed all the pages. A new run of the
+     *     job resumes after this cursor.
+     * @since 3.11.0
+     */
+    public String getCheckpoint()
+    {
+        return checkpoint;
+    }
+
+    /**
+     * @param checkpoint see {@link #getCheckpoint()}
+     * @since 3.11.0
+     */
+    public void setCheckpoint(String checkpoint)
+    {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * @return the number of pages processed per minute by the job so far
+     * @since 3.11.0
+     */
+    public double getThroughput()
+    {
+        return throughput;
+    }
+
+    /**
+     * @param throughput see {@link #getThroughput()}
+     * @since 3.11.0
+     */
+    public void setThroughput(double throughput)
+    {
+        this.throughput = throughput;
+    }
+
+    /**
+     * @return the estimated number of milliseconds needed to process the remaining pages
+     * @since 3.11.0
+     */
+    public long getRemainingTime()
+    {
+        return remainingTime;
+    }
+
+    /**
+     * @param remainingTime see {@link #getRemainingTime()}
+     * @since 3.11.0
+     */
+    public void setRemainingTime(long remainingTime)
+    {
+        this.remainingTime = remainingTime;
+    }
 }
@@ -0,0 +1,54 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.job;
+
+import java.util.Arrays;
+
+import org.xwiki.job.AbstractRequest;
+import org.xwiki.model.reference.WikiReference;
+
+/**
+ * The request used to configure the job that runs the pending one-time migrations of the Task Manager Application on
+ * a wiki.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+public class TaskMigrationJobRequest extends AbstractRequest
+{
+    /**
+     * The key of the wiki property.
+     */
+    public static final String PROPERTY_WIKI = "wiki";
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param wikiReference the reference of the wiki inside which the job will be executed.
+     */
+    public TaskMigrationJobRequest(WikiReference wikiReference)
+    {
+        setProperty(PROPERTY_WIKI, wikiReference);
+        setId(Arrays.asList(wikiReference.getName(), "taskmanager", "migrations"));
+        setStatusLogIsolated(false);
+        // The progress of the migrations is kept in the wiki, there's no need to keep the status of each run.
+        setStatusSerialized(false);
+    }
+}
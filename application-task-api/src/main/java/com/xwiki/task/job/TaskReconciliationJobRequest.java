@@ -0,0 +1,88 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.job;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.xwiki.job.AbstractRequest;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
+
+/**
+ * The request used to configure the job that synchronizes the task pages of the documents imported during a fold
+ * event.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+public class TaskReconciliationJobRequest extends AbstractRequest
+{
+    /**
+     * The key of the wiki property.
+     */
+    public static final String PROPERTY_WIKI = "wiki";
+
+    /**
+     * The key of the property that holds the documents whose task pages are synchronized.
+     */
+    public static final String PROPERTY_OWNERS = "owners";
+
+    /**
+     * The key of the property that holds the user on behalf of whom the task pages are synchronized.
+     */
+    public static final String PROPERTY_USER = "user";
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param wikiReference the reference of the wiki inside which the job will be executed.
+     * @param owners the documents whose task pages are synchronized.
+     * @param user the user that imported the documents.
+     */
+    public TaskReconciliationJobRequest(WikiReference wikiReference, Collection<DocumentReference> owners,
+        DocumentReference user)
+    {
+        setProperty(PROPERTY_WIKI, wikiReference);
+        setProperty(PROPERTY_OWNERS, new ArrayList<>(owners));
+        setProperty(PROPERTY_USER, user);
+        setId(Arrays.asList(wikiReference.getName(), "taskmanager", "reconciletaskpages",
+            String.valueOf(System.currentTimeMillis())));
+        setStatusLogIsolated(false);
+    }
+
+    /**
+     * @return the documents whose task pages are synchronized.
+     */
+    public List<DocumentReference> getOwners()
+    {
+        return getProperty(PROPERTY_OWNERS);
+    }
+
+    /**
+     * @return the user that imported the documents.
+     */
+    public DocumentReference getUser()
+    {
+        return getProperty(PROPERTY_USER);
+    }
+}
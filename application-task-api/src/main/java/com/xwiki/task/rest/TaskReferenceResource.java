@@ -19,10 +19,12 @@
  */
 package com.xwiki.task.rest;
 
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.Encoded;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
 
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.stability.Unstable;
@@ -53,4 +55,26 @@ public interface TaskReferenceResource
         @PathParam("spaceName") @Encoded String spaces,
         @PathParam("pageName") String pageName
     ) throws XWikiRestException;
+
+    /**
+     * Generate several ids at once for task macros residing in a given page, e.g. when converting a list to tasks.
+     *
+     * @param wikiName the name of the wiki in which the page resides
+     * @param spaces the spaces of the page
+     * @param pageName the name of the page
+     * @param count the number of ids to generate
+     * @return 200 and the serialized, unused references of the tasks, one per line. The references have consecutive
+     *     names and are placed like the one returned by {@link #generateId(String, String, String)}.
+     * @throws XWikiRestException if the generation of the references fails. Error code 500. Error code 400 is
+     *     returned when the count is not between 1 and 1000.
+     * @since 3.11.0
+     */
+    @GET
+    @Path("/bulk")
+    String generateIds(
+        @PathParam("wikiName") String wikiName,
+        @PathParam("spaceName") @Encoded String spaces,
+        @PathParam("pageName") String pageName,
+        @QueryParam("count") @DefaultValue("1") int count
+    ) throws XWikiRestException;
 }
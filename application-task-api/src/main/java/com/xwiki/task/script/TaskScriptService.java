@@ -34,6 +34,8 @@ import org.xwiki.component.annotation.Component;
 import org.xwiki.job.Job;
 import org.xwiki.job.JobException;
 import org.xwiki.job.JobExecutor;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.ModelContext;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.query.Query;
@@ -48,6 +50,7 @@ import com.xwiki.task.PaginatedReferences;
 import com.xwiki.task.TaskConfiguration;
 import com.xwiki.task.TaskException;
 import com.xwiki.task.TaskMissingDataManager;
+import com.xwiki.task.TaskSyncQueue;
 import com.xwiki.task.job.TaskDataInferringJobRequest;
 
 /**
@@ -77,6 +80,12 @@ public class TaskScriptService implements ScriptService
     @Inject
     private QueryManager queryManager;
 
+    @Inject
+    private TaskSyncQueue syncQueue;
+
+    @Inject
+    private ModelContext modelContext;
+
     @Inject
     private Logger logger;
 
@@ -179,6 +188,58 @@ public class TaskScriptService implements ScriptService
         }
     }
 
+    /**
+     * @param after the cursor after which the returned pages start, as returned with the previous pages; empty to
+     *     start with the first page.
+     * @param limit the limit imposed on the returned list.
+     * @return a paginated list of pages that contain task macros with incomplete data, along with the cursor of the
+     *     next pages.
+     * @since 3.11.0
+     */
+    public PaginatedReferences getPagesWithIncompleteTaskMacrosAfter(String after, int limit)
+    {
+        try {
+            return taskMissingDataManager.getMissingDataTaskOwnersAfter(after, limit);
+        } catch (TaskException e) {
+            logger.warn("Failed to retrieve the pages with missing data! Cause: [{}].",
+                ExceptionUtils.getRootCauseMessage(e));
+            return new PaginatedReferences(Collections.emptyList());
+        }
+    }
+
+    /**
+     * @return the pages of the current wiki whose task pages are waiting to be synchronized in the background, or an
+     *     empty list if the current user is not an administrator.
+     * @since 3.11.0
+     */
+    public List<DocumentReference> getTaskSyncBacklog()
+    {
+        if (!authorization.hasAccess(Right.ADMIN)) {
+            return Collections.emptyList();
+        }
+        String wiki = modelContext.getCurrentEntityReference().extractReference(EntityType.WIKI).getName();
+        try {
+            return syncQueue.getBacklog(wiki);
+        } catch (TaskException e) {
+            logger.warn("Failed to retrieve the task synchronization backlog! Cause: [{}].",
+                ExceptionUtils.getRootCauseMessage(e));
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Synchronize the task pages right when their owner is saved, for the rest of the current request, regardless of
+     * the configuration. Useful for scripts that read the task pages right after saving their owner.
+     *
+     * @param synchronous {@code true} to synchronize the task pages right away, {@code false} to follow the
+     *     configuration of the wiki.
+     * @since 3.11.0
+     */
+    public void setSynchronousTaskSync(boolean synchronous)
+    {
+        syncQueue.setSynchronous(synchronous);
+    }
+
     /**
      * @return a list of statuses sorted by their order property.
      */
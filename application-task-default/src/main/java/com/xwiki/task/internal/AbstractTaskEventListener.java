@@ -56,7 +56,10 @@ public abstract class AbstractTaskEventListener extends AbstractEventListener
     public static final LocalDocumentReference TASK_CLASS_REFERENCE =
         new LocalDocumentReference(Collections.singletonList(TASK_MANAGER_SPACE), "TaskManagerClass");
 
-    protected static final String TASK_UPDATE_FLAG = "taskUpdating";
+    /**
+     * The context key set while the task pages are synchronized with the task macros, or the other way around.
+     */
+    public static final String TASK_UPDATE_FLAG = "taskUpdating";
 
     @Inject
     protected DocumentReferenceResolver<String> resolver;
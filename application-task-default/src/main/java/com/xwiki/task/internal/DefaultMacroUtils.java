@@ -19,28 +19,26 @@
  */
 package com.xwiki.task.internal;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
-import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
-import org.xwiki.component.manager.ComponentManager;
-import org.xwiki.rendering.block.AbstractMacroBlock;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.MacroBlock;
 import org.xwiki.rendering.block.XDOM;
-import org.xwiki.rendering.macro.Macro;
 import org.xwiki.rendering.macro.MacroContentParser;
 import org.xwiki.rendering.macro.MacroExecutionException;
-import org.xwiki.rendering.macro.MacroId;
-import org.xwiki.rendering.macro.MacroLookupException;
-import org.xwiki.rendering.macro.MacroManager;
-import org.xwiki.rendering.macro.descriptor.ContentDescriptor;
 import org.xwiki.rendering.renderer.BlockRenderer;
-import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
 import org.xwiki.rendering.renderer.printer.WikiPrinter;
 import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.transformation.MacroTransformationContext;
@@ -57,41 +55,82 @@ import com.xwiki.task.MacroUtils;
 @Singleton
 public class DefaultMacroUtils implements MacroUtils
 {
-    @Inject
-    @Named("context")
-    private ComponentManager contextComponentManager;
+    private static final int MAX_PARSED_CONTENTS = 500;
+
+    // Larger contents are parsed each time, so that the cache stays small.
+    private static final int MAX_CACHED_CONTENT_LENGTH = 10000;
 
     @Inject
     private MacroContentParser contentParser;
 
     @Inject
-    private MacroManager macroManager;
+    private MacroLookupCache macroLookupCache;
+
+    // Parsed macro contents, indexed by syntax and content digest.
+    private final Map<Pair<String, String>, XDOM> parsedContents =
+        Collections.synchronizedMap(new LRUMap<>(MAX_PARSED_CONTENTS));
 
     @Override
     public void updateMacroContent(Block macro, String newContent)
+    {
+        updateMacroContent(macro, newContent, -1);
+    }
+
+    @Override
+    public void updateMacroContent(Block macro, String newContent, int index)
     {
         if (macro.getParent() == null) {
             return;
         }
         List<Block> siblings = macro.getParent().getChildren();
-        int macroIndex = -1;
-        for (int i = 0; i < siblings.size(); i++) {
-            if (siblings.get(i) instanceof AbstractMacroBlock && macro.equals(siblings.get(i))) {
-                macroIndex = i;
-                break;
+        int macroIndex = index;
+        if (macroIndex < 0 || macroIndex >= siblings.size() || siblings.get(macroIndex) != macro) {
+            macroIndex = -1;
+            for (int i = 0; i < siblings.size(); i++) {
+                if (siblings.get(i) == macro) {
+                    macroIndex = i;
+                    break;
+                }
             }
         }
         if (macroIndex == -1) {
             return;
         }
-        siblings.remove(macroIndex);
         MacroBlock newMacroBlock = new MacroBlock(((MacroBlock) macro).getId(), macro.getParameters(), newContent,
             ((MacroBlock) macro).isInline());
-        siblings.add(macroIndex, newMacroBlock);
+        newMacroBlock.setParent(macro.getParent());
+        siblings.set(macroIndex, newMacroBlock);
     }
 
     @Override
     public XDOM getMacroContentXDOM(MacroBlock macroBlock, Syntax syntax) throws MacroExecutionException
+    {
+        String content = macroBlock.getContent();
+        if (content == null || syntax == null || content.length() > MAX_CACHED_CONTENT_LENGTH) {
+            return parseMacroContent(macroBlock, syntax);
+        }
+        Pair<String, String> key = Pair.of(syntax.toIdString(), digest(content));
+        XDOM parsedContent = parsedContents.get(key);
+        if (parsedContent == null) {
+            parsedContent = parseMacroContent(macroBlock, syntax);
+            parsedContents.put(key, parsedContent);
+        }
+        // Callers are free to modify the returned tree so the cached one is never shared.
+        return parsedContent.clone();
+    }
+
+    private static String digest(String content)
+    {
+        try {
+            return Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private XDOM parseMacroContent(MacroBlock macroBlock, Syntax syntax) throws MacroExecutionException
     {
         MacroTransformationContext macroContext = new MacroTransformationContext();
         macroContext.setCurrentMacroBlock(macroBlock);
@@ -103,8 +142,8 @@ public class DefaultMacroUtils implements MacroUtils
     public String renderMacroContent(List<Block> contentBlocks, Syntax syntax)
         throws ComponentLookupException
     {
-        BlockRenderer renderer = contextComponentManager.getInstance(BlockRenderer.class, syntax.toIdString());
-        WikiPrinter printer = new DefaultWikiPrinter(new StringBuffer());
+        BlockRenderer renderer = macroLookupCache.getRenderer(syntax);
+        WikiPrinter printer = new StringBuilderWikiPrinter();
         renderer.render(contentBlocks, printer);
         return printer.toString();
     }
@@ -112,12 +151,32 @@ public class DefaultMacroUtils implements MacroUtils
     @Override
     public boolean isMacroContentParsable(String macroId)
     {
-        try {
-            Macro<?> macro = macroManager.getMacro(new MacroId(macroId));
-            ContentDescriptor contentDescriptor = macro.getDescriptor().getContentDescriptor();
-            return contentDescriptor != null && Block.LIST_BLOCK_TYPE.equals(contentDescriptor.getType());
-        } catch (MacroLookupException e) {
-            return false;
+        return macroLookupCache.isMacroContentParsable(macroId);
+    }
+
+    /**
+     * A printer that is not synchronized, since it is never shared between threads.
+     */
+    private static final class StringBuilderWikiPrinter implements WikiPrinter
+    {
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public void print(String text)
+        {
+            buffer.append(text);
+        }
+
+        @Override
+        public void println(String text)
+        {
+            buffer.append(text).append('\n');
+        }
+
+        @Override
+        public String toString()
+        {
+            return buffer.toString();
         }
     }
 }
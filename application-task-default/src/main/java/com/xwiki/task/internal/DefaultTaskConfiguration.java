@@ -47,6 +47,8 @@ public class DefaultTaskConfiguration implements TaskConfiguration
 
     private static final String METHOD_DEPRECATED = "Method is deprecated";
 
+    private static final int DEFAULT_BULK_SYNC_CHUNK_SIZE = 50;
+
     @Inject
     @Named("taskmanager")
     private ConfigurationSource configurationSource;
@@ -82,6 +84,60 @@ public class DefaultTaskConfiguration implements TaskConfiguration
         return configurationSource.getProperty("isIdDisplayed", true);
     }
 
+    @Override
+    public boolean isAsyncTaskPageSyncEnabled()
+    {
+        return configurationSource.getProperty("asyncTaskPageSync", false);
+    }
+
+    @Override
+    public long getOwnerUpdateDelay()
+    {
+        Number delay = configurationSource.getProperty("ownerUpdateDelay", Number.class);
+        return delay == null ? 0 : Math.max(0, delay.longValue());
+    }
+
+    @Override
+    public int getBulkSyncWorkers()
+    {
+        Number workers = configurationSource.getProperty("bulkSyncWorkers", Number.class);
+        return workers == null ? 0 : Math.max(0, workers.intValue());
+    }
+
+    @Override
+    public int getBulkSyncChunkSize()
+    {
+        Number chunkSize = configurationSource.getProperty("bulkSyncChunkSize", Number.class);
+        return chunkSize == null || chunkSize.intValue() < 1 ? DEFAULT_BULK_SYNC_CHUNK_SIZE : chunkSize.intValue();
+    }
+
+    @Override
+    public boolean isForwardRevisionScanEnabled()
+    {
+        return configurationSource.getProperty("forwardRevisionScan", false);
+    }
+
+    @Override
+    public int getDataInferringWorkers()
+    {
+        Number workers = configurationSource.getProperty("dataInferringWorkers", Number.class);
+        return workers == null ? 1 : Math.max(1, workers.intValue());
+    }
+
+    @Override
+    public int getReferenceRelativizerWorkers()
+    {
+        Number workers = configurationSource.getProperty("referenceRelativizerWorkers", Number.class);
+        return workers == null ? 1 : Math.max(1, workers.intValue());
+    }
+
+    @Override
+    public int getSyncQueueWorkers()
+    {
+        Number workers = configurationSource.getProperty("syncQueueWorkers", Number.class);
+        return workers == null ? 2 : Math.max(1, workers.intValue());
+    }
+
     @Override
     public String getDefaultInlineStatus()
     {
@@ -19,9 +19,10 @@
  */
 package com.xwiki.task.internal;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -37,7 +38,9 @@ import com.xwiki.task.TaskCounter;
 import com.xwiki.task.TaskException;
 
 /**
- * The default implementation of {@link com.xwiki.task.TaskCounter}.
+ * The default implementation of {@link com.xwiki.task.TaskCounter}. Numbers are handed out from a block reserved in
+ * advance for each wiki, so that most calls only increment an atomic counter. Each block starts after the highest
+ * existing task number and after the blocks reserved by other cluster nodes or before a restart.
  *
  * @version $Id$
  * @since 3.0
@@ -46,36 +49,100 @@ import com.xwiki.task.TaskException;
 @Singleton
 public class DefaultTaskCounter implements TaskCounter
 {
+    private static final int BLOCK_SIZE = 100;
+
     @Inject
     private QueryManager queryManager;
 
     @Inject
     private ModelContext modelContext;
 
-    private final Map<String, Integer> counterMap = new HashMap<>();
+    @Inject
+    private TaskCounterStore counterStore;
+
+    private final Map<String, WikiCounter> counters = new ConcurrentHashMap<>();
 
     @Override
-    public synchronized int getNextNumber() throws TaskException
+    public int getNextNumber() throws TaskException
     {
-        String statement =
-            "select max(taskObject.number) "
-                + "from Document doc, doc.object(TaskManager.TaskManagerClass) as taskObject "
-                + "where taskObject.number is not null";
+        return reserve(1);
+    }
+
+    @Override
+    public int reserve(int count) throws TaskException
+    {
+        if (count < 1) {
+            throw new TaskException(String.format("Cannot reserve [%d] task numbers.", count));
+        }
         try {
             EntityReference reference = modelContext.getCurrentEntityReference();
             if (reference == null) {
                 throw new TaskException("There is no object placed in the model context.");
             }
             String wiki = reference.getName();
-            List<Integer> result = queryManager.createQuery(statement, Query.XWQL).setWiki(wiki).execute();
-            int number = 0;
-            if (result.size() > 0 && result.get(0) != null) {
-                number = result.get(0);
+            WikiCounter counter = counters.computeIfAbsent(wiki, k -> new WikiCounter());
+            int first = counter.allocate(count);
+            if (first > 0) {
+                return first;
+            }
+            synchronized (counter) {
+                // Another thread might have reserved a new block in the meantime.
+                first = counter.allocate(count);
+                if (first > 0) {
+                    return first;
+                }
+                // Re-read the highest task number at each reservation since tasks can also be imported or copied.
+                int floor = Integer.max(counter.limit, getMaxNumber(wiki));
+                int from = counterStore.reserveBlock(wiki, floor, Integer.max(BLOCK_SIZE, count));
+                if (from != counter.limit) {
+                    // The numbers up to the persisted mark were reserved elsewhere or are used so skip them.
+                    counter.next.set(from + 1);
+                }
+                counter.limit = from + Integer.max(BLOCK_SIZE, count);
+                return counter.allocate(count);
             }
-            counterMap.put(wiki, Integer.max(number, counterMap.getOrDefault(wiki, -1)) + 1);
-            return counterMap.get(wiki);
         } catch (QueryException | TaskException e) {
             throw new TaskException("Failed to get the next valid number.", e);
         }
     }
+
+    private int getMaxNumber(String wiki) throws QueryException
+    {
+        String statement =
+            "select max(taskObject.number) "
+                + "from Document doc, doc.object(TaskManager.TaskManagerClass) as taskObject "
+                + "where taskObject.number is not null";
+        List<Integer> result = queryManager.createQuery(statement, Query.XWQL).setWiki(wiki).execute();
+        if (result.size() > 0 && result.get(0) != null) {
+            return result.get(0);
+        }
+        return 0;
+    }
+
+    /**
+     * The numbers of a wiki that are reserved by this instance: {@code [next, limit]}. The limit is changed only while
+     * holding the lock of the counter.
+     */
+    private static final class WikiCounter
+    {
+        private final AtomicInteger next = new AtomicInteger(1);
+
+        private volatile int limit;
+
+        /**
+         * @return the first number of the allocated range or {@code -1} if the reserved block is too small.
+         */
+        int allocate(int count)
+        {
+            while (true) {
+                int current = next.get();
+                if (current + count - 1 > limit) {
+                    return -1;
+                }
+                if (next.compareAndSet(current, current + count)) {
+                    return current;
+                }
+            }
+        }
+    }
 }
@@ -20,8 +20,11 @@
 package com.xwiki.task.internal;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -45,6 +48,7 @@ import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xwiki.task.TaskException;
 import com.xwiki.task.TaskManager;
+import com.xwiki.task.internal.index.TaskIndex;
 import com.xwiki.task.model.Task;
 
 /**
@@ -72,6 +76,16 @@ public class DefaultTaskManager implements TaskManager
     @Inject
     private EntityReferenceSerializer<String> serializer;
 
+    @Inject
+    private TaskIndex taskIndex;
+
+    @Inject
+    private TaskPropertyReader taskPropertyReader;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<EntityReference> currentResolver;
+
     @Inject
     @Named("compactwiki")
     private EntityReferenceSerializer<String> compactserializer;
@@ -87,13 +101,18 @@ public class DefaultTaskManager implements TaskManager
     {
         XWikiContext context = contextProvider.get();
         try {
+            // Read only the task properties and load the whole document only when they could not be found.
+            Task task = taskPropertyReader.getTask(currentResolver.resolve(reference));
+            if (task != null) {
+                return task;
+            }
             XWikiDocument doc = context.getWiki().getDocument(reference, context);
             BaseObject obj = doc.getXObject(TASK_CLASS_REFERENCE);
             if (obj == null) {
                 throw new TaskException(String.format("The page [%s] does not have a Task Object.", reference));
             }
             return getTaskFromXObject(obj);
-        } catch (XWikiException e) {
+        } catch (QueryException | XWikiException e) {
             throw new TaskException(String.format("Failed to retrieve the task from the page [%s]", reference));
         }
     }
@@ -103,6 +122,11 @@ public class DefaultTaskManager implements TaskManager
     {
         try {
             XWikiContext context = contextProvider.get();
+            Task task = taskPropertyReader.getTasksByNumber(List.of(id), context.getWikiId()).get(id);
+            if (task != null) {
+                return task;
+            }
+            // Fall back to loading the task document.
             String statement = ", BaseObject as taskObj, IntegerProperty as idProp "
                 + "WHERE taskObj.name = doc.fullName "
                 + "AND doc.space != 'TaskManager.TaskManagerTemplates' "
@@ -130,27 +154,58 @@ public class DefaultTaskManager implements TaskManager
         }
     }
 
+    @Override
+    public Map<Integer, Task> getTasksById(Collection<Integer> ids) throws TaskException
+    {
+        try {
+            Map<Integer, Task> tasks = taskPropertyReader.getTasksByNumber(ids, contextProvider.get().getWikiId());
+            Map<Integer, Task> result = new LinkedHashMap<>();
+            for (Integer id : ids) {
+                Task task = tasks.get(id);
+                if (task != null) {
+                    result.put(id, task);
+                }
+            }
+            return result;
+        } catch (QueryException e) {
+            throw new TaskException(String.format("Failed to retrieve the tasks with ids %s.", ids), e);
+        }
+    }
+
+    @Override
+    public Map<EntityReference, Task> getTasks(Collection<EntityReference> references) throws TaskException
+    {
+        try {
+            Map<EntityReference, DocumentReference> documentReferences = new LinkedHashMap<>();
+            for (EntityReference reference : references) {
+                documentReferences.put(reference, currentResolver.resolve(reference));
+            }
+            Map<DocumentReference, Task> tasks = taskPropertyReader.getTasks(documentReferences.values());
+            Map<EntityReference, Task> result = new LinkedHashMap<>();
+            for (Map.Entry<EntityReference, DocumentReference> entry : documentReferences.entrySet()) {
+                Task task = tasks.get(entry.getValue());
+                if (task != null) {
+                    result.put(entry.getKey(), task);
+                }
+            }
+            return result;
+        } catch (QueryException e) {
+            throw new TaskException(String.format("Failed to retrieve the tasks from the pages %s.", references), e);
+        }
+    }
+
     @Override
     public void deleteTasksByOwner(DocumentReference documentReference) throws TaskException
     {
         try {
             XWikiContext context = contextProvider.get();
-            String statement =
-                "FROM doc.object(TaskManager.TaskManagerClass) as task "
-                    + "WHERE task.owner = :absoluteOwnerRef "
-                    + "OR task.owner = :compactOwnerRef "
-                    + "OR (task.owner = :relativeOwnerRef AND doc.space = :ownerSpaceRef)";
-            Query query = queryManager.createQuery(statement, Query.XWQL);
-
-            query
-                .bindValue("absoluteOwnerRef", serializer.serialize(documentReference))
-                .bindValue("compactOwnerRef", compactserializer.serialize(documentReference))
-                .bindValue("relativeOwnerRef", documentReference.getName())
-                .bindValue("ownerSpaceRef", compactserializer.serialize(documentReference.getLastSpaceReference()));
-
-            List<String> results = query.execute();
-            for (String result : results) {
-                DocumentReference taskRef = resolver.resolve(result, context.getWikiReference());
+            Collection<DocumentReference> taskReferences;
+            if (taskIndex.isReady(documentReference.getWikiReference().getName())) {
+                taskReferences = taskIndex.getTasksByOwner(documentReference);
+            } else {
+                taskReferences = findTasksByOwner(documentReference, context);
+            }
+            for (DocumentReference taskRef : taskReferences) {
                 XWikiDocument document = context.getWiki().getDocument(taskRef, context);
                 BaseObject taskObject = document.getXObject(TASK_CLASS_REFERENCE);
                 if (taskObject == null || !resolver.resolve(taskObject.getLargeStringValue(Task.OWNER), taskRef)
@@ -166,6 +221,27 @@ public class DefaultTaskManager implements TaskManager
         }
     }
 
+    private List<DocumentReference> findTasksByOwner(DocumentReference documentReference, XWikiContext context)
+        throws QueryException
+    {
+        String statement =
+            "FROM doc.object(TaskManager.TaskManagerClass) as task "
+                + "WHERE task.owner = :absoluteOwnerRef "
+                + "OR task.owner = :compactOwnerRef "
+                + "OR (task.owner = :relativeOwnerRef AND doc.space = :ownerSpaceRef)";
+        Query query = queryManager.createQuery(statement, Query.XWQL);
+
+        query
+            .bindValue("absoluteOwnerRef", serializer.serialize(documentReference))
+            .bindValue("compactOwnerRef", compactserializer.serialize(documentReference))
+            .bindValue("relativeOwnerRef", documentReference.getName())
+            .bindValue("ownerSpaceRef", compactserializer.serialize(documentReference.getLastSpaceReference()));
+
+        List<String> results = query.execute();
+        return results.stream().map(result -> resolver.resolve(result, context.getWikiReference()))
+            .collect(Collectors.toList());
+    }
+
     private Task getTaskFromXObject(BaseObject obj)
     {
         Task task = new Task();
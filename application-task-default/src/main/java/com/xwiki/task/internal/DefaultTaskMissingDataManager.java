@@ -21,6 +21,9 @@ package com.xwiki.task.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -52,7 +55,9 @@ import com.xwiki.task.event.TaskRelativizedEvent;
 import com.xwiki.task.event.TaskRelativizingEvent;
 
 /**
- * Default implementation of {@link TaskMissingDataManager}.
+ * Default implementation of {@link TaskMissingDataManager}. The number of pages with incomplete task macros is cached
+ * per wiki until a task page of that wiki changes, see
+ * {@link com.xwiki.task.internal.listener.TaskMissingDataCountListener}.
  *
  * @version $Id$
  * @since 3.3
@@ -65,6 +70,19 @@ public class DefaultTaskMissingDataManager implements TaskMissingDataManager
         + "FROM Document AS doc, doc.object(TaskManager.TaskManagerClass) AS task "
         + "WHERE task.owner <> ''";
 
+    private static final String INCOMPLETE_TASKS_CONDITION =
+        " and (task.reporter = '' or (task.status = 'Done' and task.completeDate is null))";
+
+    private static final String COUNT_TASKS_WITH_OWNER = "SELECT count(DISTINCT task.owner) "
+        + "FROM Document AS doc, doc.object(TaskManager.TaskManagerClass) AS task "
+        + "WHERE task.owner <> ''";
+
+    private static final String AFTER = "after";
+
+    private static final String AFTER_CONDITION = " and task.owner > :after";
+
+    private static final int OWNERS_CHUNK_SIZE = 100;
+
     @Inject
     private QueryManager queryManager;
 
@@ -90,6 +108,21 @@ public class DefaultTaskMissingDataManager implements TaskMissingDataManager
     @Named("document")
     private UserReferenceSerializer<DocumentReference> documentUserSerializer;
 
+    private final Map<String, Integer> totals = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Forget the number of pages with incomplete task macros of a wiki, e.g. because a task page of the wiki changed.
+     *
+     * @param wiki the identifier of a wiki.
+     */
+    public void invalidateCount(String wiki)
+    {
+        generation.incrementAndGet();
+        totals.remove(wiki);
+    }
+
     @Override
     public List<DocumentReference> getMissingDataTaskOwners() throws TaskException
     {
@@ -117,7 +150,7 @@ public class DefaultTaskMissingDataManager implements TaskMissingDataManager
                 .collect(Collectors.toList());
 
             observationManager.notify(new TaskRelativizingEvent(), this, docRefs);
-            referenceMigratorProvider.get().relativizeReference(docRefs);
+            referenceMigratorProvider.get().relativizeReferenceInChunks(docRefs);
             observationManager.notify(new TaskRelativizedEvent(), this, docRefs);
         } catch (QueryException e) {
             logger.error("Could not run the relativizing process as the query creation/execution failed.", e);
@@ -127,7 +160,7 @@ public class DefaultTaskMissingDataManager implements TaskMissingDataManager
     @Override
     public void inferMissingTaskData() throws TaskException
     {
-        processOwnersWithIncompleteTasks(documentReference -> {
+        forEachOwner(documentReference -> {
             try {
                 inferMissingTaskData(documentReference);
             } catch (TaskException e) {
@@ -161,38 +194,110 @@ public class DefaultTaskMissingDataManager implements TaskMissingDataManager
     @Override
     public PaginatedReferences getPaginatedMissingDataTaskOwners(int offset, int limit) throws TaskException
     {
-        try {
-            String countStatement = "SELECT count(DISTINCT task.owner) FROM Document AS doc, "
-                + "doc.object(TaskManager.TaskManagerClass) AS task WHERE task.owner <> '' "
-                + "and (task.reporter = '' or (task.status = 'Done' and task.completeDate is null))";
-            Query query = queryManager.createQuery(countStatement, Query.XWQL);
-            int total = ((Long) query.execute().get(0)).intValue();
+        List<DocumentReference> documentReferences = getMissingDataTaskOwners(offset, limit);
+
+        PaginatedReferences paginatedReferences = new PaginatedReferences();
+        paginatedReferences.setTotal(countMissingDataTaskOwners());
+        paginatedReferences.setCount(documentReferences.size());
+        paginatedReferences.setPages(documentReferences);
+        paginatedReferences.setOffset(offset);
+
+        return paginatedReferences;
+    }
+
+    @Override
+    public PaginatedReferences getMissingDataTaskOwnersAfter(String after, int limit) throws TaskException
+    {
+        List<String> owners = getOwnersAfter(after, limit);
+
+        PaginatedReferences paginatedReferences = new PaginatedReferences();
+        paginatedReferences.setTotal(countMissingDataTaskOwners());
+        paginatedReferences.setCount(owners.size());
+        paginatedReferences.setPages(owners.stream().map(resolver::resolve).collect(Collectors.toList()));
+        if (limit > 0 && owners.size() == limit) {
+            paginatedReferences.setNextCursor(owners.get(owners.size() - 1));
+        }
+
+        return paginatedReferences;
+    }
 
-            List<DocumentReference> documentReferences = getMissingDataTaskOwners(offset, limit);
+    @Override
+    public int countMissingDataTaskOwnersAfter(String after) throws TaskException
+    {
+        if (after == null || after.isEmpty()) {
+            return countMissingDataTaskOwners();
+        }
+        try {
+            Query query = queryManager.createQuery(
+                COUNT_TASKS_WITH_OWNER + INCOMPLETE_TASKS_CONDITION + AFTER_CONDITION, Query.XWQL);
+            query.bindValue(AFTER, after);
+            return ((Long) query.execute().get(0)).intValue();
+        } catch (QueryException e) {
+            throw new TaskException("Failed to count the task pages that contain incomplete macros.", e);
+        }
+    }
 
-            PaginatedReferences paginatedReferences = new PaginatedReferences();
-            paginatedReferences.setTotal(total);
-            paginatedReferences.setCount(documentReferences.size());
-            paginatedReferences.setPages(documentReferences);
-            paginatedReferences.setOffset(offset);
+    @Override
+    public void forEachOwner(Consumer<DocumentReference> consumer) throws TaskException
+    {
+        String after = null;
+        List<String> owners;
+        do {
+            owners = getOwnersAfter(after, OWNERS_CHUNK_SIZE);
+            for (String owner : owners) {
+                consumer.accept(resolver.resolve(owner));
+            }
+            if (!owners.isEmpty()) {
+                after = owners.get(owners.size() - 1);
+            }
+        } while (owners.size() == OWNERS_CHUNK_SIZE);
+    }
 
-            return paginatedReferences;
+    private List<String> getOwnersAfter(String after, int limit) throws TaskException
+    {
+        try {
+            boolean hasCursor = after != null && !after.isEmpty();
+            String statement = QUERY_TASKS_WITH_OWNER + INCOMPLETE_TASKS_CONDITION
+                + (hasCursor ? AFTER_CONDITION : "") + " ORDER BY task.owner";
+            Query query = queryManager.createQuery(statement, Query.XWQL);
+            if (hasCursor) {
+                query.bindValue(AFTER, after);
+            }
+            if (limit > 0) {
+                query.setLimit(limit);
+            }
+            return query.execute();
         } catch (QueryException e) {
-            throw new TaskException("Failed to retrieve the task pages that contain incomplete macros.");
+            throw new TaskException("Failed to retrieve the task pages that contain incomplete macros.", e);
         }
     }
 
-    private void processOwnersWithIncompleteTasks(Consumer<DocumentReference> consumer) throws TaskException
+    private int countMissingDataTaskOwners() throws TaskException
     {
-        processOwnersWithIncompleteTasks(consumer, 0, 0);
+        String wiki = contextProvider.get().getWikiId();
+        Integer total = totals.get(wiki);
+        if (total == null) {
+            long loadedGeneration = generation.get();
+            try {
+                Query query =
+                    queryManager.createQuery(COUNT_TASKS_WITH_OWNER + INCOMPLETE_TASKS_CONDITION, Query.XWQL);
+                total = ((Long) query.execute().get(0)).intValue();
+            } catch (QueryException e) {
+                throw new TaskException("Failed to retrieve the task pages that contain incomplete macros.");
+            }
+            // Don't cache a count that might have been computed before a change of the task pages.
+            if (loadedGeneration == generation.get()) {
+                totals.put(wiki, total);
+            }
+        }
+        return total;
     }
 
     private void processOwnersWithIncompleteTasks(Consumer<DocumentReference> consumer, int offset, int limit)
         throws TaskException
     {
         try {
-            String statement = QUERY_TASKS_WITH_OWNER
-                + " and (task.reporter = '' or (task.status = 'Done' and task.completeDate is null))";
+            String statement = QUERY_TASKS_WITH_OWNER + INCOMPLETE_TASKS_CONDITION;
             Query query = queryManager.createQuery(statement, Query.XWQL);
             if (offset > 0) {
                 query.setOffset(offset);
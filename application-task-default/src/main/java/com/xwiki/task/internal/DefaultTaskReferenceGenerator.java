@@ -19,16 +19,25 @@
  */
 package com.xwiki.task.internal;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
 
 import com.xwiki.task.TaskException;
 import com.xwiki.task.TaskReferenceGenerator;
@@ -45,39 +54,134 @@ public class DefaultTaskReferenceGenerator implements TaskReferenceGenerator
 {
     private static final String TASK_PAGE_NAME_PREFIX = "Task_";
 
+    private static final String WEB_HOME = "WebHome";
+
+    // The task numbers are compared in the database: a longer number is higher and numbers of the same length
+    // compare like strings. Only the pages that don't have a numeric suffix, e.g. Task_Other, are skipped in Java.
+    private static final String TERMINAL_TASK_PAGES_STATEMENT = "select doc.name from XWikiDocument doc "
+        + "where doc.space = :space and doc.name like :prefix escape '!' "
+        + "order by length(doc.name) desc, doc.name desc";
+
+    private static final String NESTED_TASK_PAGES_STATEMENT = "select doc.space from XWikiDocument doc "
+        + "where doc.space like :prefix escape '!' and doc.name = 'WebHome' "
+        + "order by length(doc.space) desc, doc.space desc";
+
+    private static final String PREFIX = "prefix";
+
+    private static final int QUERY_PAGE_SIZE = 10;
+
+    private static final Pattern TASK_PAGE_NAME = Pattern.compile(TASK_PAGE_NAME_PREFIX + "(\\d{1,9})");
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final int MAX_CACHED_SPACES = 1000;
+
     @Inject
     private DocumentAccessBridge documentAccessBridge;
 
-    private final Map<SpaceReference, Integer> nameOccurences = new HashMap<>();
+    @Inject
+    private QueryManager queryManager;
 
-    @Override
-    public synchronized DocumentReference generate(DocumentReference parent) throws TaskException
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    // Least recently used spaces are evicted and their next suffix is computed again when needed.
+    private final Map<SpaceReference, Integer> nameOccurences =
+        Collections.synchronizedMap(new LRUMap<>(MAX_CACHED_SPACES));
+
+    /**
+     * Default constructor.
+     */
+    public DefaultTaskReferenceGenerator()
     {
-        try {
-            SpaceReference parentSpaceRef = parent.getLastSpaceReference();
-            return getUniqueName(parentSpaceRef);
-        } catch (Exception e) {
-            throw new TaskException(String.format("Failed to generate an unique name for the parent [%s].", parent), e);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
         }
     }
 
-    private DocumentReference getUniqueName(SpaceReference spaceRef) throws Exception
+    @Override
+    public DocumentReference generate(DocumentReference parent) throws TaskException
     {
+        return generate(parent, 1).get(0);
+    }
 
-        int i = nameOccurences.getOrDefault(spaceRef, 1);
-        String pageName = TASK_PAGE_NAME_PREFIX + i;
-        DocumentReference docRef = composeDocReference(pageName, spaceRef, false);
-        DocumentReference nonTerminalDocRef = composeDocReference(pageName, spaceRef, true);
+    @Override
+    public List<DocumentReference> generate(DocumentReference parent, int count) throws TaskException
+    {
+        if (count < 1) {
+            throw new TaskException(String.format("Cannot generate [%d] task references.", count));
+        }
+        SpaceReference parentSpaceRef = parent.getLastSpaceReference();
+        synchronized (locks[Math.floorMod(parentSpaceRef.hashCode(), LOCK_STRIPES)]) {
+            try {
+                return getUniqueNames(parentSpaceRef, count);
+            } catch (Exception e) {
+                throw new TaskException(
+                    String.format("Failed to generate an unique name for the parent [%s].", parent), e);
+            }
+        }
+    }
 
-        while (documentAccessBridge.exists(docRef) || documentAccessBridge.exists(nonTerminalDocRef)) {
+    private List<DocumentReference> getUniqueNames(SpaceReference spaceRef, int count) throws Exception
+    {
+        Integer cached = nameOccurences.get(spaceRef);
+        int i = cached != null ? cached : getHighestTaskNumber(spaceRef) + 1;
+        List<DocumentReference> references = new ArrayList<>(count);
+        // Look for a run of consecutive free names. The pages created since the last generation, e.g. by another
+        // cluster node, are skipped.
+        while (references.size() < count) {
+            String pageName = TASK_PAGE_NAME_PREFIX + i;
+            DocumentReference docRef = composeDocReference(pageName, spaceRef, false);
+            if (documentAccessBridge.exists(docRef)
+                || documentAccessBridge.exists(composeDocReference(pageName, spaceRef, true)))
+            {
+                references.clear();
+            } else {
+                references.add(docRef);
+            }
             i++;
-            pageName = TASK_PAGE_NAME_PREFIX + i;
-            docRef = composeDocReference(pageName, spaceRef, false);
-            nonTerminalDocRef = composeDocReference(pageName, spaceRef, true);
-            nameOccurences.put(spaceRef, i);
         }
-        nameOccurences.put(spaceRef, ++i);
-        return docRef;
+        nameOccurences.put(spaceRef, i);
+        return references;
+    }
+
+    private int getHighestTaskNumber(SpaceReference spaceRef) throws QueryException
+    {
+        String wiki = spaceRef.getWikiReference().getName();
+        String space = localSerializer.serialize(spaceRef);
+        Query terminalQuery = queryManager.createQuery(TERMINAL_TASK_PAGES_STATEMENT, Query.HQL)
+            .bindValue("space", space)
+            .bindValue(PREFIX, escapeLike(TASK_PAGE_NAME_PREFIX) + '%');
+        String nestedSpacePrefix = space + '.';
+        Query nestedQuery = queryManager.createQuery(NESTED_TASK_PAGES_STATEMENT, Query.HQL)
+            .bindValue(PREFIX, escapeLike(nestedSpacePrefix + TASK_PAGE_NAME_PREFIX) + '%');
+        return Math.max(getHighestTaskNumber(terminalQuery, wiki, 0),
+            getHighestTaskNumber(nestedQuery, wiki, nestedSpacePrefix.length()));
+    }
+
+    private int getHighestTaskNumber(Query query, String wiki, int prefixLength) throws QueryException
+    {
+        query.setWiki(wiki).setLimit(QUERY_PAGE_SIZE);
+        for (int offset = 0;; offset += QUERY_PAGE_SIZE) {
+            List<String> names = query.setOffset(offset).execute();
+            for (String name : names) {
+                Matcher matcher = TASK_PAGE_NAME.matcher(name.substring(prefixLength));
+                if (matcher.matches()) {
+                    return Integer.parseInt(matcher.group(1));
+                }
+            }
+            if (names.size() < QUERY_PAGE_SIZE) {
+                return 0;
+            }
+        }
+    }
+
+    private String escapeLike(String value)
+    {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 
     private DocumentReference composeDocReference(String pageRef, SpaceReference spaceReference, boolean terminal)
@@ -86,7 +190,7 @@ public class DefaultTaskReferenceGenerator implements TaskReferenceGenerator
             return new DocumentReference(pageRef, spaceReference);
         } else {
             SpaceReference spRef = new SpaceReference(pageRef, spaceReference);
-            return new DocumentReference("WebHome", spRef);
+            return new DocumentReference(WEB_HOME, spRef);
         }
     }
 }
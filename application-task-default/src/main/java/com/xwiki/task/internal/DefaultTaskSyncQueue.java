@@ -0,0 +1,243 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xwiki.task.TaskConfiguration;
+import com.xwiki.task.TaskException;
+import com.xwiki.task.TaskSyncQueue;
+import com.xwiki.task.model.Task;
+
+/**
+ * Default implementation of {@link TaskSyncQueue}. The documents are synchronized by a fixed number of workers and a
+ * document is always handled by the same worker, so that it is never synchronized concurrently. A document that is
+ * enqueued again while it waits for its worker is synchronized only once. Enqueuing a document only changes the
+ * queue in memory; the backlog is persisted in batches, in the background, so that the documents that were still
+ * waiting are synchronized after a restart. Each batch writes again all the documents still waiting in the wiki, so
+ * that an entry lost to a concurrent write of another cluster node is restored.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component
+@Singleton
+public class DefaultTaskSyncQueue implements TaskSyncQueue, Initializable, Disposable
+{
+    private static final String SYNCHRONOUS_FLAG = "taskSyncSynchronous";
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final long FLUSH_INTERVAL = 1;
+
+    @Inject
+    private TaskConfiguration configuration;
+
+    @Inject
+    private TaskSyncQueueStore store;
+
+    @Inject
+    private Provider<TaskXDOMProcessor> taskXDOMProcessorProvider;
+
+    @Inject
+    private Provider<TaskPageSynchronizer> synchronizerProvider;
+
+    @Inject
+    private TaskFingerprintCache fingerprintCache;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    private TaskWorkers taskWorkers;
+
+    @Inject
+    private Logger logger;
+
+    // The documents waiting for their worker.
+    private final Set<DocumentReference> pending = ConcurrentHashMap.newKeySet();
+
+    // The documents enqueued and not synchronized yet, that must be in the persisted backlog.
+    private final Set<DocumentReference> queued = ConcurrentHashMap.newKeySet();
+
+    // The documents of the queue that are known to be in the persisted backlog.
+    private final Set<DocumentReference> persisted = ConcurrentHashMap.newKeySet();
+
+    // The documents synchronized since the last flush, that must be removed from the persisted backlog.
+    private final Set<DocumentReference> synced = ConcurrentHashMap.newKeySet();
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private ExecutorService[] workers;
+
+    private ScheduledExecutorService persister;
+
+    /**
+     * Default constructor.
+     */
+    public DefaultTaskSyncQueue()
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public void initialize()
+    {
+        workers = new ExecutorService[Math.max(1, configuration.getSyncQueueWorkers())];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = taskWorkers.newPool("TaskPageSync-" + i, 1);
+        }
+        persister = taskWorkers.newScheduledPool("TaskPageSyncPersister");
+        persister.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public boolean isAsynchronous()
+    {
+        return contextProvider.get().get(SYNCHRONOUS_FLAG) == null && configuration.isAsyncTaskPageSyncEnabled();
+    }
+
+    @Override
+    public void setSynchronous(boolean synchronous)
+    {
+        contextProvider.get().put(SYNCHRONOUS_FLAG, synchronous ? Boolean.TRUE : null);
+    }
+
+    @Override
+    public void enqueue(DocumentReference owner)
+    {
+        boolean scheduled;
+        synchronized (getLock(owner)) {
+            synced.remove(owner);
+            queued.add(owner);
+            scheduled = pending.add(owner);
+        }
+        if (scheduled) {
+            workers[Math.floorMod(owner.hashCode(), workers.length)].execute(() -> sync(owner));
+        }
+    }
+
+    @Override
+    public List<DocumentReference> getBacklog(String wiki) throws TaskException
+    {
+        Set<DocumentReference> backlog = new LinkedHashSet<>(store.getOwners(wiki));
+        backlog.addAll(getByWiki(queued).getOrDefault(wiki, Set.of()));
+        backlog.removeAll(synced);
+        return List.copyOf(backlog);
+    }
+
+    @Override
+    public void dispose()
+    {
+        persister.shutdownNow();
+        for (ExecutorService worker : workers) {
+            worker.shutdownNow();
+        }
+        // Persist the documents that are still waiting, so that they are synchronized after the restart.
+        flush();
+    }
+
+    private Object getLock(DocumentReference owner)
+    {
+        return locks[Math.floorMod(owner.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void sync(DocumentReference owner)
+    {
+        // Saves of the owner made from now on need another synchronization.
+        pending.remove(owner);
+        try {
+            taskWorkers.runInContext(owner.getWikiReference().getName(), context -> {
+                XWikiDocument document = context.getWiki().getDocument(owner, context);
+                if (!document.isNew()) {
+                    context.setUserReference(document.getContentAuthorReference());
+                    context.put(AbstractTaskEventListener.TASK_UPDATE_FLAG, true);
+                    List<Task> tasks = taskXDOMProcessorProvider.get().extract(document.getXDOM(), owner);
+                    fingerprintCache.put(owner, document.getContent(),
+                        synchronizerProvider.get().syncTaskPages(document, context, tasks, Collections.emptyMap()));
+                }
+            });
+            synchronized (getLock(owner)) {
+                if (!pending.contains(owner)) {
+                    queued.remove(owner);
+                    synced.add(owner);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to synchronize the task pages of [{}]. Cause: [{}].", owner,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private void flush()
+    {
+        Map<String, Set<DocumentReference>> queuedByWiki = getByWiki(queued);
+        Map<String, Set<DocumentReference>> syncedByWiki = getByWiki(synced);
+        Set<String> wikis = new HashSet<>(queuedByWiki.keySet());
+        wikis.addAll(syncedByWiki.keySet());
+        for (String wiki : wikis) {
+            Set<DocumentReference> added = queuedByWiki.getOrDefault(wiki, Set.of());
+            Set<DocumentReference> removed = syncedByWiki.getOrDefault(wiki, Set.of());
+            if (removed.isEmpty() && persisted.containsAll(added)) {
+                continue;
+            }
+            try {
+                taskWorkers.runInContext(wiki, context -> store.update(wiki, added, removed));
+                persisted.addAll(added);
+                persisted.removeAll(removed);
+                synced.removeAll(removed);
+            } catch (Exception e) {
+                logger.warn("Failed to persist the task synchronization backlog of [{}]. Cause: [{}].", wiki,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    private Map<String, Set<DocumentReference>> getByWiki(Set<DocumentReference> owners)
+    {
+        return owners.stream().collect(Collectors.groupingBy(owner -> owner.getWikiReference().getName(),
+            Collectors.toSet()));
+    }
+}
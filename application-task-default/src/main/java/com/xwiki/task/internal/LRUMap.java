@@ -0,0 +1,58 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A map that holds at most a given number of entries, evicting the least recently accessed ones first. It is not
+ * thread safe, wrap it with {@link java.util.Collections#synchronizedMap(Map)} when it is shared.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @version $Id$
+ * @since 3.11.0
+ */
+public class LRUMap<K, V> extends LinkedHashMap<K, V>
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int maxSize;
+
+    /**
+     * @param maxSize the maximum number of entries held by the map.
+     */
+    public LRUMap(int maxSize)
+    {
+        super(INITIAL_CAPACITY, LOAD_FACTOR, true);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+    {
+        return size() > maxSize;
+    }
+}
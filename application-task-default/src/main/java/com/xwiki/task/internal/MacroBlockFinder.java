@@ -26,6 +26,7 @@ import java.util.function.Function;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
@@ -69,6 +70,50 @@ public class MacroBlockFinder
         CONTINUE
     }
 
+    /**
+     * Callback used by {@link #visit(XDOM, Syntax, MacroBlockVisitor)}.
+     *
+     * @since 3.11.0
+     */
+    @FunctionalInterface
+    public interface MacroBlockVisitor
+    {
+        /**
+         * @param macro the found macro block.
+         * @param modifications must be marked by the visitor when it modifies the found macro block or its siblings,
+         *     so that the content of the macro that contains them gets updated.
+         * @return BREAK if the lookup should stop; SKIP if the content of the current macro should not be parsed;
+         *     CONTINUE if the content of the current macro should be parsed.
+         */
+        Lookup visit(MacroBlock macro, Modifications modifications);
+    }
+
+    /**
+     * Tracks whether the blocks of a content were modified while being visited.
+     *
+     * @since 3.11.0
+     */
+    public static final class Modifications
+    {
+        private boolean modified;
+
+        /**
+         * Signal that the visited blocks were modified.
+         */
+        public void markModified()
+        {
+            this.modified = true;
+        }
+
+        /**
+         * @return whether the visited blocks were modified or not.
+         */
+        public boolean isModified()
+        {
+            return modified;
+        }
+    }
+
     @Inject
     private MacroUtils macroUtils;
 
@@ -85,30 +130,76 @@ public class MacroBlockFinder
      */
     public XDOM find(XDOM content, Syntax syntax, Function<MacroBlock, Lookup> function)
     {
-        List<MacroBlock> macros = content.getBlocks(new ClassBlockMatcher(MacroBlock.class), Block.Axes.DESCENDANT);
-        for (MacroBlock macro : macros) {
-            Lookup lookup = function.apply(macro);
-            if (lookup.equals(Lookup.BREAK)) {
-                break;
-            } else if (lookup.equals(Lookup.SKIP)) {
-                continue;
-            }
+        // The function might modify any macro it receives so the content of every visited macro is updated.
+        return visit(content, syntax, (macro, modifications) -> {
+            modifications.markModified();
+            return function.apply(macro);
+        });
+    }
 
-            if (macro.getContent() != null && !macro.getContent().isEmpty()
-                && this.macroUtils.isMacroContentParsable(macro.getId()))
-            {
-                try {
-                    XDOM updatedContent =
-                        find(this.macroUtils.getMacroContentXDOM(macro, syntax), syntax, function);
-                    macroUtils.updateMacroContent(macro,
-                        macroUtils.renderMacroContent(updatedContent.getChildren(), syntax));
-                } catch (ComponentLookupException | MacroExecutionException e) {
-                    logger.warn("Failed to update the content of the macro identified by [{}]. Cause: [{}]",
-                        macro.getId(), ExceptionUtils.getRootCauseMessage(e));
+    /**
+     * Walk the given content and the content of the nested macros, in document order. The walk stops as soon as the
+     * visitor returns BREAK, at any nesting level. The content of a nested macro is rendered and replaced only if the
+     * visitor marked it as modified, so read-only visitors never trigger any rendering.
+     *
+     * @param content the content that will be searched recursively for macro blocks.
+     * @param syntax the syntax of the content.
+     * @param visitor the visitor that is called for each found macro block.
+     * @return the given content, possibly modified by the visitor.
+     * @since 3.11.0
+     */
+    public XDOM visit(XDOM content, Syntax syntax, MacroBlockVisitor visitor)
+    {
+        walk(content, syntax, visitor, new Modifications());
+        return content;
+    }
+
+    /**
+     * @return {@code false} if the lookup should stop, {@code true} otherwise.
+     */
+    private boolean walk(Block block, Syntax syntax, MacroBlockVisitor visitor, Modifications modifications)
+    {
+        // Iterate over a copy since the visitor can replace or remove the visited blocks.
+        Block[] children = block.getChildren().toArray(new Block[0]);
+        for (int i = 0; i < children.length; i++) {
+            Block child = children[i];
+            if (child instanceof MacroBlock) {
+                MacroBlock macro = (MacroBlock) child;
+                Lookup lookup = visitor.visit(macro, modifications);
+                if (Lookup.BREAK.equals(lookup)
+                    || (Lookup.CONTINUE.equals(lookup) && !walkMacroContent(macro, i, syntax, visitor, modifications)))
+                {
+                    return false;
                 }
             }
+            if (!walk(child, syntax, visitor, modifications)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean walkMacroContent(MacroBlock macro, int index, Syntax syntax, MacroBlockVisitor visitor,
+        Modifications modifications)
+    {
+        if (StringUtils.isEmpty(macro.getContent()) || !this.macroUtils.isMacroContentParsable(macro.getId())) {
+            return true;
+        }
+        try {
+            XDOM macroContent = this.macroUtils.getMacroContentXDOM(macro, syntax);
+            Modifications contentModifications = new Modifications();
+            boolean proceed = walk(macroContent, syntax, visitor, contentModifications);
+            if (contentModifications.isModified()) {
+                macroUtils.updateMacroContent(macro,
+                    macroUtils.renderMacroContent(macroContent.getChildren(), syntax), index);
+                modifications.markModified();
+            }
+            return proceed;
+        } catch (ComponentLookupException | MacroExecutionException e) {
+            logger.warn("Failed to update the content of the macro identified by [{}]. Cause: [{}]",
+                macro.getId(), ExceptionUtils.getRootCauseMessage(e));
+            return true;
         }
-        return content;
     }
 
     /**
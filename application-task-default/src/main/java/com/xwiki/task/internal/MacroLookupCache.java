@@ -0,0 +1,140 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.tuple.Triple;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.descriptor.ComponentDescriptor;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroId;
+import org.xwiki.rendering.macro.MacroLookupException;
+import org.xwiki.rendering.macro.MacroManager;
+import org.xwiki.rendering.macro.descriptor.ContentDescriptor;
+import org.xwiki.rendering.renderer.BlockRenderer;
+import org.xwiki.rendering.syntax.Syntax;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Caches the component lookups done by {@link DefaultMacroUtils} for each visited macro block: the block renderer of
+ * each syntax and whether the content of each macro can be parsed. The caches are cleared whenever a macro or a block
+ * renderer is registered or unregistered, e.g. when an extension is installed, see
+ * {@link com.xwiki.task.internal.listener.MacroLookupCacheListener}. Since wiki macros can be registered for a wiki
+ * or for a user, the macro lookups are cached for the current wiki and user.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = MacroLookupCache.class)
+@Singleton
+public class MacroLookupCache
+{
+    private static final int MAX_PARSABLE_CONTENTS = 10000;
+
+    @Inject
+    @Named("context")
+    private ComponentManager contextComponentManager;
+
+    @Inject
+    private MacroManager macroManager;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    // Indexed by wiki, user and macro id.
+    private final Map<Triple<String, String, String>, Boolean> parsableContents =
+        Collections.synchronizedMap(new LRUMap<>(MAX_PARSABLE_CONTENTS));
+
+    private final Map<String, BlockRenderer> renderers = new ConcurrentHashMap<>();
+
+    /**
+     * @param syntax a syntax.
+     * @return the renderer of the given syntax.
+     * @throws ComponentLookupException if there is no renderer for the given syntax.
+     */
+    public BlockRenderer getRenderer(Syntax syntax) throws ComponentLookupException
+    {
+        String hint = syntax.toIdString();
+        BlockRenderer renderer = renderers.get(hint);
+        if (renderer == null) {
+            renderer = contextComponentManager.getInstance(BlockRenderer.class, hint);
+            // Only the renderers that are singletons can be reused.
+            ComponentDescriptor<BlockRenderer> descriptor =
+                contextComponentManager.getComponentDescriptor(BlockRenderer.class, hint);
+            if (descriptor != null
+                && ComponentInstantiationStrategy.SINGLETON.equals(descriptor.getInstantiationStrategy()))
+            {
+                renderers.put(hint, renderer);
+            }
+        }
+        return renderer;
+    }
+
+    /**
+     * @param macroId the id of a macro. i.e. info
+     * @return true if the content of the macro can be parsed, supports xwiki syntax; false if not
+     */
+    public boolean isMacroContentParsable(String macroId)
+    {
+        XWikiContext context = contextProvider.get();
+        Triple<String, String, String> key = Triple.of(context.getWikiId(),
+            context.getUserReference() != null ? context.getUserReference().toString() : null, macroId);
+        Boolean parsable = parsableContents.get(key);
+        if (parsable == null) {
+            // Looked up outside of the lock of the map since the macro manager can be slow.
+            parsable = computeMacroContentParsable(macroId);
+            parsableContents.put(key, parsable);
+        }
+        return parsable;
+    }
+
+    /**
+     * Clear the cached lookups.
+     */
+    public void clear()
+    {
+        parsableContents.clear();
+        renderers.clear();
+    }
+
+    private boolean computeMacroContentParsable(String macroId)
+    {
+        try {
+            Macro<?> macro = macroManager.getMacro(new MacroId(macroId));
+            ContentDescriptor contentDescriptor = macro.getDescriptor().getContentDescriptor();
+            return contentDescriptor != null && Block.LIST_BLOCK_TYPE.equals(contentDescriptor.getType());
+        } catch (MacroLookupException e) {
+            return false;
+        }
+    }
+}
@@ -19,7 +19,7 @@
  */
 package com.xwiki.task.internal;
 
-import java.text.SimpleDateFormat;
+import java.text.DateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
@@ -114,7 +114,7 @@ public class TaskBlockProcessor
      * @throws TaskException if the text parameter failed to be parsed.
      */
     public List<Block> generateTaskContentBlocks(List<String> assignees, Date duedate, String text,
-        SimpleDateFormat storageFormat) throws TaskException
+        DateFormat storageFormat) throws TaskException
     {
         XDOM newTaskContentXDOM = null;
         try {
@@ -180,7 +180,7 @@ public class TaskBlockProcessor
     }
 
     private boolean handleDeadline(Block dateMacro, XDOM newTaskContentXDOM, Date deadlineProp,
-        SimpleDateFormat storageFormat)
+        DateFormat storageFormat)
     {
         if (deadlineProp == null && dateMacro == null) {
             // Nothing changed.
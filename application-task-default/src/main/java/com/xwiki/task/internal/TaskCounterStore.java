@@ -0,0 +1,131 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.model.reference.WikiReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xwiki.task.TaskException;
+
+/**
+ * Persists, in each wiki, the highest task number reserved so far. Each cluster node and each restart reserves its
+ * own block of numbers past this mark, so the numbers handed out by {@link DefaultTaskCounter} don't collide. The
+ * reservations are optimistic: the counter is read from the database, bypassing the document cache that other nodes
+ * may not have invalidated yet, and the reservation is retried when another node saved the counter in the meantime.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskCounterStore.class)
+@Singleton
+public class TaskCounterStore
+{
+    private static final List<String> SPACE = List.of("TaskManager");
+
+    private static final LocalDocumentReference COUNTER_CLASS_REFERENCE =
+        new LocalDocumentReference(SPACE, "TaskCounterClass");
+
+    private static final LocalDocumentReference COUNTER_REFERENCE = new LocalDocumentReference(SPACE, "TaskCounter");
+
+    private static final String RESERVED = "reserved";
+
+    private static final int MAX_ATTEMPTS = 10;
+
+    /**
+     * Identifies the reservations of this instance in the counter history, to tell them apart from the reservations
+     * saved concurrently with the same version by other nodes.
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    /**
+     * Reserve a block of task numbers in a wiki.
+     *
+     * @param wiki the wiki where the numbers are reserved.
+     * @param floor the number after which the block must start, even if the persisted mark is lower.
+     * @param size the size of the block.
+     * @return the number right before the reserved block, i.e. the block is {@code [result + 1, result + size]}.
+     * @throws TaskException if the reservation could not be persisted.
+     */
+    public synchronized int reserveBlock(String wiki, int floor, int size) throws TaskException
+    {
+        XWikiContext context = contextProvider.get();
+        DocumentReference counterReference = new DocumentReference(COUNTER_REFERENCE, new WikiReference(wiki));
+        try {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                XWikiDocument storedDocument = loadCounter(counterReference, context);
+                String version = storedDocument.isNew() ? null : storedDocument.getVersion();
+                XWikiDocument counterDocument = storedDocument.clone();
+                counterDocument.setOriginalDocument(storedDocument);
+                BaseObject counterObject = counterDocument.getXObject(COUNTER_CLASS_REFERENCE, true, context);
+                int from = Math.max(counterObject.getIntValue(RESERVED), floor);
+                counterObject.setIntValue(RESERVED, from + size);
+                counterDocument.setHidden(true);
+                String comment = String.format("Reserved the task numbers from [%d] to [%d] for [%s].", from + 1,
+                    from + size, instanceId);
+
+                // Don't save over a reservation made by another node since the counter was read.
+                if (!Objects.equals(version, getStoredVersion(counterReference, context))) {
+                    continue;
+                }
+                context.getWiki().saveDocument(counterDocument, comment, true, context);
+                // Another node might have saved the counter between the check and the save. Only the reservation
+                // that ended up persisted is valid, the others are retried past it.
+                XWikiDocument savedDocument = loadCounter(counterReference, context);
+                if (Objects.equals(savedDocument.getVersion(), counterDocument.getVersion())
+                    && comment.equals(savedDocument.getComment()))
+                {
+                    return from;
+                }
+            }
+        } catch (XWikiException e) {
+            throw new TaskException(String.format("Failed to reserve task numbers in the wiki [%s].", wiki), e);
+        }
+        throw new TaskException(String.format(
+            "Failed to reserve task numbers in the wiki [%s] after [%d] concurrent attempts.", wiki, MAX_ATTEMPTS));
+    }
+
+    private XWikiDocument loadCounter(DocumentReference counterReference, XWikiContext context) throws XWikiException
+    {
+        return context.getWiki().getHibernateStore().loadXWikiDoc(new XWikiDocument(counterReference), context);
+    }
+
+    private String getStoredVersion(DocumentReference counterReference, XWikiContext context) throws XWikiException
+    {
+        XWikiDocument storedDocument = loadCounter(counterReference, context);
+        return storedDocument.isNew() ? null : storedDocument.getVersion();
+    }
+}
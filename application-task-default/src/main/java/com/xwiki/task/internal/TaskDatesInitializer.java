@@ -19,7 +19,7 @@
  */
 package com.xwiki.task.internal;
 
-import java.text.SimpleDateFormat;
+import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -57,6 +57,7 @@ import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.doc.rcs.XWikiRCSNodeInfo;
 import com.xwiki.date.DateMacroConfiguration;
 import com.xwiki.task.MacroUtils;
+import com.xwiki.task.TaskConfiguration;
 import com.xwiki.task.TaskException;
 import com.xwiki.task.model.Task;
 
@@ -70,13 +71,15 @@ import com.xwiki.task.model.Task;
 @Singleton
 public class TaskDatesInitializer
 {
-    private static final String TASK_PATTERN_STRING = "\\{\\{task[^}]*/?}}";
-
-    private static final String TASK_PARAMETERS_PATTERN_STRING = "(\\w+)=['\"]([^'\"]*)['\"]";
-
-    private final Pattern taskPattern = Pattern.compile(TASK_PATTERN_STRING);
+    /**
+     * Matches the task macro calls in the source of a document.
+     */
+    static final Pattern TASK_PATTERN = Pattern.compile("\\{\\{task[^}]*/?}}");
 
-    private final Pattern paramPattern = Pattern.compile(TASK_PARAMETERS_PATTERN_STRING);
+    /**
+     * Matches the parameters of a task macro call.
+     */
+    static final Pattern PARAMETERS_PATTERN = Pattern.compile("(\\w+)=['\"]([^'\"]*)['\"]");
 
     @Inject
     private DateMacroConfiguration configuration;
@@ -96,6 +99,12 @@ public class TaskDatesInitializer
     @Inject
     private MacroUtils macroUtils;
 
+    @Inject
+    private TaskConfiguration taskConfiguration;
+
+    @Inject
+    private TaskRevisionScanner revisionScanner;
+
     /**
      * @param content the parsed content of the document.
      * @return true if the XDOM contains task macros with incomplete data. False otherwise.
@@ -137,16 +146,20 @@ public class TaskDatesInitializer
                 String.format("Could not extract the tasks from the content of [%s].", ownerDoc.getDocumentReference()),
                 e);
         }
-        SimpleDateFormat storageFormat = new SimpleDateFormat(configuration.getStorageDateFormat());
+        DateFormat storageFormat = configuration.getStorageDateFormatter();
 
         if (createDateTasks.isEmpty() && completeDateTasks.isEmpty()) {
             return false;
         }
         int foundTasks = createDateTasks.size() + completeDateTasks.size();
-        // Check also for the first version before comparing the versions.
-        extractFromVersion1OfDoc(versions, createDateTasks, completeDateTasks, ownerDoc, storageFormat);
+        if (taskConfiguration.isForwardRevisionScanEnabled()) {
+            revisionScanner.scan(ownerDoc, versions, createDateTasks, completeDateTasks, storageFormat, context);
+        } else {
+            // Check also for the first version before comparing the versions.
+            extractFromVersion1OfDoc(versions, createDateTasks, completeDateTasks, ownerDoc, storageFormat);
 
-        compareVersionsAndExtract(context, versions, createDateTasks, completeDateTasks, ownerDoc, storageFormat);
+            compareVersionsAndExtract(context, versions, createDateTasks, completeDateTasks, ownerDoc, storageFormat);
+        }
 
         ListIterator<MacroBlock> li = updatableMacros.listIterator(updatableMacros.size());
         while (li.hasPrevious()) {
@@ -168,7 +181,7 @@ public class TaskDatesInitializer
     }
 
     private void compareVersionsAndExtract(XWikiContext context, Version[] versions, Map<String, Block> createDateTasks,
-        Map<String, Block> completeDateTasks, XWikiDocument ownerDoc, SimpleDateFormat storageFormat)
+        Map<String, Block> completeDateTasks, XWikiDocument ownerDoc, DateFormat storageFormat)
     {
         // We start comparing from the last/current version. We compare (n - 1)-th to the n-th version and slide to
         // the first two versions. Ex: versions array length n = 5; step1: cmp(3, 4) -> fails; step2: cmp(2, 4) ->
@@ -195,7 +208,7 @@ public class TaskDatesInitializer
     }
 
     private void extractFromVersion1OfDoc(Version[] versions, Map<String, Block> createDateTasks,
-        Map<String, Block> completeDateTasks, XWikiDocument ownerDoc, SimpleDateFormat storageFormat)
+        Map<String, Block> completeDateTasks, XWikiDocument ownerDoc, DateFormat storageFormat)
     {
         try {
             XWikiDocument v1Doc = revisionProvider.getRevision(ownerDoc, versions[0].toString());
@@ -210,14 +223,14 @@ public class TaskDatesInitializer
     }
 
     private void inferDateFromContent(Map<String, Block> createDateBlocks, Map<String, Block> completeDateBlocks,
-        SimpleDateFormat storageFormat, Date date, String author, Delta delta)
+        DateFormat storageFormat, Date date, String author, Delta delta)
     {
-        Matcher matcher = taskPattern.matcher(delta.getRevised().toString());
-        Matcher originalTasksMatcher = taskPattern.matcher(delta.getOriginal().toString());
+        Matcher matcher = TASK_PATTERN.matcher(delta.getRevised().toString());
+        Matcher originalTasksMatcher = TASK_PATTERN.matcher(delta.getOriginal().toString());
         Set<String> originalTasks = new HashSet<>();
         while (originalTasksMatcher.find()) {
             String task = originalTasksMatcher.group();
-            Matcher paramMatcher = paramPattern.matcher(task);
+            Matcher paramMatcher = PARAMETERS_PATTERN.matcher(task);
             String taskReference = "";
             while (paramMatcher.find()) {
                 if (paramMatcher.group(1).equals(Task.REFERENCE)) {
@@ -230,7 +243,7 @@ public class TaskDatesInitializer
         }
         while (matcher.find()) {
             String task = matcher.group();
-            Matcher paramMatcher = paramPattern.matcher(task);
+            Matcher paramMatcher = PARAMETERS_PATTERN.matcher(task);
             String taskReference = "";
             String status = "";
             while (paramMatcher.find()) {
@@ -0,0 +1,179 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xwiki.task.model.Task;
+
+/**
+ * Remembers the tasks extracted from the last saved content of the documents that contain task macros, so that the
+ * content of the previous version doesn't have to be parsed again on the next save. Each task is stored with a
+ * fingerprint of its macro parameters and content, which allows skipping the tasks that didn't change. The entry of
+ * an owner is evicted when one of its task pages is created, edited, deleted or rolled back by anything other than
+ * the synchronization with the macros, so that the next save of the owner repairs the task pages, see
+ * {@link com.xwiki.task.internal.listener.TaskFingerprintCacheListener}.
+ * <p>
+ * The entries are matched against a digest of the owner content rather than its version: the previous version
+ * of a document is usually reloaded from the history, without the version of the cached content being known, and
+ * a rollback or a revision deletion can bring back a content under a version that was already seen.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskFingerprintCache.class)
+@Singleton
+public class TaskFingerprintCache
+{
+    private static final int MAX_DOCUMENTS = 1000;
+
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    private final Map<DocumentReference, Entry> entries = Collections.synchronizedMap(new LRUMap<>(MAX_DOCUMENTS));
+
+    /**
+     * @param owner the document that contains the task macros.
+     * @param content the raw content of the document.
+     * @return the fingerprints of the tasks found in the given content, indexed by the task references, or
+     *     {@code null} if the content was not seen before. A task has no fingerprint when its page could not be
+     *     synchronized with the macro.
+     */
+    public Map<DocumentReference, String> get(DocumentReference owner, String content)
+    {
+        Entry entry = entries.get(owner);
+        if (entry == null || !MessageDigest.isEqual(entry.digest, digest(content))) {
+            return null;
+        }
+        return entry.fingerprints;
+    }
+
+    /**
+     * @param owner the document that contains the task macros.
+     * @param content the raw content of the document.
+     * @param fingerprints the fingerprints of the tasks found in the given content, indexed by the task references.
+     *     Use a {@code null} fingerprint for the tasks whose page could not be synchronized with the macro.
+     */
+    public void put(DocumentReference owner, String content, Map<DocumentReference, String> fingerprints)
+    {
+        entries.put(owner, new Entry(digest(content), Collections.unmodifiableMap(new HashMap<>(fingerprints))));
+    }
+
+    /**
+     * Forget the tasks extracted from the content of an owner document.
+     *
+     * @param owner the document that contains the task macros.
+     */
+    public void invalidate(DocumentReference owner)
+    {
+        entries.remove(owner);
+    }
+
+    /**
+     * Forget the tasks extracted from the content of the owner of a task page.
+     *
+     * @param document a task page, or {@code null}.
+     */
+    public void invalidateOwner(XWikiDocument document)
+    {
+        BaseObject taskObject =
+            document != null ? document.getXObject(AbstractTaskEventListener.TASK_CLASS_REFERENCE) : null;
+        if (taskObject != null && !taskObject.getStringValue(Task.OWNER).isEmpty()) {
+            invalidate(resolver.resolve(taskObject.getStringValue(Task.OWNER), document.getDocumentReference()));
+        }
+    }
+
+    /**
+     * @param task a task extracted from a task macro.
+     * @return a SHA-256 digest of the task properties that are taken from the macro parameters and content. Two tasks
+     *     have the same fingerprint only if these properties are equal.
+     */
+    public static String fingerprint(Task task)
+    {
+        StringBuilder builder = new StringBuilder();
+        append(builder, task.getName());
+        append(builder, task.getDescription());
+        append(builder, task.getReporter());
+        append(builder, task.getStatus());
+        append(builder, task.getCreateDate());
+        append(builder, task.getDueDate());
+        append(builder, task.getCompleteDate());
+        List<DocumentReference> assignees = task.getAssignees();
+        append(builder, assignees != null ? assignees.size() : null);
+        if (assignees != null) {
+            assignees.forEach(assignee -> append(builder, assignee));
+        }
+        return Base64.getEncoder().encodeToString(digest(builder.toString()));
+    }
+
+    private static void append(StringBuilder builder, Object value)
+    {
+        // Each value is prefixed with its length, so that different values can't be serialized the same way.
+        String serializedValue =
+            value instanceof Date ? String.valueOf(((Date) value).getTime()) : Objects.toString(value, null);
+        if (serializedValue == null) {
+            builder.append('-');
+        } else {
+            builder.append(serializedValue.length()).append(':').append(serializedValue);
+        }
+    }
+
+    private static byte[] digest(String content)
+    {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                .digest(Objects.toString(content, "").getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry
+    {
+        private final byte[] digest;
+
+        private final Map<DocumentReference, String> fingerprints;
+
+        Entry(byte[] digest, Map<DocumentReference, String> fingerprints)
+        {
+            this.digest = digest;
+            this.fingerprints = fingerprints;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.job.Job;
+import org.xwiki.job.JobContext;
+import org.xwiki.job.JobException;
+import org.xwiki.job.JobExecutor;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xwiki.task.TaskConfiguration;
+import com.xwiki.task.internal.job.TaskReconciliationJob;
+import com.xwiki.task.job.TaskReconciliationJobRequest;
+
+/**
+ * Records the documents saved by a job during a fold event (e.g. a Confluence migration) instead of synchronizing their
+ * task pages right away. Once the job is finished, the recorded documents are handed to a
+ * {@link TaskReconciliationJob}.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskFoldSyncRecorder.class)
+@Singleton
+public class TaskFoldSyncRecorder
+{
+    @Inject
+    private TaskConfiguration configuration;
+
+    @Inject
+    private JobContext jobContext;
+
+    @Inject
+    private JobExecutor jobExecutor;
+
+    @Inject
+    private Logger logger;
+
+    private final Map<Job, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * @return whether the documents saved in the current thread can be recorded for a later synchronization of their
+     *     task pages.
+     */
+    public boolean isEnabled()
+    {
+        return configuration.getBulkSyncWorkers() > 0 && jobContext.getCurrentJob() != null;
+    }
+
+    /**
+     * Record a document whose task pages will be synchronized once the current job is finished.
+     *
+     * @param owner the document that might contain task macros.
+     * @param context the current context.
+     */
+    public void record(DocumentReference owner, XWikiContext context)
+    {
+        Job job = jobContext.getCurrentJob();
+        if (job != null) {
+            sessions.computeIfAbsent(job, key -> new Session()).add(owner, context);
+        }
+    }
+
+    /**
+     * Start the synchronization of the task pages of the documents recorded during a job.
+     *
+     * @param job the job that finished.
+     */
+    public void complete(Job job)
+    {
+        Session session = sessions.remove(job);
+        if (session == null || session.owners.isEmpty()) {
+            return;
+        }
+        // The task pages of each wiki are written in the database of that wiki.
+        Map<WikiReference, List<DocumentReference>> ownersByWiki = session.owners.stream()
+            .collect(Collectors.groupingBy(DocumentReference::getWikiReference, Collectors.toList()));
+        ownersByWiki.forEach((wiki, owners) -> {
+            try {
+                jobExecutor.execute(TaskReconciliationJob.JOBTYPE,
+                    new TaskReconciliationJobRequest(wiki, owners, session.user));
+            } catch (JobException e) {
+                logger.error("Failed to start the synchronization of the task pages of [{}] imported documents. "
+                    + "Cause: [{}].", owners.size(), ExceptionUtils.getRootCauseMessage(e));
+            }
+        });
+    }
+
+    private static final class Session
+    {
+        private final Set<DocumentReference> owners = new LinkedHashSet<>();
+
+        private DocumentReference user;
+
+        synchronized void add(DocumentReference owner, XWikiContext context)
+        {
+            owners.add(owner);
+            user = context.getUserReference();
+        }
+    }
+}
@@ -19,7 +19,11 @@
  */
 package com.xwiki.task.internal;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
@@ -27,6 +31,7 @@ import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
@@ -34,11 +39,15 @@ import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.model.reference.PageReferenceResolver;
+import org.xwiki.observation.ObservationManager;
 import org.xwiki.rendering.block.XDOM;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xwiki.task.TaskConfiguration;
+import com.xwiki.task.TaskException;
+import com.xwiki.task.event.TaskRelativizingProgressEvent;
 import com.xwiki.task.model.Task;
 
 /**
@@ -51,12 +60,26 @@ import com.xwiki.task.model.Task;
 @Singleton
 public class TaskMacroReferenceMigrator
 {
+    /**
+     * The number of pages processed by a thread before a progress event is sent.
+     */
+    private static final int CHUNK_SIZE = 25;
+
+    private static final double MILLIS_PER_MINUTE = 60000.0;
+
+    // The characters that are escaped in the macro parameter values, in which case the serialized reference can't be
+    // searched as is in the content of the document.
+    private static final String ESCAPED_CHARACTERS = "~\"";
+
     @Inject
     private Provider<XWikiContext> contextProvider;
 
     @Inject
     private MacroBlockFinder blockFinder;
 
+    @Inject
+    private TaskMacroStreamExtractor streamExtractor;
+
     @Inject
     @Named("supercompact")
     private EntityReferenceSerializer<String> serializer;
@@ -64,6 +87,15 @@ public class TaskMacroReferenceMigrator
     @Inject
     private PageReferenceResolver<EntityReference> pageReferenceResolver;
 
+    @Inject
+    private TaskConfiguration configuration;
+
+    @Inject
+    private Provider<ObservationManager> observationManagerProvider;
+
+    @Inject
+    private TaskWorkers taskWorkers;
+
     @Inject
     private Logger logger;
 
@@ -75,42 +107,161 @@ public class TaskMacroReferenceMigrator
      */
     public void relativizeReference(List<DocumentReference> referenceList)
     {
+        XWikiContext context = contextProvider.get();
         for (DocumentReference documentReference : referenceList) {
-            // Resolve as a page ref and serialize it.
-            String compactRef = serializer.serialize(pageReferenceResolver.resolve(documentReference)) + '/';
-            try {
-                logger.debug("Searching for tasks inside [{}].", compactRef);
-                XWikiContext context = contextProvider.get();
-                XWikiDocument document = context.getWiki().getDocument(documentReference, context);
-                AtomicInteger updatedMacros = new AtomicInteger(0);
-                XDOM updatedXDOM =
-                    blockFinder.find(document.getXDOM(), document.getSyntax(), (macroBlock) -> {
-                        if (Task.MACRO_NAME.equals(macroBlock.getId()) && macroBlock.getParameters().containsKey(
-                            "reference"))
-                        {
-                            String referenceParam = macroBlock.getParameter(Task.REFERENCE);
-                            if (referenceParam.startsWith(compactRef)) {
-                                referenceParam = referenceParam.substring(compactRef.length() - 1);
-                                macroBlock.setParameter(Task.REFERENCE, referenceParam);
-                                updatedMacros.incrementAndGet();
-                            }
-                            return MacroBlockFinder.Lookup.SKIP;
+            relativizeReference(documentReference, context);
+        }
+    }
+
+    /**
+     * Same as {@link #relativizeReference(List)}, but the documents are split in chunks that are processed in
+     * parallel, each on its own context, by {@link TaskConfiguration#getReferenceRelativizerWorkers()} threads. A
+     * {@link TaskRelativizingProgressEvent} is sent after each chunk. The method returns once all the chunks have been
+     * processed.
+     *
+     * @param referenceList a list of document references, from the wiki of the current context, that will be
+     *     searched for task macros.
+     * @since 3.11.0
+     */
+    public void relativizeReferenceInChunks(List<DocumentReference> referenceList)
+    {
+        if (referenceList.isEmpty()) {
+            return;
+        }
+        int chunks = (referenceList.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int workers = Math.max(1, Math.min(configuration.getReferenceRelativizerWorkers(), chunks));
+        String wiki = contextProvider.get().getWikiId();
+        ExecutorService pool = taskWorkers.newPool("TaskReferenceRelativizer", workers);
+        ChunkProgress progress = new ChunkProgress(referenceList.size());
+        try {
+            List<Future<?>> results = new ArrayList<>(chunks);
+            for (int i = 0; i < referenceList.size(); i += CHUNK_SIZE) {
+                List<DocumentReference> chunk =
+                    referenceList.subList(i, Math.min(i + CHUNK_SIZE, referenceList.size()));
+                results.add(pool.submit(() -> {
+                    taskWorkers.runInContext(wiki, context -> relativizeChunk(chunk, progress, context));
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    logger.warn("Failed to relativize a chunk of task references. Cause: [{}].",
+                        ExceptionUtils.getRootCauseMessage(e));
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.warn("The relativizing of the task references was interrupted.");
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void relativizeChunk(List<DocumentReference> chunk, ChunkProgress progress, XWikiContext context)
+    {
+        int updated = 0;
+        for (DocumentReference documentReference : chunk) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            if (relativizeReference(documentReference, context)) {
+                updated++;
+            }
+        }
+        int processed = progress.processed.addAndGet(chunk.size());
+        int totalUpdated = progress.updated.addAndGet(updated);
+        double throughput =
+            processed * MILLIS_PER_MINUTE / Math.max(1, System.currentTimeMillis() - progress.start);
+        logger.info("Relativized the task references of [{}] out of [{}] pages, [{}] pages per minute.",
+            processed, progress.total, String.format("%.1f", throughput));
+        observationManagerProvider.get().notify(
+            new TaskRelativizingProgressEvent(processed, progress.total, totalUpdated, throughput), this, chunk);
+    }
+
+    private boolean relativizeReference(DocumentReference documentReference, XWikiContext context)
+    {
+        // Resolve as a page ref and serialize it.
+        String compactRef = serializer.serialize(pageReferenceResolver.resolve(documentReference)) + '/';
+        try {
+            logger.debug("Searching for tasks inside [{}].", compactRef);
+            XWikiDocument document = context.getWiki().getDocument(documentReference, context);
+            if (!hasAbsoluteReferences(document, compactRef)) {
+                return false;
+            }
+            AtomicInteger updatedMacros = new AtomicInteger(0);
+            XDOM updatedXDOM =
+                blockFinder.visit(document.getXDOM(), document.getSyntax(), (macroBlock, modifications) -> {
+                    if (Task.MACRO_NAME.equals(macroBlock.getId()) && macroBlock.getParameters().containsKey(
+                        "reference"))
+                    {
+                        String referenceParam = macroBlock.getParameter(Task.REFERENCE);
+                        if (referenceParam.startsWith(compactRef)) {
+                            referenceParam = referenceParam.substring(compactRef.length() - 1);
+                            macroBlock.setParameter(Task.REFERENCE, referenceParam);
+                            modifications.markModified();
+                            updatedMacros.incrementAndGet();
                         }
-                        return MacroBlockFinder.Lookup.CONTINUE;
-                    });
-                if (!document.getXDOM().equals(updatedXDOM)) {
-                    logger.debug("Replaced the reference of [{}] task macros.", updatedMacros.get());
-                    DocumentReference currentUser = context.getUserReference();
-                    context.setUserReference(document.getAuthorReference());
-                    document.setContent(updatedXDOM);
-                    context.getWiki().saveDocument(document, "Updated the reference of the task macros to be relative.",
-                        true, context);
+                        return MacroBlockFinder.Lookup.SKIP;
+                    }
+                    return MacroBlockFinder.Lookup.CONTINUE;
+                });
+            if (!document.getXDOM().equals(updatedXDOM)) {
+                logger.debug("Replaced the reference of [{}] task macros.", updatedMacros.get());
+                DocumentReference currentUser = context.getUserReference();
+                context.setUserReference(document.getAuthorReference());
+                try {
+                    // The document returned by the store is shared, so it's updated through a copy.
+                    XWikiDocument updatedDocument = document.clone();
+                    updatedDocument.setContent(updatedXDOM);
+                    context.getWiki().saveDocument(updatedDocument,
+                        "Updated the reference of the task macros to be relative.", true, context);
+                } finally {
                     context.setUserReference(currentUser);
                 }
-            } catch (XWikiException e) {
-                logger.warn("Failed to retrieve the document [{}]. Cause [{}].", documentReference,
-                    ExceptionUtils.getRootCauseMessage(e));
+                return true;
             }
+        } catch (XWikiException e) {
+            logger.warn("Failed to retrieve the document [{}]. Cause [{}].", documentReference,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+        return false;
+    }
+
+    private boolean hasAbsoluteReferences(XWikiDocument document, String compactRef)
+    {
+        // Look for the serialized reference in the raw content first, so that the pages without absolute references
+        // are skipped without being parsed.
+        String content = document.getContent();
+        if (!StringUtils.containsAny(compactRef, ESCAPED_CHARACTERS) && !StringUtils.contains(content, compactRef)) {
+            return false;
+        }
+        // Build the XDOM of the document only if some task macros need to be updated.
+        try {
+            return streamExtractor.extractParameters(content, document.getSyntax()).stream()
+                .map(parameters -> parameters.getOrDefault(Task.REFERENCE, ""))
+                .anyMatch(reference -> reference.startsWith(compactRef));
+        } catch (TaskException e) {
+            logger.debug("Failed to stream the content of [{}]. Falling back to its XDOM.",
+                document.getDocumentReference(), e);
+            return true;
+        }
+    }
+
+    private static final class ChunkProgress
+    {
+        private final int total;
+
+        private final long start = System.currentTimeMillis();
+
+        private final AtomicInteger processed = new AtomicInteger();
+
+        private final AtomicInteger updated = new AtomicInteger();
+
+        ChunkProgress(int total)
+        {
+            this.total = total;
         }
     }
 }
@@ -0,0 +1,105 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.listener.WrappingListener;
+import org.xwiki.rendering.parser.ParseException;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.rendering.syntax.Syntax;
+
+import com.xwiki.task.MacroUtils;
+import com.xwiki.task.TaskException;
+import com.xwiki.task.model.Task;
+
+/**
+ * Extracts the parameters of the task macro calls from a raw content using the streaming parser of its syntax, without
+ * building the XDOM of the content. The content of the macros that supports wiki syntax is searched as well.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskMacroStreamExtractor.class)
+@Singleton
+public class TaskMacroStreamExtractor
+{
+    @Inject
+    @Named("context")
+    private ComponentManager contextComponentManager;
+
+    @Inject
+    private MacroUtils macroUtils;
+
+    /**
+     * @param content the raw content in which to look for task macros.
+     * @param syntax the syntax of the content.
+     * @return the parameters of each task macro found in the content.
+     * @throws TaskException if there is no streaming parser for the given syntax or if the content failed to be
+     *     parsed.
+     */
+    public List<Map<String, String>> extractParameters(String content, Syntax syntax) throws TaskException
+    {
+        StreamParser parser;
+        try {
+            parser = contextComponentManager.getInstance(StreamParser.class, syntax.toIdString());
+        } catch (ComponentLookupException e) {
+            throw new TaskException(String.format("There is no streaming parser for the syntax [%s].", syntax), e);
+        }
+        List<Map<String, String>> parameters = new ArrayList<>();
+        // The nested contents are parsed after their parent, so that the parser is never called recursively.
+        Deque<String> contents = new ArrayDeque<>();
+        contents.add(StringUtils.defaultString(content));
+        WrappingListener listener = new WrappingListener()
+        {
+            @Override
+            public void onMacro(String id, Map<String, String> macroParameters, String macroContent, boolean isInline)
+            {
+                if (Task.MACRO_NAME.equals(id)) {
+                    parameters.add(macroParameters);
+                }
+                if (StringUtils.isNotEmpty(macroContent) && macroUtils.isMacroContentParsable(id)) {
+                    contents.add(macroContent);
+                }
+            }
+        };
+        while (!contents.isEmpty()) {
+            try {
+                parser.parse(new StringReader(contents.poll()), listener);
+            } catch (ParseException e) {
+                throw new TaskException("Failed to parse the content while looking for task macros.", e);
+            }
+        }
+        return parameters;
+    }
+}
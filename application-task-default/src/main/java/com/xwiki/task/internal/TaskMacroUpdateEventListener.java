@@ -22,26 +22,30 @@ package com.xwiki.task.internal;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.StringUtils;
 import org.xwiki.bridge.event.DocumentCreatingEvent;
 import org.xwiki.bridge.event.DocumentDeletingEvent;
 import org.xwiki.bridge.event.DocumentUpdatingEvent;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.model.reference.DocumentReference;
-import org.xwiki.model.reference.EntityReference;
-import org.xwiki.model.reference.EntityReferenceSerializer;
-import org.xwiki.model.reference.SpaceReference;
 import org.xwiki.observation.event.Event;
 import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.syntax.SyntaxType;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.Right;
-import org.xwiki.user.UserReference;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
@@ -49,6 +53,8 @@ import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xwiki.task.TaskException;
 import com.xwiki.task.TaskManager;
+import com.xwiki.task.TaskSyncQueue;
+import com.xwiki.task.internal.listener.TaskSyncQueueListener;
 import com.xwiki.task.model.Task;
 
 /**
@@ -64,15 +70,25 @@ public class TaskMacroUpdateEventListener extends AbstractTaskEventListener
 {
     private static final String EXCEPTION_DOCUMENT_RETRIEVAL = "Could not retrieve the document [{}]. Cause:";
 
+    private static final String TASK_MACRO_MARKER = "{{" + Task.MACRO_NAME;
+
     @Inject
     private ContextualAuthorizationManager authorizationManager;
 
     @Inject
-    @Named("compactwiki")
-    private EntityReferenceSerializer<String> serializer;
+    private TaskManager taskManager;
 
     @Inject
-    private TaskManager taskManager;
+    private TaskFingerprintCache fingerprintCache;
+
+    @Inject
+    private TaskPageSynchronizer taskPageSynchronizer;
+
+    @Inject
+    private TaskSyncQueue syncQueue;
+
+    @Inject
+    private TaskFoldSyncRecorder foldSyncRecorder;
 
     private DocumentReference lastFoldDocumentReference;
 
@@ -109,7 +125,9 @@ public class TaskMacroUpdateEventListener extends AbstractTaskEventListener
                 taskManager.deleteTasksByOwner(document.getDocumentReference());
                 return;
             }
-            updateTaskPages(document, context);
+            if (!canSkipUpdate(document)) {
+                updateTaskPages(document, context);
+            }
         } catch (TaskException e) {
             logger.error("Failed to delete the tasks that have the current document as owner:", e);
         } catch (Exception e) {
@@ -130,6 +148,11 @@ public class TaskMacroUpdateEventListener extends AbstractTaskEventListener
         // tasks will be processed by this listener. If things change for the migrator, we have to change this
         // optimization.
         if (inFoldEvent) {
+            if (foldSyncRecorder.isEnabled()) {
+                // Bulk mode: the task pages of the imported documents are synchronized once the import is done.
+                foldSyncRecorder.record(document.getDocumentReference(), context);
+                return true;
+            }
             if (lastFoldDocumentReference != null && !document.getDocumentReference()
                 .equals(lastFoldDocumentReference))
             {
@@ -148,25 +171,89 @@ public class TaskMacroUpdateEventListener extends AbstractTaskEventListener
         return false;
     }
 
+    private boolean canSkipUpdate(XWikiDocument document)
+    {
+        String content = document.getContent();
+        XWikiDocument previousVersionDoc = document.getOriginalDocument();
+        if (previousVersionDoc == null || previousVersionDoc.isNew()) {
+            return !mayContainTaskMacros(content, document.getSyntax());
+        }
+        String previousContent = previousVersionDoc.getContent();
+        // Metadata-only save: the task macros are the same as in the previous version.
+        if (Objects.equals(content, previousContent)
+            && Objects.equals(document.getSyntax(), previousVersionDoc.getSyntax()))
+        {
+            return true;
+        }
+        // No task was added nor removed.
+        return !mayContainTaskMacros(content, document.getSyntax())
+            && !mayContainTaskMacros(previousContent, previousVersionDoc.getSyntax());
+    }
+
+    private boolean mayContainTaskMacros(String content, Syntax syntax)
+    {
+        // The macro calls can be looked up in the raw content only for the XWiki syntax.
+        return StringUtils.contains(content, TASK_MACRO_MARKER) || syntax == null
+            || !SyntaxType.XWIKI.equals(syntax.getType());
+    }
+
     private void updateTaskPages(XWikiDocument document, XWikiContext context)
     {
+        DocumentReference documentReference = document.getDocumentReference();
         XDOM documentContent = document.getXDOM();
 
-        List<Task> tasks = this.taskXDOMProcessor.extract(documentContent, document.getDocumentReference());
+        List<Task> tasks = this.taskXDOMProcessor.extract(documentContent, documentReference);
 
         List<Task> previousDocTasks = Collections.emptyList();
+        Map<DocumentReference, String> previousFingerprints = null;
 
         if (document.getOriginalDocument() != null) {
             XWikiDocument previousVersionDoc = document.getOriginalDocument();
-            XDOM previousContent = previousVersionDoc.getXDOM();
-            previousDocTasks = this.taskXDOMProcessor.extract(previousContent, document.getDocumentReference(), true);
-            List<DocumentReference> currentTasksIds =
-                tasks.stream().map(Task::getReference).collect(Collectors.toList());
+            // Avoid parsing the previous version again when it was the one processed on the last save.
+            previousFingerprints = this.fingerprintCache.get(documentReference, previousVersionDoc.getContent());
+            if (previousFingerprints != null) {
+                previousDocTasks = previousFingerprints.keySet().stream().map(Task::new).collect(Collectors.toList());
+            } else {
+                previousDocTasks = extractPreviousTasks(previousVersionDoc, documentReference);
+            }
+            Set<DocumentReference> currentTasksIds =
+                tasks.stream().map(Task::getReference).collect(Collectors.toSet());
             previousDocTasks.removeIf(task -> currentTasksIds.contains(task.getReference()));
         }
+        Map<DocumentReference, String> fingerprints = new HashMap<>();
         if (!tasks.isEmpty() || !previousDocTasks.isEmpty()) {
             deleteTaskPages(document, context, previousDocTasks);
-            createOrUpdateTaskPages(document, context, tasks);
+            if (!tasks.isEmpty() && this.syncQueue.isAsynchronous()) {
+                deferTaskPagesSync(documentReference, context);
+                // The task pages are synchronized later on, so their fingerprints are not known yet.
+                for (Task task : tasks) {
+                    fingerprints.put(task.getReference(), null);
+                }
+            } else {
+                fingerprints = this.taskPageSynchronizer.syncTaskPages(document, context, tasks,
+                    previousFingerprints != null ? previousFingerprints : Collections.emptyMap());
+            }
+        }
+        this.fingerprintCache.put(documentReference, document.getContent(), fingerprints);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deferTaskPagesSync(DocumentReference documentReference, XWikiContext context)
+    {
+        // The document is handed to the queue once it is saved, so that the latest version gets synchronized.
+        ((Set<DocumentReference>) context.computeIfAbsent(TaskSyncQueueListener.DEFERRED_OWNERS,
+            key -> new HashSet<DocumentReference>())).add(documentReference);
+    }
+
+    private List<Task> extractPreviousTasks(XWikiDocument previousVersionDoc, DocumentReference documentReference)
+    {
+        // Only the references are needed, so avoid building the XDOM of the previous version when possible.
+        try {
+            return this.taskXDOMProcessor.extractReferences(previousVersionDoc.getContent(),
+                previousVersionDoc.getSyntax(), documentReference);
+        } catch (TaskException e) {
+            logger.debug("Failed to stream the content of [{}]. Falling back to its XDOM.", documentReference, e);
+            return this.taskXDOMProcessor.extract(previousVersionDoc.getXDOM(), documentReference, true);
         }
     }
 
@@ -198,91 +285,4 @@ public class TaskMacroUpdateEventListener extends AbstractTaskEventListener
             }
         }
     }
-
-    private void createOrUpdateTaskPages(XWikiDocument document, XWikiContext context, List<Task> tasks)
-    {
-        for (Task task : tasks) {
-            DocumentReference taskReference = task.getReference();
-            try {
-                // Create/Update the task page only if it's a child of `Parent.Tasks` or if the user has edit rights
-                // over it.
-                if (!isChildOfTasksSubspace(taskReference, document.getDocumentReference())
-                    && !authorizationManager.hasAccess(Right.EDIT, taskReference))
-                {
-                    logger.warn(
-                        "The user [{}] edited the macro with id [{}] but does not have edit rights over it's "
-                            + "corresponding page.",
-                        context.getUserReference(), taskReference);
-                    continue;
-                }
-
-                XWikiDocument taskDoc = context.getWiki().getDocument(taskReference, context).clone();
-
-                BaseObject taskObj = taskDoc.getXObject(TASK_CLASS_REFERENCE, true, context);
-
-                if (!taskDoc.isNew() && !document.getDocumentReference()
-                    .equals(resolver.resolve(taskObj.getLargeStringValue(Task.OWNER), taskReference)))
-                {
-                    continue;
-                }
-                boolean docChanged = maybeUpdateTaskDoc(document, context, task, taskObj, taskDoc, taskReference);
-
-                if (docChanged) {
-                    context.getWiki().saveDocument(taskDoc, "Task updated!", context);
-                }
-            } catch (XWikiException e) {
-                logger.error("Failed to retrieve the document that contains the Task Object with id [{}]:",
-                    taskReference, e);
-            }
-        }
-    }
-
-    private boolean maybeUpdateTaskDoc(XWikiDocument document, XWikiContext context, Task task, BaseObject taskObj,
-        XWikiDocument taskDoc, DocumentReference taskReference)
-    {
-        BaseObject clonedObj = taskObj.clone();
-        UserReference currentUser = document.getAuthors().getContentAuthor();
-        taskDoc.getAuthors().setOriginalMetadataAuthor(currentUser);
-        clonedObj.set(Task.OWNER, serializer.serialize(document.getDocumentReference(), taskReference),
-            context);
-        populateObjectWithMacroParams(context, task, clonedObj);
-        boolean docChanged = !clonedObj.getDiff(taskObj, context).isEmpty();
-        if (docChanged) {
-            taskDoc.setXObject(taskObj.getNumber(), clonedObj);
-        }
-        if (taskDoc.isNew()) {
-            taskDoc.setHidden(true);
-            taskDoc.getAuthors().setCreator(currentUser);
-            taskDoc.getAuthors().setEffectiveMetadataAuthor(currentUser);
-        }
-        return docChanged;
-    }
-
-    private boolean isChildOfTasksSubspace(EntityReference possibleChild, DocumentReference possibleParent)
-    {
-        SpaceReference expectedParent = new SpaceReference("Tasks", possibleParent.getLastSpaceReference());
-        return possibleChild.hasParent(expectedParent);
-    }
-
-    private void populateObjectWithMacroParams(XWikiContext context, Task task, BaseObject object)
-    {
-        object.set(Task.NAME, task.getName(), context);
-
-        object.set(Task.DESCRIPTION, task.getDescription(), context);
-
-        object.set(Task.REPORTER, serializer.serialize(task.getReporter()), context);
-
-        object.set(Task.STATUS, task.getStatus(), context);
-
-        object.set(Task.CREATE_DATE, task.getCreateDate(), context);
-
-        String assignees =
-            task.getAssignees().stream().map(user -> serializer.serialize(user))
-                .collect(Collectors.joining(","));
-        object.set(Task.ASSIGNEE, assignees, context);
-
-        object.set(Task.DUE_DATE, task.getDueDate(), context);
-
-        object.set(Task.COMPLETE_DATE, task.getCompleteDate(), context);
-    }
 }
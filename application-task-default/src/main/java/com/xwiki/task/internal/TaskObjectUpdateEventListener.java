@@ -40,8 +40,6 @@ import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.SpaceReference;
 import org.xwiki.observation.event.Event;
-import org.xwiki.user.UserReference;
-import org.xwiki.user.UserReferenceResolver;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
@@ -68,8 +66,7 @@ public class TaskObjectUpdateEventListener extends AbstractTaskEventListener
     private TaskCounter taskCounter;
 
     @Inject
-    @Named("document")
-    private UserReferenceResolver<DocumentReference> userRefResolver;
+    private TaskOwnerUpdater taskOwnerUpdater;
 
     /**
      * Constructor.
@@ -98,30 +95,9 @@ public class TaskObjectUpdateEventListener extends AbstractTaskEventListener
             return;
         }
 
-        String taskOwner = taskObj.getStringValue(Task.OWNER);
-
-        DocumentReference taskOwnerRef = resolver.resolve(taskOwner, document.getDocumentReference());
-
-        try {
-            context.put(TASK_UPDATE_FLAG, true);
-            if (!taskOwner.isEmpty()) {
-                XWikiDocument ownerDocument = context.getWiki().getDocument(taskOwnerRef, context).clone();
-                if (!ownerDocument.isNew()) {
-                    ownerDocument.setContent(
-                        taskXDOMProcessor.updateTaskMacroCall(taskOwnerRef, taskObj, ownerDocument.getXDOM(),
-                            ownerDocument.getSyntax()));
-                    UserReference currentUserReference = userRefResolver.resolve(context.getUserReference());
-                    ownerDocument.getAuthors().setOriginalMetadataAuthor(currentUserReference);
-                    context.getWiki().saveDocument(ownerDocument,
-                        String.format("Task [%s] has been updated!", taskObj.getDocumentReference()), context);
-                }
-            }
-        } catch (XWikiException e) {
-            logger.warn("Failed to process the owner document of the task [{}]: [{}].", taskOwnerRef,
-                ExceptionUtils.getRootCauseMessage(e));
-        } finally {
-            context.put(TASK_UPDATE_FLAG, null);
-        }
+        DocumentReference taskOwnerRef =
+            resolver.resolve(taskObj.getStringValue(Task.OWNER), document.getDocumentReference());
+        taskOwnerUpdater.update(taskOwnerRef, taskObj, context);
     }
 
     private boolean shouldSkip(XWikiDocument document, XWikiContext context, boolean inFoldEvent, BaseObject taskObj)
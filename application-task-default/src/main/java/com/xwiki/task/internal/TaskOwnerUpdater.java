@@ -0,0 +1,225 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.user.UserReferenceResolver;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xwiki.task.TaskConfiguration;
+
+/**
+ * Updates the task macro calls of an owner document after its task pages were modified. When a delay is configured,
+ * the updates are buffered per owner and applied together, with a single parse and a single save of the owner: at the
+ * end of the current request or, when the request doesn't end with an action, once the delay has elapsed.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskOwnerUpdater.class)
+@Singleton
+public class TaskOwnerUpdater implements Initializable, Disposable
+{
+    private static final String REQUEST_OWNERS = "taskOwnerUpdaterRequestOwners";
+
+    @Inject
+    private TaskConfiguration configuration;
+
+    @Inject
+    private TaskXDOMProcessor taskXDOMProcessor;
+
+    @Inject
+    @Named("document")
+    private UserReferenceResolver<DocumentReference> userRefResolver;
+
+    @Inject
+    private TaskWorkers taskWorkers;
+
+    @Inject
+    private Logger logger;
+
+    private final Map<DocumentReference, PendingUpdate> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    public void initialize()
+    {
+        scheduler = taskWorkers.newScheduledPool("TaskOwnerUpdater");
+    }
+
+    /**
+     * Update the task macro call of a task in its owner document, right away or after the configured delay.
+     *
+     * @param owner the document that contains the task macro call.
+     * @param taskObject the task object that was modified.
+     * @param context the current context.
+     */
+    public void update(DocumentReference owner, BaseObject taskObject, XWikiContext context)
+    {
+        long delay = configuration.getOwnerUpdateDelay();
+        if (delay <= 0) {
+            save(owner, List.of(taskObject), context.getUserReference(), context);
+            return;
+        }
+        // The values that the macro update would set on the task object must be saved along with the task page.
+        taskXDOMProcessor.prepareTaskObject(taskObject);
+        BaseObject snapshot = taskObject.clone();
+        DocumentReference user = context.getUserReference();
+        pending.compute(owner, (key, update) -> {
+            PendingUpdate result = update;
+            if (result == null) {
+                result = new PendingUpdate();
+                scheduler.schedule(() -> flushInNewContext(owner), delay, TimeUnit.MILLISECONDS);
+            }
+            result.add(snapshot, user);
+            return result;
+        });
+        getRequestOwners(context).add(owner);
+    }
+
+    /**
+     * Apply the updates buffered during the current request.
+     *
+     * @param context the context of the request.
+     */
+    public void flushRequest(XWikiContext context)
+    {
+        Object requestOwners = context.get(REQUEST_OWNERS);
+        if (requestOwners instanceof Set) {
+            context.remove(REQUEST_OWNERS);
+            for (Object owner : (Set<?>) requestOwners) {
+                flush((DocumentReference) owner, context);
+            }
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        scheduler.shutdownNow();
+        // Apply the updates that were still delayed, otherwise the next save of their owners would revert them.
+        List.copyOf(pending.keySet()).forEach(this::flushInNewContext);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<DocumentReference> getRequestOwners(XWikiContext context)
+    {
+        return (Set<DocumentReference>) context.computeIfAbsent(REQUEST_OWNERS,
+            key -> new HashSet<DocumentReference>());
+    }
+
+    private void flushInNewContext(DocumentReference owner)
+    {
+        PendingUpdate update = pending.get(owner);
+        if (update == null) {
+            // Already applied at the end of the request that made it.
+            return;
+        }
+        try {
+            taskWorkers.runInContext(owner.getWikiReference().getName(), context -> {
+                context.setUserReference(update.getUser());
+                flush(owner, context);
+            });
+        } catch (Exception e) {
+            logger.warn("Failed to update the task macro calls of [{}]. Cause: [{}].", owner,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private void flush(DocumentReference owner, XWikiContext context)
+    {
+        PendingUpdate update = pending.remove(owner);
+        if (update != null) {
+            save(owner, update.getTaskObjects(), update.getUser(), context);
+        }
+    }
+
+    private void save(DocumentReference owner, Collection<BaseObject> taskObjects, DocumentReference user,
+        XWikiContext context)
+    {
+        Object updateFlag = context.get(AbstractTaskEventListener.TASK_UPDATE_FLAG);
+        try {
+            // Prevent the listeners from handling the save of the owner document.
+            context.put(AbstractTaskEventListener.TASK_UPDATE_FLAG, true);
+            XWikiDocument ownerDocument = context.getWiki().getDocument(owner, context).clone();
+            if (!ownerDocument.isNew()) {
+                ownerDocument.setContent(taskXDOMProcessor.updateTaskMacroCalls(owner, taskObjects,
+                    ownerDocument.getXDOM(), ownerDocument.getSyntax()));
+                ownerDocument.getAuthors().setOriginalMetadataAuthor(userRefResolver.resolve(user));
+                String comment = taskObjects.size() == 1
+                    ? String.format("Task [%s] has been updated!", taskObjects.iterator().next().getDocumentReference())
+                    : String.format("[%d] tasks have been updated!", taskObjects.size());
+                context.getWiki().saveDocument(ownerDocument, comment, context);
+            }
+        } catch (XWikiException e) {
+            logger.warn("Failed to process the owner document [{}] of the updated tasks: [{}].", owner,
+                ExceptionUtils.getRootCauseMessage(e));
+        } finally {
+            context.put(AbstractTaskEventListener.TASK_UPDATE_FLAG, updateFlag);
+        }
+    }
+
+    private static final class PendingUpdate
+    {
+        private final Map<DocumentReference, BaseObject> taskObjects = new LinkedHashMap<>();
+
+        private DocumentReference user;
+
+        synchronized void add(BaseObject taskObject, DocumentReference user)
+        {
+            // Only the latest version of each task matters.
+            taskObjects.put(taskObject.getDocumentReference(), taskObject);
+            this.user = user;
+        }
+
+        synchronized Collection<BaseObject> getTaskObjects()
+        {
+            return List.copyOf(taskObjects.values());
+        }
+
+        synchronized DocumentReference getUser()
+        {
+            return user;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.user.UserReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xwiki.task.model.Task;
+
+/**
+ * Synchronizes the task pages with the task macros of their owner document, either right when the owner is saved or
+ * later on, from the {@link DefaultTaskSyncQueue}.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskPageSynchronizer.class)
+@Singleton
+public class TaskPageSynchronizer
+{
+    @Inject
+    private ContextualAuthorizationManager authorizationManager;
+
+    @Inject
+    @Named("compactwiki")
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Create or update the task pages associated with the task macros of a document.
+     *
+     * @param document the document that contains the task macros.
+     * @param context the current context.
+     * @param tasks the tasks extracted from the task macros of the document.
+     * @param previousFingerprints the fingerprints of the tasks whose page was synchronized during the previous save
+     *     of the document. The pages of the tasks that didn't change since then are not loaded.
+     * @return the fingerprints of the given tasks, indexed by their references. A task has a {@code null}
+     *     fingerprint when its page could not be synchronized. Each modified task page is saved on its own.
+     */
+    public Map<DocumentReference, String> syncTaskPages(XWikiDocument document, XWikiContext context,
+        List<Task> tasks, Map<DocumentReference, String> previousFingerprints)
+    {
+        Map<DocumentReference, String> fingerprints = new HashMap<>();
+        for (Task task : tasks) {
+            DocumentReference taskReference = task.getReference();
+            String fingerprint = TaskFingerprintCache.fingerprint(task);
+            // The task page has no fingerprint until it is known to be in sync with the macro.
+            fingerprints.put(taskReference, null);
+            if (Objects.equals(previousFingerprints.get(taskReference), fingerprint)) {
+                // The macro didn't change since the task page was last synchronized with it.
+                fingerprints.put(taskReference, fingerprint);
+                continue;
+            }
+            try {
+                // Create/Update the task page only if it's a child of `Parent.Tasks` or if the user has edit rights
+                // over it.
+                if (!isChildOfTasksSubspace(taskReference, document.getDocumentReference())
+                    && !authorizationManager.hasAccess(Right.EDIT, taskReference))
+                {
+                    logger.warn(
+                        "The user [{}] edited the macro with id [{}] but does not have edit rights over it's "
+                            + "corresponding page.",
+                        context.getUserReference(), taskReference);
+                    continue;
+                }
+
+                XWikiDocument taskDoc = context.getWiki().getDocument(taskReference, context).clone();
+
+                BaseObject taskObj = taskDoc.getXObject(AbstractTaskEventListener.TASK_CLASS_REFERENCE, true, context);
+
+                if (!taskDoc.isNew() && !document.getDocumentReference()
+                    .equals(resolver.resolve(taskObj.getLargeStringValue(Task.OWNER), taskReference)))
+                {
+                    continue;
+                }
+                boolean docChanged = maybeUpdateTaskDoc(document, context, task, taskObj, taskDoc, taskReference);
+
+                if (docChanged) {
+                    context.getWiki().saveDocument(taskDoc, "Task updated!", context);
+                }
+                fingerprints.put(taskReference, fingerprint);
+            } catch (XWikiException e) {
+                logger.error("Failed to retrieve the document that contains the Task Object with id [{}]:",
+                    taskReference, e);
+            }
+        }
+        return fingerprints;
+    }
+
+    private boolean maybeUpdateTaskDoc(XWikiDocument document, XWikiContext context, Task task, BaseObject taskObj,
+        XWikiDocument taskDoc, DocumentReference taskReference)
+    {
+        BaseObject clonedObj = taskObj.clone();
+        UserReference currentUser = document.getAuthors().getContentAuthor();
+        taskDoc.getAuthors().setOriginalMetadataAuthor(currentUser);
+        clonedObj.set(Task.OWNER, serializer.serialize(document.getDocumentReference(), taskReference),
+            context);
+        populateObjectWithMacroParams(context, task, clonedObj);
+        boolean docChanged = !clonedObj.getDiff(taskObj, context).isEmpty();
+        if (docChanged) {
+            taskDoc.setXObject(taskObj.getNumber(), clonedObj);
+        }
+        if (taskDoc.isNew()) {
+            taskDoc.setHidden(true);
+            taskDoc.getAuthors().setCreator(currentUser);
+            taskDoc.getAuthors().setEffectiveMetadataAuthor(currentUser);
+        }
+        return docChanged;
+    }
+
+    private boolean isChildOfTasksSubspace(EntityReference possibleChild, DocumentReference possibleParent)
+    {
+        SpaceReference expectedParent = new SpaceReference("Tasks", possibleParent.getLastSpaceReference());
+        return possibleChild.hasParent(expectedParent);
+    }
+
+    private void populateObjectWithMacroParams(XWikiContext context, Task task, BaseObject object)
+    {
+        object.set(Task.NAME, task.getName(), context);
+
+        object.set(Task.DESCRIPTION, task.getDescription(), context);
+
+        object.set(Task.REPORTER, serializer.serialize(task.getReporter()), context);
+
+        object.set(Task.STATUS, task.getStatus(), context);
+
+        object.set(Task.CREATE_DATE, task.getCreateDate(), context);
+
+        String assignees =
+            task.getAssignees().stream().map(user -> serializer.serialize(user))
+                .collect(Collectors.joining(","));
+        object.set(Task.ASSIGNEE, assignees, context);
+
+        object.set(Task.DUE_DATE, task.getDueDate(), context);
+
+        object.set(Task.COMPLETE_DATE, task.getCompleteDate(), context);
+    }
+}
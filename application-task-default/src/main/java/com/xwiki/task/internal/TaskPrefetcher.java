@@ -0,0 +1,165 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.block.match.MacroBlockMatcher;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+
+import com.xwiki.task.TaskException;
+import com.xwiki.task.TaskManager;
+import com.xwiki.task.model.Task;
+
+/**
+ * Retrieves the tasks displayed by the task macros of a content. When the first task macro of a content is executed,
+ * the tasks of all the task macros of that content are retrieved with a single query, so that rendering a page with
+ * many tasks doesn't query the tasks one by one. Only the tasks of the content that is being transformed are kept:
+ * they are dropped as soon as the task macros of another content are executed.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskPrefetcher.class)
+@Singleton
+public class TaskPrefetcher
+{
+    private static final String CONTEXT_KEY = "taskmanager.prefetchedTasks";
+
+    @Inject
+    private TaskManager taskManager;
+
+    @Inject
+    private TaskReferenceUtils taskReferenceUtils;
+
+    @Inject
+    @Named("macro")
+    private DocumentReferenceResolver<String> macroDocumentReferenceResolver;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * @param taskReference the reference of the task displayed by the task macro that is being executed.
+     * @param context the context of the task macro that is being executed.
+     * @return the task with the given reference.
+     * @throws TaskException if the task page doesn't exist or the task could not be retrieved.
+     */
+    public Task getTask(EntityReference taskReference, MacroTransformationContext context) throws TaskException
+    {
+        Map<EntityReference, Task> tasks = getPrefetchedTasks(context.getXDOM());
+        if (tasks == null || !tasks.containsKey(taskReference)) {
+            // The macro was not part of the content when the tasks were prefetched, e.g. it was generated by another
+            // macro.
+            return taskManager.getTask(taskReference);
+        }
+        Task task = tasks.get(taskReference);
+        if (task == null) {
+            throw new TaskException(String.format("The page [%s] does not have a task.", taskReference));
+        }
+        return task;
+    }
+
+    /**
+     * @param xdom the content being rendered
+     * @return the tasks of the task macros of the given content, indexed by their reference. The references of the
+     *     macros that don't have a task page are mapped to {@code null}.
+     */
+    private Map<EntityReference, Task> getPrefetchedTasks(XDOM xdom)
+    {
+        ExecutionContext executionContext = execution.getContext();
+        if (xdom == null || executionContext == null) {
+            return null;
+        }
+        PrefetchedTasks prefetchedTasks = (PrefetchedTasks) executionContext.getProperty(CONTEXT_KEY);
+        if (prefetchedTasks == null || prefetchedTasks.xdom != xdom) {
+            // Replace the tasks of the previous content so that they are not retained, nor served once outdated.
+            prefetchedTasks = new PrefetchedTasks(xdom, prefetchTasks(xdom));
+            executionContext.setProperty(CONTEXT_KEY, prefetchedTasks);
+        }
+        return prefetchedTasks.tasks;
+    }
+
+    private Map<EntityReference, Task> prefetchTasks(XDOM xdom)
+    {
+        List<EntityReference> references = new ArrayList<>();
+        List<MacroBlock> macros = xdom.getBlocks(new MacroBlockMatcher(Task.MACRO_NAME), Block.Axes.DESCENDANT);
+        for (MacroBlock macro : macros) {
+            String reference = macro.getParameter(Task.REFERENCE);
+            if (StringUtils.isNotEmpty(reference)) {
+                references.add(
+                    taskReferenceUtils.resolve(reference, macroDocumentReferenceResolver.resolve("", macro)));
+            }
+        }
+        if (references.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<EntityReference, Task> tasks = taskManager.getTasks(references);
+            Map<EntityReference, Task> result = new HashMap<>();
+            for (EntityReference reference : references) {
+                result.put(reference, tasks.get(reference));
+            }
+            return result;
+        } catch (TaskException e) {
+            logger.warn("Failed to retrieve the tasks displayed by the task macros. Cause: [{}].",
+                ExceptionUtils.getRootCauseMessage(e));
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * The tasks prefetched for a content, identified by its instance since the XDOM equality compares whole trees.
+     */
+    private static final class PrefetchedTasks
+    {
+        private final XDOM xdom;
+
+        private final Map<EntityReference, Task> tasks;
+
+        PrefetchedTasks(XDOM xdom, Map<EntityReference, Task> tasks)
+        {
+            this.xdom = xdom;
+            this.tasks = tasks;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xwiki.task.model.Task;
+
+/**
+ * Builds {@link Task} models directly from the stored task properties, without loading the task documents.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskPropertyReader.class)
+@Singleton
+public class TaskPropertyReader
+{
+    private static final String FROM_TASK_PROPERTIES = "select obj.name, prop from BaseObject as obj, "
+        + "BaseProperty as prop%s where obj.className = 'TaskManager.TaskManagerClass' "
+        + "and obj.name not like 'TaskManager.TaskManagerTemplates.%%' "
+        + "and prop.id.id = obj.id and prop.id.name in (:properties) and %s";
+
+    private static final String BY_NUMBER_STATEMENT = String.format(FROM_TASK_PROPERTIES,
+        ", IntegerProperty as idProp",
+        "idProp.id.id = obj.id and idProp.id.name = 'number' and idProp.value in (:values)");
+
+    private static final String BY_NAME_STATEMENT = String.format(FROM_TASK_PROPERTIES, "", "obj.name in (:values)");
+
+    private static final List<String> TASK_PROPERTIES =
+        Arrays.asList(Task.NAME, Task.NUMBER, Task.OWNER, Task.ASSIGNEE, Task.STATUS, Task.REPORTER, Task.DUE_DATE,
+            Task.CREATE_DATE, Task.COMPLETE_DATE, Task.DESCRIPTION);
+
+    // Some databases limit the number of values that can be used in an IN clause.
+    private static final int MAX_IN_VALUES = 1000;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    /**
+     * @param numbers the numbers of the tasks to retrieve.
+     * @param wiki the wiki of the tasks.
+     * @return the tasks that have one of the given numbers, indexed by their number.
+     * @throws QueryException if the retrieval of the task properties failed.
+     */
+    public Map<Integer, Task> getTasksByNumber(Collection<Integer> numbers, String wiki) throws QueryException
+    {
+        Map<Integer, Task> tasks = new HashMap<>();
+        for (Task task : getTasks(BY_NUMBER_STATEMENT, new ArrayList<>(numbers), wiki)) {
+            tasks.put(task.getNumber(), task);
+        }
+        return tasks;
+    }
+
+    /**
+     * @param reference the reference of a task page.
+     * @return the task stored in the given page or {@code null} if the page doesn't have a task object.
+     * @throws QueryException if the retrieval of the task properties failed.
+     */
+    public Task getTask(DocumentReference reference) throws QueryException
+    {
+        return getTasks(List.of(reference)).get(reference);
+    }
+
+    /**
+     * @param references the references of the task pages.
+     * @return the tasks stored in the given pages, indexed by the page reference. Pages without a task object are
+     *     missing from the result.
+     * @throws QueryException if the retrieval of the task properties failed.
+     */
+    public Map<DocumentReference, Task> getTasks(Collection<DocumentReference> references) throws QueryException
+    {
+        Map<String, List<String>> namesByWiki = new LinkedHashMap<>();
+        for (DocumentReference reference : references) {
+            namesByWiki.computeIfAbsent(reference.getWikiReference().getName(), k -> new ArrayList<>())
+                .add(localSerializer.serialize(reference));
+        }
+        Map<DocumentReference, Task> tasks = new HashMap<>();
+        for (Map.Entry<String, List<String>> wikiNames : namesByWiki.entrySet()) {
+            for (Task task : getTasks(BY_NAME_STATEMENT, wikiNames.getValue(), wikiNames.getKey())) {
+                tasks.put(task.getReference(), task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * @param reference the reference of the task page.
+     * @param values the values of the task properties, indexed by property name.
+     * @return the task model holding the given values.
+     */
+    public Task createTask(DocumentReference reference, Map<String, Object> values)
+    {
+        Task task = new Task();
+        task.setReference(reference);
+        task.setName(getString(values, Task.NAME));
+        Object number = values.get(Task.NUMBER);
+        task.setNumber(number instanceof Number ? ((Number) number).intValue() : 0);
+        task.setOwner(resolver.resolve(getString(values, Task.OWNER), reference));
+        String assignees = getString(values, Task.ASSIGNEE);
+        task.setAssignees(assignees.trim().isEmpty() ? null
+            : Arrays.stream(assignees.split(",")).map(user -> resolver.resolve(user))
+            .collect(Collectors.toList()));
+        task.setStatus(getString(values, Task.STATUS));
+        task.setReporter(resolver.resolve(getString(values, Task.REPORTER)));
+        task.setDuedate(getDate(values, Task.DUE_DATE));
+        task.setCreateDate(getDate(values, Task.CREATE_DATE));
+        task.setCompleteDate(getDate(values, Task.COMPLETE_DATE));
+        task.setDescription(getString(values, Task.DESCRIPTION));
+        return task;
+    }
+
+    private List<Task> getTasks(String statement, List<?> values, String wiki) throws QueryException
+    {
+        Map<String, Map<String, Object>> properties = new LinkedHashMap<>();
+        for (int i = 0; i < values.size(); i += MAX_IN_VALUES) {
+            List<Object[]> rows = queryManager.createQuery(statement, Query.HQL).setWiki(wiki)
+                .bindValue("properties", TASK_PROPERTIES)
+                .bindValue("values", values.subList(i, Math.min(i + MAX_IN_VALUES, values.size()))).execute();
+            for (Object[] row : rows) {
+                BaseProperty property = (BaseProperty) row[1];
+                properties.computeIfAbsent((String) row[0], k -> new HashMap<>())
+                    .put(property.getName(), property.getValue());
+            }
+        }
+        WikiReference wikiReference = new WikiReference(wiki);
+        return properties.entrySet().stream()
+            .map(entry -> createTask(resolver.resolve(entry.getKey(), wikiReference), entry.getValue()))
+            .collect(Collectors.toList());
+    }
+
+    private String getString(Map<String, Object> values, String name)
+    {
+        Object value = values.get(name);
+        return value != null ? value.toString() : "";
+    }
+
+    private Date getDate(Map<String, Object> values, String name)
+    {
+        Object value = values.get(name);
+        return value instanceof Date ? (Date) value : null;
+    }
+}
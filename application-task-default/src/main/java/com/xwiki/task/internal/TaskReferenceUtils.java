@@ -19,11 +19,18 @@
  */
 package com.xwiki.task.internal;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
 import org.xwiki.model.reference.EntityReference;
@@ -36,7 +43,10 @@ import org.xwiki.model.reference.PageReferenceResolver;
 //  removed after ~1 year of the release of v3.3.
 
 /**
- * A class that handles Task References resolving and serialization.
+ * A class that handles Task References resolving and serialization. Since the task references are resolved for each
+ * task macro, each time a page is rendered or saved, the resolved references and whether their document exists are
+ * cached. The existence of a document is forgotten when it is created or deleted, see
+ * {@link com.xwiki.task.internal.listener.TaskReferenceExistenceListener}.
  *
  * @version $Id$
  * @since 3.3
@@ -45,6 +55,8 @@ import org.xwiki.model.reference.PageReferenceResolver;
 @Singleton
 public class TaskReferenceUtils
 {
+    private static final int MAX_CACHED_REFERENCES = 10000;
+
     @Inject
     private DocumentAccessBridge documentAccessBridge;
 
@@ -60,6 +72,27 @@ public class TaskReferenceUtils
     @Inject
     private EntityReferenceSerializer<String> serializer;
 
+    private final Map<DocumentReference, Boolean> existence =
+        Collections.synchronizedMap(new LRUMap<>(MAX_CACHED_REFERENCES));
+
+    private final Map<List<Object>, ResolvedReference> resolvedReferences =
+        Collections.synchronizedMap(new LRUMap<>(MAX_CACHED_REFERENCES));
+
+    // Incremented each time a document is created or deleted, so that an existence check that was concurrent with
+    // such an event is not cached.
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Forget whether a document exists.
+     *
+     * @param reference a document that was created or deleted.
+     */
+    public void invalidateExistence(DocumentReference reference)
+    {
+        generation.incrementAndGet();
+        existence.remove(reference);
+    }
+
     /**
      * Receives a string representation of a task reference and, it resolves it as either a document reference (if the
      * document exists) or a page reference.
@@ -71,10 +104,11 @@ public class TaskReferenceUtils
      */
     public EntityReference resolve(String representation, EntityReference relativeTo)
     {
-        DocumentReference docRef = docStringResolver.resolve(representation, relativeTo);
+        ResolvedReference resolvedReference = getResolvedReference(representation, relativeTo);
+        DocumentReference docRef = resolvedReference.documentReference;
         try {
-            if (!documentAccessBridge.exists(docRef)) {
-                return pageReferenceResolver.resolve(representation, relativeTo);
+            if (!exists(docRef)) {
+                return resolvedReference.getPageReference(representation, relativeTo);
             }
         } catch (Exception ignored) {
         }
@@ -113,4 +147,52 @@ public class TaskReferenceUtils
         }
         return (DocumentReference) reference;
     }
+
+    private ResolvedReference getResolvedReference(String representation, EntityReference relativeTo)
+    {
+        // The missing parts of a reference that is not relative to a wiki are taken from the context, so such
+        // references are resolved each time.
+        if (relativeTo == null || relativeTo.extractReference(EntityType.WIKI) == null) {
+            return new ResolvedReference(docStringResolver.resolve(representation, relativeTo));
+        }
+        return resolvedReferences.computeIfAbsent(Arrays.asList(relativeTo, representation),
+            key -> new ResolvedReference(docStringResolver.resolve(representation, relativeTo)));
+    }
+
+    private boolean exists(DocumentReference docRef)
+    {
+        Boolean exists = existence.get(docRef);
+        if (exists == null) {
+            long currentGeneration = generation.get();
+            exists = documentAccessBridge.exists(docRef);
+            if (currentGeneration == generation.get()) {
+                existence.put(docRef, exists);
+            }
+        }
+        return exists;
+    }
+
+    /**
+     * The references to which a task reference is resolved: the document reference and, when the document doesn't
+     * exist, the page reference.
+     */
+    private final class ResolvedReference
+    {
+        private final DocumentReference documentReference;
+
+        private volatile PageReference pageReference;
+
+        ResolvedReference(DocumentReference documentReference)
+        {
+            this.documentReference = documentReference;
+        }
+
+        PageReference getPageReference(String representation, EntityReference relativeTo)
+        {
+            if (pageReference == null) {
+                pageReference = pageReferenceResolver.resolve(representation, relativeTo);
+            }
+            return pageReference;
+        }
+    }
 }
@@ -0,0 +1,300 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.io.StringReader;
+import java.text.DateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.suigeneris.jrcs.rcs.Version;
+import org.suigeneris.jrcs.util.ToString;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.block.Block;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.doc.XWikiDocumentArchive;
+import com.xpn.xwiki.doc.rcs.XWikiRCSNodeInfo;
+import com.xwiki.task.TaskException;
+import com.xwiki.task.internal.TaskRevisionWatermarkStore.Watermark;
+import com.xwiki.task.model.Task;
+
+/**
+ * Infers the missing dates of the task macros of a document by reading its revisions once. The archive of the document
+ * holds the newest version in full and each older version as a diff, so the versions are rebuilt by applying each
+ * diff once, from the newest to the oldest, and only the task macros of each version are kept. The task macros of
+ * each revision are then compared with the ones of the previous revision, from the oldest to the newest: a task that
+ * appears was created by that revision and a task that switches to done was completed by it. The comparison stops as
+ * soon as every pending task has its dates. When some tasks are still pending after the last revision, the scan state
+ * is persisted by {@link TaskRevisionWatermarkStore} so that a new inference of the same document, even after a
+ * restart, only reads the revisions made since.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskRevisionScanner.class)
+@Singleton
+public class TaskRevisionScanner
+{
+    private static final String CONTENT = "content";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    }
+
+    @Inject
+    private TaskRevisionWatermarkStore watermarkStore;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Read the revisions of a document and set the dates and reporter of the pending task macros. The tasks whose
+     * dates were found are removed from the given maps.
+     *
+     * @param ownerDoc the document that contains the task macros.
+     * @param versions all the versions of the document, from the oldest to the newest.
+     * @param createDateTasks the task macros that are missing the create date, by reference.
+     * @param completeDateTasks the done task macros that are missing the complete date, by reference.
+     * @param storageFormat the format used to store the dates in the task macros.
+     * @param context the current context.
+     * @throws TaskException if the history of the document could not be loaded.
+     */
+    public void scan(XWikiDocument ownerDoc, Version[] versions, Map<String, Block> createDateTasks,
+        Map<String, Block> completeDateTasks, DateFormat storageFormat, XWikiContext context)
+        throws TaskException
+    {
+        DocumentReference reference = ownerDoc.getDocumentReferenceWithLocale();
+        XWikiDocumentArchive archive;
+        try {
+            archive = ownerDoc.getDocumentArchive(context);
+        } catch (XWikiException e) {
+            throw new TaskException(String.format("Failed to load the history of [%s].", reference), e);
+        }
+
+        Map<String, String> statuses = new HashMap<>();
+        Watermark watermark = getWatermark(reference);
+        int start = resume(watermark, versions, getPendingTasks(createDateTasks, completeDateTasks), statuses);
+        for (Revision revision : readRevisions(archive, versions, start, ownerDoc, context)) {
+            if (isResolved(createDateTasks, completeDateTasks)) {
+                break;
+            }
+            applyRevision(revision.node, storageFormat.format(revision.node.getDate()), statuses, revision.statuses,
+                createDateTasks, completeDateTasks);
+            statuses = revision.statuses;
+        }
+
+        try {
+            if (versions.length > 0 && !isResolved(createDateTasks, completeDateTasks)) {
+                watermarkStore.save(reference, new Watermark(versions[versions.length - 1].toString(), statuses,
+                    getPendingTasks(createDateTasks, completeDateTasks)));
+            } else if (watermark != null) {
+                watermarkStore.remove(reference);
+            }
+        } catch (TaskException e) {
+            logger.warn("The next inference of the task dates of [{}] will read its whole history. Cause: [{}].",
+                reference, ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private Watermark getWatermark(DocumentReference reference)
+    {
+        try {
+            return watermarkStore.get(reference);
+        } catch (TaskException e) {
+            logger.warn("Reading the whole history of [{}]. Cause: [{}].", reference,
+                ExceptionUtils.getRootCauseMessage(e));
+            return null;
+        }
+    }
+
+    private int resume(Watermark watermark, Version[] versions, Set<String> pending, Map<String, String> statuses)
+    {
+        // The watermark can be used only if the tasks that are pending now were already pending at that point.
+        if (watermark != null && watermark.getPending().containsAll(pending)) {
+            int index = indexOf(versions, watermark.getVersion());
+            if (index >= 0) {
+                statuses.putAll(watermark.getStatuses());
+                return index + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void applyRevision(XWikiRCSNodeInfo node, String date, Map<String, String> previousStatuses,
+        Map<String, String> statuses, Map<String, Block> createDateTasks, Map<String, Block> completeDateTasks)
+    {
+        for (Map.Entry<String, String> task : statuses.entrySet()) {
+            String previousStatus = previousStatuses.get(task.getKey());
+            if (previousStatus == null) {
+                Block createDateTask = createDateTasks.remove(task.getKey());
+                if (createDateTask != null) {
+                    createDateTask.setParameter(Task.REPORTER, node.getAuthor());
+                    createDateTask.setParameter(Task.CREATE_DATE, date);
+                }
+            }
+            if (Task.STATUS_DONE.equals(task.getValue()) && !Task.STATUS_DONE.equals(previousStatus)) {
+                Block completeDateTask = completeDateTasks.remove(task.getKey());
+                if (completeDateTask != null) {
+                    completeDateTask.setParameter(Task.COMPLETE_DATE, date);
+                }
+            }
+        }
+    }
+
+    private boolean isResolved(Map<String, Block> createDateTasks, Map<String, Block> completeDateTasks)
+    {
+        return createDateTasks.isEmpty() && completeDateTasks.isEmpty();
+    }
+
+    private Set<String> getPendingTasks(Map<String, Block> createDateTasks, Map<String, Block> completeDateTasks)
+    {
+        Set<String> pending = new HashSet<>(createDateTasks.keySet());
+        pending.addAll(completeDateTasks.keySet());
+        return pending;
+    }
+
+    private Deque<Revision> readRevisions(XWikiDocumentArchive archive, Version[] versions, int start,
+        XWikiDocument ownerDoc, XWikiContext context)
+    {
+        // The archive holds the newest version in full and each older version as a diff to the version after it, so
+        // the versions are rebuilt in a single pass, from the newest to the oldest, each from the one rebuilt before.
+        Deque<Revision> revisions = new ArrayDeque<>();
+        List<String> lines = new ArrayList<>();
+        String newerContent = null;
+        for (int i = versions.length - 1; i >= start; i--) {
+            XWikiRCSNodeInfo node = archive.getNode(versions[i]);
+            if (node == null) {
+                logger.warn("The version [{}] of the document [{}] is missing. The versions before it are not read.",
+                    versions[i], ownerDoc.getDocumentReference());
+                break;
+            }
+            String content;
+            try {
+                node.getContent(context).getPatch().patch(lines);
+                content = readContent(ToString.arrayToString(lines.toArray()));
+            } catch (XWikiException | XMLStreamException e) {
+                // The older versions can't be rebuilt without this one.
+                logger.warn("Failed to load the version [{}] of the document [{}] and the ones before it. Cause [{}].",
+                    versions[i], ownerDoc.getDocumentReference(), ExceptionUtils.getRootCauseMessage(e));
+                break;
+            }
+            if (content == null) {
+                continue;
+            }
+            // A revision that only changed the objects or the metadata of the document doesn't change the tasks.
+            if (content.equals(newerContent)) {
+                revisions.removeFirst();
+            }
+            revisions.addFirst(new Revision(node, readTasks(content)));
+            newerContent = content;
+        }
+        return revisions;
+    }
+
+    private String readContent(String xml) throws XMLStreamException
+    {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+        try {
+            // The content is a child of the root element. The rest of the document is not read.
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (depth == 2 && CONTENT.equals(reader.getLocalName())) {
+                        return reader.getElementText();
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+            return null;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private Map<String, String> readTasks(String content)
+    {
+        Map<String, String> tasks = new HashMap<>();
+        Matcher matcher = TaskDatesInitializer.TASK_PATTERN.matcher(content);
+        while (matcher.find()) {
+            Matcher paramMatcher = TaskDatesInitializer.PARAMETERS_PATTERN.matcher(matcher.group());
+            String taskReference = "";
+            String status = "";
+            while (paramMatcher.find()) {
+                if (paramMatcher.group(1).equals(Task.REFERENCE)) {
+                    taskReference = paramMatcher.group(2);
+                } else if (paramMatcher.group(1).equals(Task.STATUS)) {
+                    status = paramMatcher.group(2);
+                }
+            }
+            if (!taskReference.isEmpty()) {
+                tasks.put(taskReference, status);
+            }
+        }
+        return tasks;
+    }
+
+    private int indexOf(Version[] versions, String version)
+    {
+        for (int i = versions.length - 1; i >= 0; i--) {
+            if (versions[i].toString().equals(version)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Revision
+    {
+        private final XWikiRCSNodeInfo node;
+
+        private final Map<String, String> statuses;
+
+        Revision(XWikiRCSNodeInfo node, Map<String, String> statuses)
+        {
+            this.node = node;
+            this.statuses = statuses;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.model.reference.WikiReference;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xwiki.task.TaskException;
+
+/**
+ * Persists, in each wiki, the point up to which {@link TaskRevisionScanner} read the history of the documents whose
+ * tasks are still missing dates. Each document is stored once, as an object of the hidden
+ * {@code TaskManager.TaskRevisionWatermarks} page. The watermarks are kept in memory and written in batches, so that
+ * the page is saved once for many scanned documents rather than after each of them. The page is saved without adding
+ * a revision to its history and keeps the watermarks of the last {@value #MAX_WATERMARKS} scanned documents.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskRevisionWatermarkStore.class)
+@Singleton
+public class TaskRevisionWatermarkStore implements Disposable
+{
+    private static final int MAX_WATERMARKS = 1000;
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final List<String> SPACE = List.of("TaskManager");
+
+    private static final LocalDocumentReference WATERMARK_CLASS_REFERENCE =
+        new LocalDocumentReference(SPACE, "TaskRevisionWatermarkClass");
+
+    private static final LocalDocumentReference WATERMARKS_REFERENCE =
+        new LocalDocumentReference(SPACE, "TaskRevisionWatermarks");
+
+    private static final String DOCUMENT = "document";
+
+    private static final String LOCALE = "locale";
+
+    private static final String VERSION = "version";
+
+    private static final String STATUSES = "statuses";
+
+    private static final String PENDING = "pending";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private TaskWorkers taskWorkers;
+
+    @Inject
+    private Logger logger;
+
+    // The watermarks that are not saved yet, by wiki. An empty value stands for a removed watermark.
+    private final Map<WikiReference, Map<DocumentReference, Optional<Watermark>>> buffer = new HashMap<>();
+
+    private final Object flushLock = new Object();
+
+    /**
+     * The state of the task macros of a document at a given revision.
+     *
+     * @version $Id$
+     * @since 3.11.0
+     */
+    public static final class Watermark
+    {
+        private final String version;
+
+        private final Map<String, String> statuses;
+
+        private final Set<String> pending;
+
+        /**
+         * @param version the last version that was read.
+         * @param statuses the status of each task macro in that version, by task reference.
+         * @param pending the tasks that were still missing dates after that version.
+         */
+        public Watermark(String version, Map<String, String> statuses, Set<String> pending)
+        {
+            this.version = version;
+            this.statuses = statuses;
+            this.pending = pending;
+        }
+
+        /**
+         * @return the last version that was read.
+         */
+        public String getVersion()
+        {
+            return version;
+        }
+
+        /**
+         * @return the status of each task macro in the last version that was read, by task reference.
+         */
+        public Map<String, String> getStatuses()
+        {
+            return statuses;
+        }
+
+        /**
+         * @return the tasks that were still missing dates after the last version that was read.
+         */
+        public Set<String> getPending()
+        {
+            return pending;
+        }
+    }
+
+    /**
+     * @param reference a document, with its locale.
+     * @return the watermark of the given document, or {@code null} if there is none.
+     * @throws TaskException if the watermark could not be retrieved.
+     */
+    public Watermark get(DocumentReference reference) throws TaskException
+    {
+        synchronized (buffer) {
+            Map<DocumentReference, Optional<Watermark>> wikiBuffer = buffer.get(reference.getWikiReference());
+            if (wikiBuffer != null && wikiBuffer.containsKey(reference)) {
+                return wikiBuffer.get(reference).orElse(null);
+            }
+        }
+        XWikiContext context = contextProvider.get();
+        try {
+            XWikiDocument watermarksDocument = getWatermarksDocument(reference.getWikiReference(), context);
+            BaseObject watermarkObject = getWatermarkObject(watermarksDocument, reference);
+            if (watermarkObject == null) {
+                return null;
+            }
+            return new Watermark(watermarkObject.getStringValue(VERSION),
+                MAPPER.readValue(watermarkObject.getLargeStringValue(STATUSES),
+                    new TypeReference<Map<String, String>>() { }),
+                MAPPER.readValue(watermarkObject.getLargeStringValue(PENDING), new TypeReference<Set<String>>() { }));
+        } catch (XWikiException | JsonProcessingException e) {
+            throw new TaskException(String.format("Failed to retrieve the revision watermark of [%s].", reference), e);
+        }
+    }
+
+    /**
+     * Set the watermark of a document. The watermarks are written in batches, once {@value #BATCH_SIZE} of them are
+     * waiting in a wiki or when {@link #flush()} is called.
+     *
+     * @param reference a document, with its locale.
+     * @param watermark the new watermark of the document.
+     * @throws TaskException if the batch of watermarks could not be saved.
+     */
+    public void save(DocumentReference reference, Watermark watermark) throws TaskException
+    {
+        buffer(reference, Optional.of(watermark));
+    }
+
+    /**
+     * Remove the watermark of a document. The removal is written with the next batch of watermarks.
+     *
+     * @param reference a document, with its locale, whose tasks no longer miss dates.
+     * @throws TaskException if the batch of watermarks could not be saved.
+     */
+    public void remove(DocumentReference reference) throws TaskException
+    {
+        buffer(reference, Optional.empty());
+    }
+
+    /**
+     * Write the watermarks that are waiting, in every wiki.
+     */
+    public void flush()
+    {
+        Set<WikiReference> wikis;
+        synchronized (buffer) {
+            wikis = new HashSet<>(buffer.keySet());
+        }
+        for (WikiReference wiki : wikis) {
+            try {
+                taskWorkers.runInContext(wiki.getName(), context -> flush(wiki, context));
+            } catch (Exception e) {
+                logger.warn("Failed to save the revision watermarks of the wiki [{}]. Cause: [{}].", wiki.getName(),
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        flush();
+    }
+
+    private void buffer(DocumentReference reference, Optional<Watermark> watermark) throws TaskException
+    {
+        WikiReference wiki = reference.getWikiReference();
+        int size;
+        synchronized (buffer) {
+            Map<DocumentReference, Optional<Watermark>> wikiBuffer = buffer.computeIfAbsent(wiki, k -> new HashMap<>());
+            wikiBuffer.put(reference, watermark);
+            size = wikiBuffer.size();
+        }
+        if (size >= BATCH_SIZE) {
+            flush(wiki, contextProvider.get());
+        }
+    }
+
+    private void flush(WikiReference wiki, XWikiContext context) throws TaskException
+    {
+        synchronized (flushLock) {
+            Map<DocumentReference, Optional<Watermark>> batch;
+            synchronized (buffer) {
+                batch = new HashMap<>(buffer.getOrDefault(wiki, Map.of()));
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                XWikiDocument watermarksDocument = getWatermarksDocument(wiki, context).clone();
+                for (Map.Entry<DocumentReference, Optional<Watermark>> entry : batch.entrySet()) {
+                    BaseObject watermarkObject = getWatermarkObject(watermarksDocument, entry.getKey());
+                    if (entry.getValue().isPresent()) {
+                        setWatermark(watermarksDocument, watermarkObject, entry.getKey(), entry.getValue().get(),
+                            context);
+                    } else if (watermarkObject != null) {
+                        watermarksDocument.removeXObject(watermarkObject);
+                    }
+                }
+                watermarksDocument.setHidden(true);
+                save(watermarksDocument, String.format("Updated the revision watermarks of [%d] documents.",
+                    batch.size()), context);
+            } catch (XWikiException | JsonProcessingException e) {
+                throw new TaskException(
+                    String.format("Failed to save the revision watermarks of the wiki [%s].", wiki.getName()), e);
+            }
+            synchronized (buffer) {
+                Map<DocumentReference, Optional<Watermark>> wikiBuffer = buffer.get(wiki);
+                // The watermarks set while the batch was saved are kept for the next batch.
+                batch.forEach(wikiBuffer::remove);
+                if (wikiBuffer.isEmpty()) {
+                    buffer.remove(wiki);
+                }
+            }
+        }
+    }
+
+    private void setWatermark(XWikiDocument watermarksDocument, BaseObject existingObject,
+        DocumentReference reference, Watermark watermark, XWikiContext context)
+        throws XWikiException, JsonProcessingException
+    {
+        BaseObject watermarkObject = existingObject;
+        if (watermarkObject == null) {
+            evictOldest(watermarksDocument);
+            watermarkObject = watermarksDocument.newXObject(WATERMARK_CLASS_REFERENCE, context);
+            watermarkObject.setStringValue(DOCUMENT, serializer.serialize(reference));
+            watermarkObject.setStringValue(LOCALE, Objects.toString(reference.getLocale(), ""));
+        }
+        watermarkObject.setStringValue(VERSION, watermark.getVersion());
+        watermarkObject.setLargeStringValue(STATUSES, MAPPER.writeValueAsString(watermark.getStatuses()));
+        watermarkObject.setLargeStringValue(PENDING, MAPPER.writeValueAsString(watermark.getPending()));
+    }
+
+    private void evictOldest(XWikiDocument watermarksDocument)
+    {
+        List<BaseObject> watermarkObjects = watermarksDocument.getXObjects(WATERMARK_CLASS_REFERENCE);
+        long count = watermarkObjects.stream().filter(Objects::nonNull).count();
+        for (BaseObject watermarkObject : watermarkObjects) {
+            if (count < MAX_WATERMARKS) {
+                return;
+            }
+            if (watermarkObject != null) {
+                watermarksDocument.removeXObject(watermarkObject);
+                count--;
+            }
+        }
+    }
+
+    private BaseObject getWatermarkObject(XWikiDocument watermarksDocument, DocumentReference reference)
+    {
+        String document = serializer.serialize(reference);
+        String locale = Objects.toString(reference.getLocale(), "");
+        for (BaseObject watermarkObject : watermarksDocument.getXObjects(WATERMARK_CLASS_REFERENCE)) {
+            if (watermarkObject != null && document.equals(watermarkObject.getStringValue(DOCUMENT))
+                && locale.equals(watermarkObject.getStringValue(LOCALE)))
+            {
+                return watermarkObject;
+            }
+        }
+        return null;
+    }
+
+    private void save(XWikiDocument watermarksDocument, String comment, XWikiContext context) throws XWikiException
+    {
+        if (!watermarksDocument.isNew()) {
+            // The store only creates a new revision of the documents whose content or metadata is dirty.
+            watermarksDocument.setContentDirty(false);
+            watermarksDocument.setMetaDataDirty(false);
+        }
+        context.getWiki().saveDocument(watermarksDocument, comment, true, context);
+    }
+
+    private XWikiDocument getWatermarksDocument(WikiReference wiki, XWikiContext context) throws XWikiException
+    {
+        return context.getWiki().getDocument(new DocumentReference(WATERMARKS_REFERENCE, wiki), context);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.model.reference.WikiReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xwiki.task.TaskException;
+
+/**
+ * Persists, in each wiki, the documents whose task pages are waiting to be synchronized by
+ * {@link DefaultTaskSyncQueue}. Each document is stored once, as an object of the hidden
+ * {@code TaskManager.TaskSyncQueue} page. The changes of the queue are written in batches, in the background, without
+ * adding a revision to the history of the page.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskSyncQueueStore.class)
+@Singleton
+public class TaskSyncQueueStore
+{
+    private static final List<String> SPACE = List.of("TaskManager");
+
+    private static final LocalDocumentReference QUEUE_CLASS_REFERENCE =
+        new LocalDocumentReference(SPACE, "TaskSyncQueueClass");
+
+    private static final LocalDocumentReference QUEUE_REFERENCE = new LocalDocumentReference(SPACE, "TaskSyncQueue");
+
+    private static final String OWNER = "owner";
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Update the queue of a wiki with a single save.
+     *
+     * @param wiki a wiki.
+     * @param added the documents of the given wiki whose task pages have to be synchronized. The ones that are
+     *     already in the queue are ignored.
+     * @param removed the documents of the given wiki whose task pages have been synchronized.
+     * @throws TaskException if the queue could not be saved.
+     */
+    public void update(String wiki, Collection<DocumentReference> added, Collection<DocumentReference> removed)
+        throws TaskException
+    {
+        XWikiContext context = contextProvider.get();
+        synchronized (locks.computeIfAbsent(wiki, key -> new Object())) {
+            try {
+                XWikiDocument queueDocument = getQueueDocument(new WikiReference(wiki), context).clone();
+                boolean changed = false;
+                for (DocumentReference owner : added) {
+                    String serializedOwner = serializer.serialize(owner);
+                    if (queueDocument.getXObject(QUEUE_CLASS_REFERENCE, OWNER, serializedOwner, false) == null) {
+                        queueDocument.newXObject(QUEUE_CLASS_REFERENCE, context).setStringValue(OWNER,
+                            serializedOwner);
+                        changed = true;
+                    }
+                }
+                for (DocumentReference owner : removed) {
+                    BaseObject queueObject =
+                        queueDocument.getXObject(QUEUE_CLASS_REFERENCE, OWNER, serializer.serialize(owner), false);
+                    if (queueObject != null) {
+                        queueDocument.removeXObject(queueObject);
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    queueDocument.setHidden(true);
+                    save(queueDocument, "Updated the task synchronization queue.", context);
+                }
+            } catch (XWikiException e) {
+                throw new TaskException(
+                    String.format("Failed to update the task synchronization queue of [%s].", wiki), e);
+            }
+        }
+    }
+
+    /**
+     * @param wiki a wiki.
+     * @return the documents of the given wiki whose task pages are waiting to be synchronized.
+     * @throws TaskException if the queue could not be retrieved.
+     */
+    public List<DocumentReference> getOwners(String wiki) throws TaskException
+    {
+        XWikiContext context = contextProvider.get();
+        WikiReference wikiReference = new WikiReference(wiki);
+        try {
+            return getQueueDocument(wikiReference, context).getXObjects(QUEUE_CLASS_REFERENCE).stream()
+                .filter(Objects::nonNull).map(queueObject -> queueObject.getStringValue(OWNER))
+                .map(owner -> resolver.resolve(owner, wikiReference)).collect(Collectors.toList());
+        } catch (XWikiException e) {
+            throw new TaskException(String.format("Failed to retrieve the task synchronization queue of [%s].", wiki),
+                e);
+        }
+    }
+
+    private void save(XWikiDocument queueDocument, String comment, XWikiContext context) throws XWikiException
+    {
+        if (!queueDocument.isNew()) {
+            // The store only creates a new revision of the documents whose content or metadata is dirty.
+            queueDocument.setContentDirty(false);
+            queueDocument.setMetaDataDirty(false);
+        }
+        context.getWiki().saveDocument(queueDocument, comment, true, context);
+    }
+
+    private XWikiDocument getQueueDocument(WikiReference wiki, XWikiContext context) throws XWikiException
+    {
+        return context.getWiki().getDocument(new DocumentReference(QUEUE_REFERENCE, wiki), context);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Creates the thread pools that process the task macros and the task pages in the background and runs the work of
+ * their threads, each time in a new execution context.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskWorkers.class)
+@Singleton
+public class TaskWorkers
+{
+    /**
+     * Work that needs a context of its own.
+     */
+    @FunctionalInterface
+    public interface ContextualWork
+    {
+        /**
+         * @param context the context initialized for the work.
+         * @throws Exception if the work failed.
+         */
+        void run(XWikiContext context) throws Exception;
+    }
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
+    /**
+     * @param name the prefix of the names of the threads of the pool.
+     * @param threads the number of threads of the pool.
+     * @return a new pool of daemon threads. The caller is responsible for shutting it down.
+     */
+    public ExecutorService newPool(String name, int threads)
+    {
+        return Executors.newFixedThreadPool(threads, newThreadFactory(name));
+    }
+
+    /**
+     * @param name the prefix of the name of the thread of the pool.
+     * @return a new pool with a single daemon thread that can run work after a delay. The caller is responsible for
+     *     shutting it down.
+     */
+    public ScheduledExecutorService newScheduledPool(String name)
+    {
+        return Executors.newSingleThreadScheduledExecutor(newThreadFactory(name));
+    }
+
+    /**
+     * Run some work in a new execution context, on the given wiki. The context is removed once the work is done.
+     *
+     * @param wiki the identifier of the wiki on which the work is done.
+     * @param work the work to run.
+     * @throws Exception if the context could not be initialized or if the work failed.
+     */
+    public void runInContext(String wiki, ContextualWork work) throws Exception
+    {
+        try {
+            executionContextManager.initialize(new ExecutionContext());
+            XWikiContext context = contextProvider.get();
+            context.setWikiId(wiki);
+            work.run(context);
+        } finally {
+            execution.removeContext();
+        }
+    }
+
+    private ThreadFactory newThreadFactory(String name)
+    {
+        return new BasicThreadFactory.Builder().namingPattern(name + "-%d").daemon(true).build();
+    }
+}
@@ -19,12 +19,14 @@
  */
 package com.xwiki.task.internal;
 
+import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -89,6 +91,9 @@ public class TaskXDOMProcessor
     @Inject
     private MacroUtils macroUtils;
 
+    @Inject
+    private TaskMacroStreamExtractor streamExtractor;
+
     /**
      * Extracts the existing Tasks that have a reference from a given XDOM.
      *
@@ -116,7 +121,8 @@ public class TaskXDOMProcessor
     {
         List<Task> tasks = new ArrayList<>();
         Syntax syntax = (Syntax) content.getMetaData().getMetaData().getOrDefault(MetaData.SYNTAX, Syntax.XWIKI_2_1);
-        blockFinder.find(content, syntax, (macro) -> {
+        // Read-only visit: the content of the nested macros is never rendered back.
+        blockFinder.visit(content, syntax, (macro, modifications) -> {
             if (Task.MACRO_NAME.equals(macro.getId())) {
                 String serializedRef = macro.getParameters().get(Task.REFERENCE);
                 if (StringUtils.isEmpty(serializedRef)) {
@@ -139,6 +145,30 @@ public class TaskXDOMProcessor
         return tasks;
     }
 
+    /**
+     * Extracts the references of the tasks from a raw content, without building its XDOM.
+     *
+     * @param content the raw content from which one desires to extract the task references.
+     * @param syntax the syntax of the content.
+     * @param contentSource the source of the content.
+     * @return a list of tasks that contain only the references, or an empty list if the content didn't contain any
+     *     task macro that has a reference.
+     * @throws TaskException if the content can't be parsed without building its XDOM.
+     * @since 3.11.0
+     */
+    public List<Task> extractReferences(String content, Syntax syntax, DocumentReference contentSource)
+        throws TaskException
+    {
+        List<Task> tasks = new ArrayList<>();
+        for (Map<String, String> parameters : streamExtractor.extractParameters(content, syntax)) {
+            String serializedRef = parameters.get(Task.REFERENCE);
+            if (StringUtils.isNotEmpty(serializedRef)) {
+                tasks.add(new Task(taskReferenceUtils.resolveAsDocumentReference(serializedRef, contentSource)));
+            }
+        }
+        return tasks;
+    }
+
     /**
      * Parse the content of a document and sync the task macro with a given task object.
      *
@@ -151,22 +181,61 @@ public class TaskXDOMProcessor
     public XDOM updateTaskMacroCall(DocumentReference documentReference, BaseObject taskObject, XDOM content,
         Syntax syntax)
     {
-        DocumentReference taskDocRef = taskObject.getDocumentReference();
-        SimpleDateFormat storageFormat = new SimpleDateFormat(configuration.get().getStorageDateFormat());
-        blockFinder.find(content, syntax, (macro) -> {
+        return updateTaskMacroCalls(documentReference, Collections.singletonList(taskObject), content, syntax);
+    }
+
+    /**
+     * Sync the task macros of a document with the given task objects, in a single pass over its content.
+     *
+     * @param documentReference the reference to the document that contains the task macros that need updating.
+     * @param taskObjects the task objects that will be used to update the task macros.
+     * @param content the content of the document.
+     * @param syntax the syntax of the document content.
+     * @return the modified content.
+     * @since 3.11.0
+     */
+    public XDOM updateTaskMacroCalls(DocumentReference documentReference, Collection<BaseObject> taskObjects,
+        XDOM content, Syntax syntax)
+    {
+        Map<DocumentReference, BaseObject> remainingTasks = new HashMap<>();
+        for (BaseObject taskObject : taskObjects) {
+            remainingTasks.put(taskObject.getDocumentReference(), taskObject);
+        }
+        DateFormat storageFormat = configuration.get().getStorageDateFormatter();
+        blockFinder.visit(content, syntax, (macro, modifications) -> {
             if (Task.MACRO_NAME.equals(macro.getId())) {
-                if (maybeUpdateTaskMacroCall(documentReference, taskObject, taskDocRef, content, storageFormat,
-                    macro))
-                {
-                    return MacroBlockFinder.Lookup.BREAK;
+                DocumentReference taskRef = taskReferenceUtils.resolveAsDocumentReference(
+                    macro.getParameters().getOrDefault(Task.REFERENCE, ""), documentReference);
+                BaseObject taskObject = remainingTasks.remove(taskRef);
+                if (taskObject != null) {
+                    updateTaskMacroCall(taskObject, content, storageFormat, macro);
+                    modifications.markModified();
+                    return remainingTasks.isEmpty() ? MacroBlockFinder.Lookup.BREAK
+                        : MacroBlockFinder.Lookup.CONTINUE;
                 }
-                return MacroBlockFinder.Lookup.CONTINUE;
             }
             return MacroBlockFinder.Lookup.CONTINUE;
         });
         return content;
     }
 
+    /**
+     * Set on a task object the values that its task macro call will hold: the creation date, when missing, and no
+     * completion date when the task is not done.
+     *
+     * @param taskObject the task object that will be used to update its task macro call.
+     * @since 3.11.0
+     */
+    public void prepareTaskObject(BaseObject taskObject)
+    {
+        if (!Task.STATUS_DONE.equals(taskObject.getStringValue(Task.STATUS))) {
+            taskObject.setDateValue(Task.COMPLETE_DATE, null);
+        }
+        if (taskObject.getDateValue(Task.CREATE_DATE) == null) {
+            taskObject.setDateValue(Task.CREATE_DATE, new Date());
+        }
+    }
+
     /**
      * Remove the task macro call that has the given reference.
      *
@@ -179,13 +248,14 @@ public class TaskXDOMProcessor
     public XDOM removeTaskMacroCall(DocumentReference taskReference, DocumentReference ownerReference, XDOM docContent,
         Syntax syntax)
     {
-        this.blockFinder.find(docContent, syntax, (macro) -> {
+        this.blockFinder.visit(docContent, syntax, (macro, modifications) -> {
             if (Task.MACRO_NAME.equals(macro.getId())) {
                 DocumentReference macroRef = taskReferenceUtils.resolveAsDocumentReference(
                     macro.getParameters().getOrDefault(Task.REFERENCE, ""), ownerReference);
                 if (macroRef.equals(taskReference)) {
                     List<Block> siblings = macro.getParent().getChildren();
                     siblings.remove(macro);
+                    modifications.markModified();
                     return MacroBlockFinder.Lookup.BREAK;
                 }
                 return MacroBlockFinder.Lookup.SKIP;
@@ -220,40 +290,32 @@ public class TaskXDOMProcessor
         return task;
     }
 
-    private boolean maybeUpdateTaskMacroCall(DocumentReference documentReference, BaseObject taskObject,
-        DocumentReference taskDocRef, XDOM content, SimpleDateFormat storageFormat, MacroBlock macro)
+    private void updateTaskMacroCall(BaseObject taskObject, XDOM content, DateFormat storageFormat,
+        MacroBlock macro)
     {
-        DocumentReference taskRef =
-            taskReferenceUtils.resolveAsDocumentReference(macro.getParameters().getOrDefault(Task.REFERENCE, ""),
-                documentReference);
-        if (taskRef.equals(taskDocRef)) {
+        setBasicMacroParameters(taskObject, storageFormat, macro);
 
-            setBasicMacroParameters(taskObject, storageFormat, macro);
-
-            try {
-                Syntax syntax =
-                    (Syntax) content.getMetaData().getMetaData().getOrDefault(MetaData.SYNTAX, Syntax.XWIKI_2_1);
-
-                List<Block> newTaskContentBlocks =
-                    taskBlockProcessor.generateTaskContentBlocks(
-                        Arrays.stream(taskObject.getLargeStringValue(Task.ASSIGNEE).split(","))
-                            .filter(StringUtils::isNotEmpty).collect(Collectors.toList()),
-                        taskObject.getDateValue(Task.DUE_DATE), taskObject.getLargeStringValue(Task.DESCRIPTION),
-                        storageFormat);
-
-                String newContent = macroUtils.renderMacroContent(newTaskContentBlocks, syntax);
-
-                macroUtils.updateMacroContent(macro, newContent);
-            } catch (ComponentLookupException | TaskException e) {
-                logger.warn("Failed to update the task macro call for the task with reference [{}]: [{}].", taskDocRef,
-                    ExceptionUtils.getRootCauseMessage(e));
-            }
-            return true;
+        try {
+            Syntax syntax =
+                (Syntax) content.getMetaData().getMetaData().getOrDefault(MetaData.SYNTAX, Syntax.XWIKI_2_1);
+
+            List<Block> newTaskContentBlocks =
+                taskBlockProcessor.generateTaskContentBlocks(
+                    Arrays.stream(taskObject.getLargeStringValue(Task.ASSIGNEE).split(","))
+                        .filter(StringUtils::isNotEmpty).collect(Collectors.toList()),
+                    taskObject.getDateValue(Task.DUE_DATE), taskObject.getLargeStringValue(Task.DESCRIPTION),
+                    storageFormat);
+
+            String newContent = macroUtils.renderMacroContent(newTaskContentBlocks, syntax);
+
+            macroUtils.updateMacroContent(macro, newContent);
+        } catch (ComponentLookupException | TaskException e) {
+            logger.warn("Failed to update the task macro call for the task with reference [{}]: [{}].",
+                taskObject.getDocumentReference(), ExceptionUtils.getRootCauseMessage(e));
         }
-        return false;
     }
 
-    private void setBasicMacroParameters(BaseObject taskObject, SimpleDateFormat storageFormat, MacroBlock macro)
+    private void setBasicMacroParameters(BaseObject taskObject, DateFormat storageFormat, MacroBlock macro)
     {
         String taskStatus = taskObject.getStringValue(Task.STATUS);
         if (taskStatus.equals(Task.STATUS_DONE)) {
@@ -287,7 +349,7 @@ public class TaskXDOMProcessor
         String strCreateDate = macroParams.getOrDefault(Task.CREATE_DATE, "");
         String strCompletedDate = macroParams.getOrDefault(Task.COMPLETE_DATE, "");
 
-        SimpleDateFormat dateFormat = new SimpleDateFormat(configuration.get().getStorageDateFormat());
+        DateFormat dateFormat = configuration.get().getStorageDateFormatter();
 
         try {
             Date createDate = dateFormat.parse(strCreateDate);
@@ -337,8 +399,9 @@ public class TaskXDOMProcessor
         String dateValue = macro.getParameters().get("value");
         try {
             String formatParam = macro.getParameters().get("format");
-            deadline = new SimpleDateFormat(formatParam != null && !formatParam.isEmpty() ? formatParam
-                : configuration.get().getStorageDateFormat()).parse(dateValue);
+            DateFormat dateFormat = formatParam != null && !formatParam.isEmpty()
+                ? configuration.get().getDateFormatter(formatParam) : configuration.get().getStorageDateFormatter();
+            deadline = dateFormat.parse(dateValue);
         } catch (ParseException e) {
             logger.warn("Failed to parse the deadline date [{}] of the Task macro! Expected format is [{}]", dateValue,
                 configuration.get().getStorageDateFormat());
@@ -19,7 +19,6 @@
  */
 package com.xwiki.task.internal.ckeditor;
 
-import java.util.Collections;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,15 +27,9 @@ import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
-import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.component.phase.Initializable;
-import org.xwiki.component.phase.InitializationException;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.LocalDocumentReference;
-import org.xwiki.observation.AbstractEventListener;
-import org.xwiki.observation.event.Event;
 import org.xwiki.user.UserReference;
 import org.xwiki.user.UserReferenceResolver;
 
@@ -44,9 +37,11 @@ import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
+import com.xwiki.task.TaskException;
+import com.xwiki.task.internal.migration.TaskMigration;
 
 /**
- * Listener responsible with enabling the "xwiki-task-init" CKEditor plugin by adding it to the CKEditor Config wiki
+ * Migration responsible with enabling the "xwiki-task-init" CKEditor plugin by adding it to the CKEditor Config wiki
  * page.
  *
  * @version $Id$
@@ -54,8 +49,8 @@ import com.xpn.xwiki.objects.BaseObject;
  */
 @Component
 @Singleton
-@Named("CKEditorTaskPluginActivatorListener")
-public class CKEditorTaskPluginActivatorListener extends AbstractEventListener implements Initializable
+@Named("ckeditorTaskPlugin")
+public class CKEditorTaskPluginActivator implements TaskMigration
 {
     private static final String PLUGIN_NAME = "xwiki-task-insert";
 
@@ -72,29 +67,12 @@ public class CKEditorTaskPluginActivatorListener extends AbstractEventListener i
     @Inject
     private Provider<XWikiContext> contextProvider;
 
-    @Inject
-    private Logger logger;
-
     @Inject
     @Named("document")
     private UserReferenceResolver<DocumentReference> userRefResolver;
 
-    /**
-     * Default constructor.
-     */
-    public CKEditorTaskPluginActivatorListener()
-    {
-        super("CKEditorTaskPluginActivatorListener", Collections.emptyList());
-    }
-
-    @Override
-    public void onEvent(Event event, Object source, Object data)
-    {
-        // Do nothing.
-    }
-
     @Override
-    public void initialize() throws InitializationException
+    public void migrate(String wiki) throws TaskException
     {
         XWikiContext context = contextProvider.get();
 
@@ -143,8 +121,7 @@ public class CKEditorTaskPluginActivatorListener extends AbstractEventListener i
             document.getAuthors().setEffectiveMetadataAuthor(currentUser);
             context.getWiki().saveDocument(document, String.format("Enabled '%s' plugin.", PLUGIN_NAME), context);
         } catch (XWikiException e) {
-            logger.warn("Failed to initialize enable the [{}] plugin. Cause: [{}].", PLUGIN_NAME,
-                ExceptionUtils.getRootCauseMessage(e));
+            throw new TaskException(String.format("Failed to enable the [%s] plugin.", PLUGIN_NAME), e);
         }
     }
 }
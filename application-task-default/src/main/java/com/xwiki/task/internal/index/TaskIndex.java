@@ -0,0 +1,172 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.index;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xwiki.task.internal.AbstractTaskEventListener;
+import com.xwiki.task.internal.TaskWorkers;
+
+/**
+ * In-memory index of the task pages of each wiki, allowing to look up the tasks of an owner page without querying
+ * the database. The index of a wiki is built in the background the first time it is needed
+ * and is then kept up to date through {@link #update(XWikiDocument)} and {@link #remove(DocumentReference)}. Until the
+ * index of a wiki is ready, callers should fall back to querying the database.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskIndex.class)
+@Singleton
+public class TaskIndex implements Initializable, Disposable
+{
+    private static final List<String> TEMPLATE_SPACE = List.of("TaskManager", "TaskManagerTemplates");
+
+    @Inject
+    private Provider<TaskIndexLoader> loaderProvider;
+
+    @Inject
+    private TaskWorkers taskWorkers;
+
+    @Inject
+    private Logger logger;
+
+    private final Map<String, WikiTaskIndex> indexes = new ConcurrentHashMap<>();
+
+    private ExecutorService buildExecutor;
+
+    @Override
+    public void initialize()
+    {
+        buildExecutor = taskWorkers.newPool("TaskIndexBuilder", 1);
+    }
+
+    /**
+     * @param wiki the wiki whose index is checked.
+     * @return {@code true} if the index of the given wiki is completely built and can be trusted, {@code false}
+     *     otherwise. Calling this method triggers the build of the index if it was not started yet.
+     */
+    public boolean isReady(String wiki)
+    {
+        return getIndex(wiki).isReady();
+    }
+
+    /**
+     * @param owner the reference of a page.
+     * @return the references of the tasks owned by the given page.
+     */
+    public Set<DocumentReference> getTasksByOwner(DocumentReference owner)
+    {
+        return getIndex(owner.getWikiReference().getName()).getByOwner(owner);
+    }
+
+    /**
+     * Update the index entry of a document. The entry is removed if the document no longer holds a task object.
+     *
+     * @param document the document that has been created or updated.
+     */
+    public void update(XWikiDocument document)
+    {
+        DocumentReference reference = document.getDocumentReference();
+        WikiTaskIndex index = indexes.get(reference.getWikiReference().getName());
+        if (index == null) {
+            // The index of this wiki was not requested yet. The change will be picked up when it is built.
+            return;
+        }
+        BaseObject taskObject = document.getXObject(AbstractTaskEventListener.TASK_CLASS_REFERENCE);
+        if (taskObject == null || isTemplate(reference)) {
+            index.remove(reference);
+        } else {
+            index.put(loaderProvider.get().load(taskObject));
+        }
+    }
+
+    /**
+     * Remove the index entry of a document.
+     *
+     * @param reference the reference of the document that has been deleted.
+     */
+    public void remove(DocumentReference reference)
+    {
+        WikiTaskIndex index = indexes.get(reference.getWikiReference().getName());
+        if (index != null) {
+            index.remove(reference);
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        buildExecutor.shutdownNow();
+        indexes.clear();
+    }
+
+    private WikiTaskIndex getIndex(String wiki)
+    {
+        return indexes.computeIfAbsent(wiki, key -> {
+            WikiTaskIndex index = new WikiTaskIndex();
+            buildExecutor.execute(() -> build(key, index));
+            return index;
+        });
+    }
+
+    private void build(String wiki, WikiTaskIndex index)
+    {
+        try {
+            taskWorkers.runInContext(wiki, context -> {
+                for (TaskIndexEntry entry : loaderProvider.get().load(wiki)) {
+                    index.load(entry);
+                }
+            });
+            index.markReady();
+            logger.debug("The task index of the wiki [{}] has been built.", wiki);
+        } catch (Exception e) {
+            // Drop the index so that the build is attempted again the next time it is needed.
+            indexes.remove(wiki, index);
+            logger.warn("Failed to build the task index of the wiki [{}]. Cause: [{}].", wiki,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private boolean isTemplate(DocumentReference reference)
+    {
+        return reference.getSpaceReferences().stream().map(EntityReference::getName).collect(Collectors.toList())
+            .equals(TEMPLATE_SPACE);
+    }
+}
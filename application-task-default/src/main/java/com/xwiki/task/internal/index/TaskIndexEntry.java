@@ -0,0 +1,61 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.index;
+
+import org.xwiki.model.reference.DocumentReference;
+
+/**
+ * The indexed data of a task page, i.e. the subset of the task object properties that can be used for lookups.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+public class TaskIndexEntry
+{
+    private final DocumentReference reference;
+
+    private final DocumentReference owner;
+
+    /**
+     * @param reference the reference of the task page.
+     * @param owner the reference of the page that contains the task macro or {@code null} if the task has no owner.
+     */
+    public TaskIndexEntry(DocumentReference reference, DocumentReference owner)
+    {
+        this.reference = reference;
+        this.owner = owner;
+    }
+
+    /**
+     * @return the reference of the task page.
+     */
+    public DocumentReference getReference()
+    {
+        return reference;
+    }
+
+    /**
+     * @return the reference of the page that contains the task macro or {@code null} if the task has no owner.
+     */
+    public DocumentReference getOwner()
+    {
+        return owner;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xwiki.task.model.Task;
+
+/**
+ * Retrieves the data needed by the {@link TaskIndex}, either from the database or from a task object.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskIndexLoader.class)
+@Singleton
+public class TaskIndexLoader
+{
+    // The owner is retrieved polymorphically in order to not depend on its storage type.
+    private static final String STATEMENT = "select obj.name, prop from BaseObject as obj, BaseProperty as prop "
+        + "where obj.className = 'TaskManager.TaskManagerClass' "
+        + "and obj.name not like 'TaskManager.TaskManagerTemplates.%' "
+        + "and prop.id.id = obj.id and prop.id.name = :property "
+        + "order by obj.id";
+
+    private static final int BATCH_SIZE = 10000;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    /**
+     * Retrieve the indexed properties of all the task pages of a wiki, in batches.
+     *
+     * @param wiki the wiki whose task pages are retrieved.
+     * @return the index entries of all the task pages of the wiki.
+     * @throws QueryException if the retrieval of the task properties failed.
+     */
+    public List<TaskIndexEntry> load(String wiki) throws QueryException
+    {
+        WikiReference wikiReference = new WikiReference(wiki);
+        List<TaskIndexEntry> entries = new ArrayList<>();
+        int offset = 0;
+        List<Object[]> rows;
+        do {
+            rows = queryManager.createQuery(STATEMENT, Query.HQL).setWiki(wiki).bindValue("property", Task.OWNER)
+                .setOffset(offset).setLimit(BATCH_SIZE).execute();
+            for (Object[] row : rows) {
+                Object owner = ((BaseProperty) row[1]).getValue();
+                DocumentReference reference = resolver.resolve((String) row[0], wikiReference);
+                entries.add(createEntry(reference, owner != null ? owner.toString() : null));
+            }
+            offset += rows.size();
+        } while (rows.size() == BATCH_SIZE);
+        return entries;
+    }
+
+    /**
+     * @param taskObject a task object.
+     * @return the index entry corresponding to the given object.
+     */
+    public TaskIndexEntry load(BaseObject taskObject)
+    {
+        return createEntry(taskObject.getDocumentReference(), taskObject.getStringValue(Task.OWNER));
+    }
+
+    private TaskIndexEntry createEntry(DocumentReference reference, String owner)
+    {
+        DocumentReference ownerReference = StringUtils.isBlank(owner) ? null : resolver.resolve(owner, reference);
+        return new TaskIndexEntry(reference, ownerReference);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.index;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.xwiki.model.reference.DocumentReference;
+
+/**
+ * The in-memory task index of a single wiki. Reads are lock free while writes are serialized on the instance.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+public class WikiTaskIndex
+{
+    private final Map<DocumentReference, TaskIndexEntry> entries = new ConcurrentHashMap<>();
+
+    private final Map<DocumentReference, Set<DocumentReference>> byOwner = new ConcurrentHashMap<>();
+
+    // References updated through events while the index was being built. The data coming from the events is more
+    // recent than the one retrieved by the build query so it must not be overwritten.
+    private final Set<DocumentReference> touchedWhileBuilding = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready;
+
+    /**
+     * @return {@code true} if the index was fully built and can be used to answer lookups, {@code false} otherwise.
+     */
+    public boolean isReady()
+    {
+        return ready;
+    }
+
+    /**
+     * Mark the build of the index as finished.
+     */
+    public synchronized void markReady()
+    {
+        this.ready = true;
+        this.touchedWhileBuilding.clear();
+    }
+
+    /**
+     * Add or replace an entry as a result of a document change.
+     *
+     * @param entry the up-to-date data of a task page.
+     */
+    public synchronized void put(TaskIndexEntry entry)
+    {
+        if (!ready) {
+            touchedWhileBuilding.add(entry.getReference());
+        }
+        removeEntry(entry.getReference());
+        addEntry(entry);
+    }
+
+    /**
+     * Add an entry retrieved by the initial build, unless a more recent change of the same page was already indexed.
+     *
+     * @param entry the data of a task page, as it was retrieved from the database.
+     */
+    public synchronized void load(TaskIndexEntry entry)
+    {
+        if (!touchedWhileBuilding.contains(entry.getReference())) {
+            removeEntry(entry.getReference());
+            addEntry(entry);
+        }
+    }
+
+    /**
+     * Remove a task page from the index.
+     *
+     * @param reference the reference of the task page.
+     */
+    public synchronized void remove(DocumentReference reference)
+    {
+        if (!ready) {
+            touchedWhileBuilding.add(reference);
+        }
+        removeEntry(reference);
+    }
+
+    /**
+     * @param reference the reference of a task page.
+     * @return the indexed data of the page or {@code null} if the page is not indexed.
+     */
+    public TaskIndexEntry get(DocumentReference reference)
+    {
+        return entries.get(reference);
+    }
+
+    /**
+     * @param owner the reference of a page containing task macros.
+     * @return the task pages owned by the given page.
+     */
+    public Set<DocumentReference> getByOwner(DocumentReference owner)
+    {
+        return snapshot(byOwner.get(owner));
+    }
+
+    private void addEntry(TaskIndexEntry entry)
+    {
+        DocumentReference reference = entry.getReference();
+        entries.put(reference, entry);
+        addToGroup(byOwner, entry.getOwner(), reference);
+    }
+
+    private void removeEntry(DocumentReference reference)
+    {
+        TaskIndexEntry previous = entries.remove(reference);
+        if (previous == null) {
+            return;
+        }
+        removeFromGroup(byOwner, previous.getOwner(), reference);
+    }
+
+    private <K> void addToGroup(Map<K, Set<DocumentReference>> groups, K key, DocumentReference reference)
+    {
+        if (key != null) {
+            groups.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(reference);
+        }
+    }
+
+    private <K> void removeFromGroup(Map<K, Set<DocumentReference>> groups, K key, DocumentReference reference)
+    {
+        if (key == null) {
+            return;
+        }
+        Set<DocumentReference> group = groups.get(key);
+        if (group != null) {
+            group.remove(reference);
+            if (group.isEmpty()) {
+                groups.remove(key);
+            }
+        }
+    }
+
+    private Set<DocumentReference> snapshot(Set<DocumentReference> group)
+    {
+        return group == null ? Collections.emptySet() : Set.copyOf(group);
+    }
+}
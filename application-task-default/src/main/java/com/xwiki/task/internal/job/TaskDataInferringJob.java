@@ -19,12 +19,17 @@
  */
 package com.xwiki.task.internal.job;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
@@ -32,14 +37,24 @@ import org.xwiki.job.AbstractJob;
 import org.xwiki.job.Job;
 import org.xwiki.job.event.status.JobStatus;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
 
+import com.xwiki.task.PaginatedReferences;
+import com.xwiki.task.TaskConfiguration;
 import com.xwiki.task.TaskException;
 import com.xwiki.task.TaskMissingDataManager;
+import com.xwiki.task.internal.TaskRevisionWatermarkStore;
+import com.xwiki.task.internal.TaskWorkers;
 import com.xwiki.task.job.TaskDataInferringJobRequest;
 import com.xwiki.task.job.TaskDataInferringJobStatus;
 
 /**
- * This job will run {@link TaskMissingDataManager#inferMissingTaskData()} async.
+ * This job will run {@link TaskMissingDataManager#inferMissingTaskData()} async. The pages are retrieved in chunks, in
+ * the order of their references, and the pages of each chunk are processed by a pool of threads, each page with its
+ * own context. The results are logged by the job thread, so that they are part of the log of the job. The revision
+ * watermarks of the pages of each chunk are saved together, once the chunk is processed. The cursor up to which all
+ * the pages were processed successfully is kept in the job status, so that a run that was interrupted is resumed by
+ * the next one.
  *
  * @version $Id$
  * @since 3.3
@@ -55,9 +70,25 @@ public class TaskDataInferringJob
      */
     public static final String JOBTYPE = "taskmanager.infertaskdata";
 
+    /**
+     * The number of pages retrieved at once, after which the progress is logged and the status is saved.
+     */
+    private static final int CHUNK_SIZE = 100;
+
+    private static final double MILLIS_PER_MINUTE = 60000.0;
+
     @Inject
     private TaskMissingDataManager taskMissingDataManager;
 
+    @Inject
+    private TaskConfiguration configuration;
+
+    @Inject
+    private TaskWorkers taskWorkers;
+
+    @Inject
+    private TaskRevisionWatermarkStore watermarkStore;
+
     @Override
     public String getType()
     {
@@ -76,32 +107,125 @@ public class TaskDataInferringJob
     protected void runInternal()
     {
         logger.info("Starting data inferring job.");
-        List<DocumentReference> owners = null;
-        progressManager.pushLevelProgress(2, this);
-        progressManager.startStep(this);
-        logger.info("Looking for pages that contain task macros with missing data.");
+        String checkpoint = getPreviousCheckpoint();
+        if (checkpoint != null) {
+            status.setCheckpoint(checkpoint);
+            logger.info("Resuming after [{}], the last page processed by the previous run.", checkpoint);
+        }
+        int workers = Math.max(1, configuration.getDataInferringWorkers());
+        ExecutorService pool = taskWorkers.newPool("TaskDataInferring", workers);
         try {
-            owners = taskMissingDataManager.getMissingDataTaskOwners();
+            if (processOwners(checkpoint, pool, workers)) {
+                status.setCheckpoint(null);
+            }
         } catch (TaskException taskException) {
             logger.warn(
                 "Failed to retrieve the pages holding tasks with incomplete data on the wiki [{}]. Cause: [{}].",
                 request.getProperty(TaskDataInferringJobRequest.PROPERTY_WIKI),
                 ExceptionUtils.getRootCauseMessage(taskException));
             return;
+        } catch (InterruptedException e) {
+            logger.warn("The data inferring job was interrupted.");
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            pool.shutdownNow();
         }
-        logger.info("Found [{}] pages that contain such macros.", owners.size());
-        progressManager.startStep(this);
-        progressManager.pushLevelProgress(owners.size(), this);
+        logger.info("Done.");
+    }
+
+    private String getPreviousCheckpoint()
+    {
+        JobStatus previousStatus = store.getJobStatus(request.getId());
+        if (previousStatus instanceof TaskDataInferringJobStatus) {
+            return ((TaskDataInferringJobStatus) previousStatus).getCheckpoint();
+        }
+        return null;
+    }
+
+    private boolean processOwners(String checkpoint, ExecutorService pool, int workers)
+        throws TaskException, InterruptedException
+    {
+        logger.info("Looking for pages that contain task macros with missing data.");
+        PaginatedReferences owners = taskMissingDataManager.getMissingDataTaskOwnersAfter(checkpoint, CHUNK_SIZE);
+        // When resuming, only the pages after the checkpoint are left to process.
+        int total = checkpoint == null ? owners.getTotal()
+            : taskMissingDataManager.countMissingDataTaskOwnersAfter(checkpoint);
+        logger.info("Found [{}] pages that contain such macros.", total);
+        if (owners.getPages().isEmpty()) {
+            return true;
+        }
+        logger.info("Inferring the missing data of the pages with [{}] threads.", workers);
+        progressManager.pushLevelProgress((total + CHUNK_SIZE - 1) / CHUNK_SIZE, this);
+        try {
+            // Whether all the pages processed so far were processed successfully.
+            boolean succeeded = true;
+            long start = System.currentTimeMillis();
+            int count = 0;
+            while (true) {
+                progressManager.startStep(this);
+                succeeded = inferMissingTaskData(owners.getPages(), pool) && succeeded;
+                watermarkStore.flush();
+                count += owners.getPages().size();
+                String next = owners.getNextCursor();
+                // A page that failed is processed again by the next run, so the checkpoint must not go past it.
+                if (succeeded && next != null) {
+                    status.setCheckpoint(next);
+                }
+                reportProgress(count, Math.max(total, count), start);
+                if (next == null) {
+                    return succeeded;
+                }
+                owners = taskMissingDataManager.getMissingDataTaskOwnersAfter(next, CHUNK_SIZE);
+            }
+        } finally {
+            progressManager.popLevelProgress(this);
+        }
+    }
+
+    private boolean inferMissingTaskData(List<DocumentReference> owners, ExecutorService pool)
+        throws InterruptedException
+    {
+        WikiReference wiki = request.getProperty(TaskDataInferringJobRequest.PROPERTY_WIKI);
+        List<Future<?>> results = new ArrayList<>(owners.size());
         for (DocumentReference owner : owners) {
-            progressManager.startStep(this);
-            try {
-                taskMissingDataManager.inferMissingTaskData(owner);
-                logger.info("Inferred data for the task macros inside [{}].", owner);
-            } catch (TaskException e) {
-                logger.warn("Failed to infer the missing data for the task macros in page [{}]. Cause [{}].", owner,
-                    ExceptionUtils.getRootCauseMessage(e));
+            results.add(pool.submit(() -> {
+                taskWorkers.runInContext(wiki.getName(),
+                    context -> taskMissingDataManager.inferMissingTaskData(owner));
+                return null;
+            }));
+        }
+        boolean succeeded = true;
+        progressManager.pushLevelProgress(owners.size(), this);
+        try {
+            for (int i = 0; i < owners.size(); i++) {
+                progressManager.startStep(this);
+                try {
+                    results.get(i).get();
+                    logger.info("Inferred data for the task macros inside [{}].", owners.get(i));
+                } catch (ExecutionException e) {
+                    succeeded = false;
+                    logger.warn("Failed to infer the missing data for the task macros in page [{}]. Cause [{}].",
+                        owners.get(i), ExceptionUtils.getRootCauseMessage(e));
+                }
             }
+        } finally {
+            progressManager.popLevelProgress(this);
         }
-        logger.info("Done.");
+        return succeeded;
+    }
+
+    private void reportProgress(int count, int total, long start)
+    {
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        double throughput = count * MILLIS_PER_MINUTE / elapsed;
+        long remainingTime = (long) ((total - count) * MILLIS_PER_MINUTE / throughput);
+        status.setThroughput(throughput);
+        status.setRemainingTime(remainingTime);
+        logger.info("Processed [{}] out of [{}] pages, [{}] pages per minute. Estimated remaining time: [{}].", count,
+            total, String.format("%.1f", throughput),
+            DurationFormatUtils.formatDurationWords(remainingTime, true, true));
+        // Save the checkpoint, so that the next run can resume from it even if this one doesn't end normally.
+        store.storeAsync(status);
     }
 }
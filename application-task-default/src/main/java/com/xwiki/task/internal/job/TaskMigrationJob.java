@@ -0,0 +1,95 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.job;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.annotation.InstantiationStrategy;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.job.AbstractJob;
+import org.xwiki.job.GroupedJob;
+import org.xwiki.job.Job;
+import org.xwiki.job.JobGroupPath;
+import org.xwiki.job.event.status.JobStatus;
+import org.xwiki.model.reference.WikiReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xwiki.task.internal.migration.TaskMigrationManager;
+import com.xwiki.task.job.TaskMigrationJobRequest;
+import com.xwiki.task.job.TaskMigrationJobStatus;
+
+/**
+ * A job that runs the pending one-time migrations of a wiki. The jobs of all the wikis are part of the same group so
+ * that they run one after the other.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component
+@InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
+@Named(TaskMigrationJob.JOBTYPE)
+public class TaskMigrationJob extends AbstractJob<TaskMigrationJobRequest, TaskMigrationJobStatus> implements GroupedJob
+{
+    /**
+     * The identifier of the job.
+     */
+    public static final String JOBTYPE = "taskmanager.migrations";
+
+    private static final JobGroupPath GROUP_PATH = new JobGroupPath(List.of("taskmanager", "migrations"));
+
+    @Inject
+    private TaskMigrationManager migrationManager;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Override
+    public String getType()
+    {
+        return JOBTYPE;
+    }
+
+    @Override
+    public JobGroupPath getGroupPath()
+    {
+        return GROUP_PATH;
+    }
+
+    @Override
+    protected TaskMigrationJobStatus createNewStatus(TaskMigrationJobRequest request)
+    {
+        Job currentJob = this.jobContext.getCurrentJob();
+        JobStatus currentJobStatus = currentJob != null ? currentJob.getStatus() : null;
+        return new TaskMigrationJobStatus(request, currentJobStatus, observationManager, loggerManager);
+    }
+
+    @Override
+    protected void runInternal()
+    {
+        WikiReference wiki = request.getProperty(TaskMigrationJobRequest.PROPERTY_WIKI);
+        contextProvider.get().setWikiId(wiki.getName());
+        migrationManager.migrate(wiki.getName());
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.job;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.annotation.InstantiationStrategy;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.job.AbstractJob;
+import org.xwiki.job.Job;
+import org.xwiki.job.event.status.JobStatus;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xwiki.task.TaskConfiguration;
+import com.xwiki.task.internal.AbstractTaskEventListener;
+import com.xwiki.task.internal.TaskFingerprintCache;
+import com.xwiki.task.internal.TaskPageSynchronizer;
+import com.xwiki.task.internal.TaskXDOMProcessor;
+import com.xwiki.task.job.TaskReconciliationJobRequest;
+import com.xwiki.task.job.TaskReconciliationJobStatus;
+import com.xwiki.task.model.Task;
+
+/**
+ * A job that synchronizes the task pages of the documents imported during a fold event. The documents are split in
+ * chunks that are processed in parallel. The task pages are saved one by one, each in its own store transaction.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component
+@InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
+@Named(TaskReconciliationJob.JOBTYPE)
+public class TaskReconciliationJob extends AbstractJob<TaskReconciliationJobRequest, TaskReconciliationJobStatus>
+{
+    /**
+     * The identifier of the job.
+     */
+    public static final String JOBTYPE = "taskmanager.reconciletaskpages";
+
+    @Inject
+    private TaskConfiguration configuration;
+
+    @Inject
+    private TaskXDOMProcessor taskXDOMProcessor;
+
+    @Inject
+    private TaskPageSynchronizer synchronizer;
+
+    @Inject
+    private TaskFingerprintCache fingerprintCache;
+
+    @Inject
+    private TaskWorkers taskWorkers;
+
+    @Override
+    public String getType()
+    {
+        return JOBTYPE;
+    }
+
+    @Override
+    protected TaskReconciliationJobStatus createNewStatus(TaskReconciliationJobRequest request)
+    {
+        Job currentJob = this.jobContext.getCurrentJob();
+        JobStatus currentJobStatus = currentJob != null ? currentJob.getStatus() : null;
+        return new TaskReconciliationJobStatus(request, currentJobStatus, observationManager, loggerManager);
+    }
+
+    @Override
+    protected void runInternal() throws Exception
+    {
+        List<DocumentReference> owners = request.getOwners();
+        int chunkSize = configuration.getBulkSyncChunkSize();
+        List<List<DocumentReference>> chunks = new ArrayList<>();
+        for (int i = 0; i < owners.size(); i += chunkSize) {
+            chunks.add(owners.subList(i, Math.min(i + chunkSize, owners.size())));
+        }
+        int workers = Math.max(1, Math.min(configuration.getBulkSyncWorkers(), chunks.size()));
+        logger.info("Synchronizing the task pages of [{}] imported pages with [{}] threads.", owners.size(), workers);
+        ExecutorService pool = taskWorkers.newPool("TaskReconciliation", workers);
+        progressManager.pushLevelProgress(chunks.size(), this);
+        try {
+            List<Future<Map<DocumentReference, Exception>>> results = new ArrayList<>(chunks.size());
+            for (List<DocumentReference> chunk : chunks) {
+                results.add(pool.submit(() -> reconcile(chunk)));
+            }
+            for (Future<Map<DocumentReference, Exception>> result : results) {
+                progressManager.startStep(this);
+                try {
+                    result.get().forEach((owner, e) -> logger.warn(
+                        "Failed to synchronize the task pages of [{}]. Cause: [{}].", owner,
+                        ExceptionUtils.getRootCauseMessage(e)));
+                } catch (ExecutionException e) {
+                    logger.warn("Failed to synchronize a chunk of task pages. Cause: [{}].",
+                        ExceptionUtils.getRootCauseMessage(e));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            progressManager.popLevelProgress(this);
+        }
+        logger.info("Done.");
+    }
+
+    /**
+     * Runs on a thread of the pool. The failures are returned rather than logged, so that they are logged by the job
+     * thread, which is the one bound to the log of the job.
+     */
+    private Map<DocumentReference, Exception> reconcile(List<DocumentReference> chunk) throws Exception
+    {
+        Map<DocumentReference, Exception> failures = new LinkedHashMap<>();
+        WikiReference wiki = request.getProperty(TaskReconciliationJobRequest.PROPERTY_WIKI);
+        taskWorkers.runInContext(wiki.getName(), context -> {
+            context.setUserReference(request.getUser());
+            context.put(AbstractTaskEventListener.TASK_UPDATE_FLAG, true);
+
+            for (DocumentReference owner : chunk) {
+                try {
+                    XWikiDocument document = context.getWiki().getDocument(owner, context);
+                    if (document.isNew()) {
+                        continue;
+                    }
+                    List<Task> tasks = taskXDOMProcessor.extract(document.getXDOM(), owner);
+                    fingerprintCache.put(owner, document.getContent(),
+                        synchronizer.syncTaskPages(document, context, tasks, Map.of()));
+                } catch (Exception e) {
+                    failures.put(owner, e);
+                }
+            }
+        });
+        return failures;
+    }
+}
@@ -100,7 +100,7 @@ public class TaskReferenceRelativizerJob
             .collect(Collectors.toList());
 
         observationManager.notify(new TaskRelativizingEvent(), this, docRefs);
-        referenceMigrator.relativizeReference(docRefs);
+        referenceMigrator.relativizeReferenceInChunks(docRefs);
         observationManager.notify(new TaskRelativizedEvent(), this, docRefs);
         logger.info("Done.");
     }
@@ -0,0 +1,72 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.listener;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.event.ComponentDescriptorAddedEvent;
+import org.xwiki.component.event.ComponentDescriptorRemovedEvent;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.renderer.BlockRenderer;
+
+import com.xwiki.task.internal.MacroLookupCache;
+
+/**
+ * Clears the {@link MacroLookupCache} when a macro or a block renderer is registered or unregistered.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component
+@Named(MacroLookupCacheListener.NAME)
+@Singleton
+public class MacroLookupCacheListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "MacroLookupCacheListener";
+
+    @Inject
+    private MacroLookupCache macroLookupCache;
+
+    /**
+     * Default constructor.
+     */
+    public MacroLookupCacheListener()
+    {
+        super(NAME, List.of(new ComponentDescriptorAddedEvent(Macro.class),
+            new ComponentDescriptorRemovedEvent(Macro.class), new ComponentDescriptorAddedEvent(BlockRenderer.class),
+            new ComponentDescriptorRemovedEvent(BlockRenderer.class)));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        macroLookupCache.clear();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.listener;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xwiki.task.internal.AbstractTaskEventListener;
+import com.xwiki.task.internal.TaskFingerprintCache;
+
+/**
+ * Evicts the owner of a task page from the {@link TaskFingerprintCache} when the task page is created, updated or
+ * deleted by anything other than the synchronization with the task macros.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component
+@Named(TaskFingerprintCacheListener.NAME)
+@Singleton
+public class TaskFingerprintCacheListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "TaskFingerprintCacheListener";
+
+    @Inject
+    private TaskFingerprintCache fingerprintCache;
+
+    /**
+     * Default constructor.
+     */
+    public TaskFingerprintCacheListener()
+    {
+        super(NAME, List.of(new DocumentCreatedEvent(), new DocumentUpdatedEvent(), new DocumentDeletedEvent()));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        // The task pages saved while synchronizing them with the macros are consistent with the cache.
+        if (((XWikiContext) data).get(AbstractTaskEventListener.TASK_UPDATE_FLAG) == null) {
+            XWikiDocument document = (XWikiDocument) source;
+            fingerprintCache.invalidateOwner(document);
+            fingerprintCache.invalidateOwner(document.getOriginalDocument());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.listener;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.event.ActionExecutedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xwiki.task.internal.migration.TaskMigrationManager;
+
+/**
+ * Schedules the pending task migrations of a wiki once the first request made on it has been handled.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component
+@Named(TaskMigrationListener.NAME)
+@Singleton
+public class TaskMigrationListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "TaskMigrationListener";
+
+    @Inject
+    private TaskMigrationManager migrationManager;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    /**
+     * Default constructor.
+     */
+    public TaskMigrationListener()
+    {
+        super(NAME, List.of(new ActionExecutedEvent()));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        migrationManager.schedule(contextProvider.get().getWikiId());
+    }
+}
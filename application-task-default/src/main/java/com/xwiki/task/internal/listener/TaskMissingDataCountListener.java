@@ -0,0 +1,84 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.listener;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xwiki.task.TaskMissingDataManager;
+import com.xwiki.task.internal.AbstractTaskEventListener;
+import com.xwiki.task.internal.DefaultTaskMissingDataManager;
+
+/**
+ * Makes the {@link DefaultTaskMissingDataManager} count again the pages with incomplete task macros of a wiki when a
+ * task page of that wiki is created, updated or deleted.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component
+@Named(TaskMissingDataCountListener.NAME)
+@Singleton
+public class TaskMissingDataCountListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "TaskMissingDataCountListener";
+
+    @Inject
+    private TaskMissingDataManager missingDataManager;
+
+    /**
+     * Default constructor.
+     */
+    public TaskMissingDataCountListener()
+    {
+        super(NAME, List.of(new DocumentCreatedEvent(), new DocumentUpdatedEvent(), new DocumentDeletedEvent()));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        XWikiDocument document = (XWikiDocument) source;
+        if (missingDataManager instanceof DefaultTaskMissingDataManager
+            && (isTaskPage(document) || isTaskPage(document.getOriginalDocument())))
+        {
+            ((DefaultTaskMissingDataManager) missingDataManager)
+                .invalidateCount(document.getDocumentReference().getWikiReference().getName());
+        }
+    }
+
+    private boolean isTaskPage(XWikiDocument document)
+    {
+        return document != null && document.getXObject(AbstractTaskEventListener.TASK_CLASS_REFERENCE) != null;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.listener;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.bridge.event.ApplicationReadyEvent;
+import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.bridge.event.WikiReadyEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xwiki.task.TaskException;
+import com.xwiki.task.TaskSyncQueue;
+
+/**
+ * Hands the documents whose task pages must be synchronized in the background to the {@link TaskSyncQueue} once
+ * they are saved, and resumes the queue of each wiki after a restart.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component
+@Named(TaskSyncQueueListener.NAME)
+@Singleton
+public class TaskSyncQueueListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "TaskSyncQueueListener";
+
+    /**
+     * The key of the context property that holds the documents being saved whose task pages will be synchronized in
+     * the background.
+     */
+    public static final String DEFERRED_OWNERS = "taskSyncDeferredOwners";
+
+    @Inject
+    private TaskSyncQueue syncQueue;
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Default constructor.
+     */
+    public TaskSyncQueueListener()
+    {
+        super(NAME, List.of(new DocumentCreatedEvent(), new DocumentUpdatedEvent(), new ApplicationReadyEvent(),
+            new WikiReadyEvent()));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (event instanceof ApplicationReadyEvent) {
+            resume(contextProvider.get().getMainXWiki());
+        } else if (event instanceof WikiReadyEvent) {
+            resume(((WikiReadyEvent) event).getWikiId());
+        } else {
+            DocumentReference owner = ((XWikiDocument) source).getDocumentReference();
+            Object deferredOwners = ((XWikiContext) data).get(DEFERRED_OWNERS);
+            if (deferredOwners instanceof Set && ((Set<?>) deferredOwners).remove(owner)) {
+                syncQueue.enqueue(owner);
+            }
+        }
+    }
+
+    private void resume(String wiki)
+    {
+        try {
+            syncQueue.getBacklog(wiki).forEach(syncQueue::enqueue);
+        } catch (TaskException e) {
+            logger.warn("Failed to resume the task synchronization queue of the wiki [{}]. Cause: [{}].", wiki,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+}
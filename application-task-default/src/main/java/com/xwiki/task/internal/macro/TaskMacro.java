@@ -51,8 +51,8 @@ import org.xwiki.xml.XMLUtils;
 import com.xwiki.task.MacroUtils;
 import com.xwiki.task.TaskConfiguration;
 import com.xwiki.task.TaskException;
-import com.xwiki.task.TaskManager;
 import com.xwiki.task.internal.TaskBlockProcessor;
+import com.xwiki.task.internal.TaskPrefetcher;
 import com.xwiki.task.internal.TaskReferenceUtils;
 import com.xwiki.task.macro.TaskMacroParameters;
 import com.xwiki.task.model.Task;
@@ -88,7 +88,7 @@ public class TaskMacro extends AbstractMacro<TaskMacroParameters>
     private SkinExtension jsx;
 
     @Inject
-    private TaskManager taskManager;
+    private TaskPrefetcher taskPrefetcher;
 
     @Inject
     private MacroUtils macroUtils;
@@ -172,7 +172,7 @@ public class TaskMacro extends AbstractMacro<TaskMacroParameters>
             || (parameters.isIdDisplayed() == null && taskConfiguration.isIdDisplayed()))
         {
             try {
-                Task task = taskManager.getTask(taskRef);
+                Task task = taskPrefetcher.getTask(taskRef, context);
                 taskInfoBlock.addChild(taskBlockProcessor.createTaskLinkBlock(taskId, task.getNumber()));
             } catch (TaskException ignored) {
                 // The task page not existing is a valid scenario (when the user just added the task macro in the
@@ -19,12 +19,13 @@
  */
 package com.xwiki.task.internal.macro;
 
-import java.text.SimpleDateFormat;
+import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -104,34 +105,47 @@ public class TasksMacro extends AbstractMacro<TasksMacroParameters>
     public List<Block> execute(TasksMacroParameters parameters, String content, MacroTransformationContext context)
         throws MacroExecutionException
     {
-        String ids = parameters.getIds();
-
         List<Block> blocks = new ArrayList<>();
-
-        SimpleDateFormat storageFormat = new SimpleDateFormat(dateMacroConfiguration.getStorageDateFormat());
         List<Block> errorList = new ArrayList<>();
-        boolean noViewRights = false;
-        for (String id : ids.split("\\s*,\\s*")) {
+
+        List<Integer> ids = new ArrayList<>();
+        for (String id : parameters.getIds().split("\\s*,\\s*")) {
             try {
-                Task task = taskManager.getTask(Integer.parseInt(id));
-                if (!authorizationManager.hasAccess(Right.VIEW, task.getReference())) {
-                    noViewRights = true;
-                    continue;
+                ids.add(Integer.parseInt(id));
+            } catch (NumberFormatException e) {
+                errorList.add(createErrorBlock(e));
+            }
+        }
+
+        Map<Integer, Task> tasks;
+        Map<Integer, Exception> lookupErrors = new HashMap<>();
+        try {
+            tasks = taskManager.getTasksById(ids);
+        } catch (TaskException e) {
+            // Degrade to one lookup per task so that a single faulty task doesn't hide the others.
+            tasks = getTasksOneByOne(ids, lookupErrors);
+        }
+
+        // Check the view right of every retrieved task in a single pass, before rendering anything.
+        Set<Integer> viewableIds = tasks.entrySet().stream()
+            .filter(entry -> authorizationManager.hasAccess(Right.VIEW, entry.getValue().getReference()))
+            .map(Map.Entry::getKey).collect(Collectors.toSet());
+        boolean noViewRights = viewableIds.size() < tasks.size();
+
+        DateFormat storageFormat = dateMacroConfiguration.getStorageDateFormatter();
+        for (Integer id : ids) {
+            Task task = tasks.get(id);
+            if (lookupErrors.containsKey(id)) {
+                errorList.add(createErrorBlock(lookupErrors.get(id)));
+            } else if (task == null) {
+                errorList.add(createErrorBlock(
+                    new TaskException(String.format("There is no task with the id [%d].", id))));
+            } else if (viewableIds.contains(id)) {
+                try {
+                    blocks.add(createTaskBlock(task, storageFormat, context));
+                } catch (TaskException | ComponentLookupException e) {
+                    errorList.add(createErrorBlock(e));
                 }
-                Map<String, String> taskParams = new HashMap<>();
-                taskParams.put(Task.REFERENCE, serializer.serialize(task.getReference()));
-                taskParams.put(Task.STATUS, task.getStatus());
-                taskParams.put(Task.REPORTER, serializer.serialize(task.getReporter()));
-                taskParams.put(Task.CREATE_DATE,
-                    task.getCreateDate() != null ? storageFormat.format(task.getCreateDate()) : "");
-                taskParams.put(Task.COMPLETE_DATE,
-                    task.getCompleteDate() != null ? storageFormat.format(task.getCompleteDate()) : "");
-
-                String taskContent = getMacroContent(task, storageFormat, context);
-                blocks.add(new MacroBlock("task", taskParams, taskContent, false));
-            } catch (NumberFormatException | TaskException | ComponentLookupException e) {
-                errorList.add(
-                    new MacroBlock("error", Collections.emptyMap(), ExceptionUtils.getRootCauseMessage(e), false));
             }
         }
         if (noViewRights) {
@@ -142,7 +156,41 @@ public class TasksMacro extends AbstractMacro<TasksMacroParameters>
         return blocks;
     }
 
-    private String getMacroContent(Task task, SimpleDateFormat storageFormat,
+    private Map<Integer, Task> getTasksOneByOne(List<Integer> ids, Map<Integer, Exception> lookupErrors)
+    {
+        Map<Integer, Task> tasks = new HashMap<>();
+        for (Integer id : ids) {
+            try {
+                tasks.put(id, taskManager.getTask(id));
+            } catch (TaskException e) {
+                lookupErrors.put(id, e);
+            }
+        }
+        return tasks;
+    }
+
+    private Block createTaskBlock(Task task, DateFormat storageFormat, MacroTransformationContext context)
+        throws TaskException, ComponentLookupException
+    {
+        Map<String, String> taskParams = new HashMap<>();
+        taskParams.put(Task.REFERENCE, serializer.serialize(task.getReference()));
+        taskParams.put(Task.STATUS, task.getStatus());
+        taskParams.put(Task.REPORTER, serializer.serialize(task.getReporter()));
+        taskParams.put(Task.CREATE_DATE,
+            task.getCreateDate() != null ? storageFormat.format(task.getCreateDate()) : "");
+        taskParams.put(Task.COMPLETE_DATE,
+            task.getCompleteDate() != null ? storageFormat.format(task.getCompleteDate()) : "");
+
+        String taskContent = getMacroContent(task, storageFormat, context);
+        return new MacroBlock("task", taskParams, taskContent, false);
+    }
+
+    private Block createErrorBlock(Exception e)
+    {
+        return new MacroBlock("error", Collections.emptyMap(), ExceptionUtils.getRootCauseMessage(e), false);
+    }
+
+    private String getMacroContent(Task task, DateFormat storageFormat,
         MacroTransformationContext context) throws TaskException, ComponentLookupException
     {
         String taskContent = task.getDescription();
@@ -17,9 +17,8 @@
  * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
-package com.xwiki.task.internal;
+package com.xwiki.task.internal.migration;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,33 +27,23 @@ import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
-import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.component.phase.Initializable;
-import org.xwiki.component.phase.InitializationException;
 import org.xwiki.configuration.ConfigurationSaveException;
 import org.xwiki.configuration.ConfigurationSource;
-import org.xwiki.observation.AbstractEventListener;
-import org.xwiki.observation.event.Event;
+
+import com.xwiki.task.TaskException;
 
 /**
- * Listener that assures the compatibility with older versions that upgrade. Migrates the date format preferences from
- * the task application configuration to the new Date macro configuration.
+ * Migrates the date format preferences from the task application configuration to the Date macro configuration.
  *
  * @version $Id$
- * @since 3.5.0
+ * @since 3.11.0
  */
 @Component
-@Named(DateFormatMigrationListener.ROLE_HINT)
+@Named("dateFormat")
 @Singleton
-public class DateFormatMigrationListener extends AbstractEventListener implements Initializable
+public class DateFormatMigration implements TaskMigration
 {
-    /**
-     * The role hint.
-     */
-    public static final String ROLE_HINT = "com.xwiki.task.internal.DateFormatMigrationListener";
-
     private static final String DATE_STORAGE_FORMAT_KEY = "storageDateFormat";
 
     private static final String DATE_DISPLAY_FORMAT_KEY = "displayDateFormat";
@@ -67,41 +56,11 @@ public class DateFormatMigrationListener extends AbstractEventListener implement
     @Named("datemacro")
     private Provider<ConfigurationSource> dateMacroConfigurationSourceProvider;
 
-    @Inject
-    private Logger logger;
-
-    /**
-     * Default constructor.
-     */
-    public DateFormatMigrationListener()
-    {
-        super(ROLE_HINT, Collections.emptyList());
-    }
-
-    @Override
-    public void initialize() throws InitializationException
-    {
-        // When this component is initialized (on instance start up / new version install) it should migrate the date
-        // format preferences from the task application configuration to the new Date macro configuration.
-        try {
-            maybeReplaceDateFormat();
-        } catch (Exception e) {
-            logger.warn("Failed to migrate the date configuration. Cause: [{}].",
-                ExceptionUtils.getRootCauseMessage(e));
-        }
-    }
-
     @Override
-    public void onEvent(Event event, Object source, Object data)
-    {
-        // Do nothing as the purpose of this class is fulfilled at initialization time.
-    }
-
-    private void maybeReplaceDateFormat() throws ConfigurationSaveException
+    public void migrate(String wiki) throws TaskException
     {
         Map<String, Object> properties = new HashMap<>();
         ConfigurationSource configurationSource = configurationSourceProvider.get();
-        ConfigurationSource dateMacroConfigurationSource = dateMacroConfigurationSourceProvider.get();
         String storageDateFormatProperty = configurationSource.getProperty(DATE_STORAGE_FORMAT_KEY);
         String displayDateFormatProperty = configurationSource.getProperty(DATE_DISPLAY_FORMAT_KEY);
         if (storageDateFormatProperty != null) {
@@ -110,9 +69,14 @@ public class DateFormatMigrationListener extends AbstractEventListener implement
         if (displayDateFormatProperty != null) {
             properties.put(DATE_DISPLAY_FORMAT_KEY, displayDateFormatProperty);
         }
-        if (!properties.isEmpty()) {
-            dateMacroConfigurationSource.setProperties(properties);
+        if (properties.isEmpty()) {
+            return;
+        }
+        try {
+            dateMacroConfigurationSourceProvider.get().setProperties(properties);
             clearOldDateFormatConfiguration(configurationSource);
+        } catch (ConfigurationSaveException e) {
+            throw new TaskException("Failed to migrate the date configuration.", e);
         }
     }
 
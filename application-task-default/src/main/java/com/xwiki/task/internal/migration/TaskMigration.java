@@ -0,0 +1,46 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.migration;
+
+import org.xwiki.component.annotation.Role;
+
+import com.xwiki.task.TaskException;
+
+/**
+ * A one-time migration of the data of a wiki, run in the background by {@link TaskMigrationManager} the first time the
+ * wiki is used after the application starts. The hint of the component identifies the migration and its completion
+ * is recorded per wiki by {@link TaskMigrationStore}.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Role
+public interface TaskMigration
+{
+    /**
+     * Migrate the data of a wiki. Migrations that process many documents should save their progress with
+     * {@link TaskMigrationStore#saveCursor(String, String, String)} so that an interrupted run resumes where it
+     * stopped.
+     *
+     * @param wiki the wiki to migrate, which is also the wiki of the context.
+     * @throws TaskException if the migration failed and has to be run again on the next start.
+     */
+    void migrate(String wiki) throws TaskException;
+}
@@ -0,0 +1,122 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.migration;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.job.JobException;
+import org.xwiki.job.JobExecutor;
+import org.xwiki.model.reference.WikiReference;
+
+import com.xwiki.task.TaskException;
+import com.xwiki.task.internal.job.TaskMigrationJob;
+import com.xwiki.task.job.TaskMigrationJobRequest;
+
+/**
+ * Runs the pending {@link TaskMigration}s of each wiki. The migrations of a wiki are scheduled in a background job the
+ * first time the wiki is used after the application starts, instead of delaying the start of the application.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskMigrationManager.class)
+@Singleton
+public class TaskMigrationManager
+{
+    @Inject
+    @Named("context")
+    private ComponentManager contextComponentManager;
+
+    @Inject
+    private JobExecutor jobExecutor;
+
+    @Inject
+    private TaskMigrationStore store;
+
+    @Inject
+    private Logger logger;
+
+    private final Set<String> scheduledWikis = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Start the job that runs the pending migrations of a wiki, unless it was already started since the application
+     * started.
+     *
+     * @param wiki a wiki.
+     */
+    public void schedule(String wiki)
+    {
+        if (!scheduledWikis.add(wiki)) {
+            return;
+        }
+        try {
+            jobExecutor.execute(TaskMigrationJob.JOBTYPE, new TaskMigrationJobRequest(new WikiReference(wiki)));
+        } catch (JobException e) {
+            scheduledWikis.remove(wiki);
+            logger.warn("Failed to start the task migrations of the wiki [{}]. Cause: [{}].", wiki,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    /**
+     * Run the migrations that haven't been completed yet on a wiki, in the order of their hints. A migration that
+     * fails is run again on the next start of the application.
+     *
+     * @param wiki the wiki to migrate, which is also the wiki of the context.
+     */
+    public void migrate(String wiki)
+    {
+        Set<String> completed;
+        Map<String, TaskMigration> migrations;
+        try {
+            completed = store.getCompleted(wiki);
+            migrations = new TreeMap<>(contextComponentManager.getInstanceMap(TaskMigration.class));
+        } catch (TaskException | ComponentLookupException e) {
+            logger.warn("Failed to retrieve the task migrations of the wiki [{}]. Cause: [{}].", wiki,
+                ExceptionUtils.getRootCauseMessage(e));
+            return;
+        }
+        for (Map.Entry<String, TaskMigration> migration : migrations.entrySet()) {
+            if (completed.contains(migration.getKey())) {
+                continue;
+            }
+            try {
+                logger.info("Running the task migration [{}] on the wiki [{}].", migration.getKey(), wiki);
+                migration.getValue().migrate(wiki);
+                store.markCompleted(wiki, migration.getKey());
+            } catch (TaskException e) {
+                logger.warn("The task migration [{}] failed on the wiki [{}]. Cause: [{}].", migration.getKey(), wiki,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.migration;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.model.reference.WikiReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xwiki.task.TaskException;
+
+/**
+ * Persists, in each wiki, the progress of the {@link TaskMigration}s. Each migration is stored once, as an object of
+ * the hidden {@code TaskManager.TaskMigrations} page. The cursors are saved without adding a revision to the history
+ * of the page, so that only the completion of each migration is recorded there.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component(roles = TaskMigrationStore.class)
+@Singleton
+public class TaskMigrationStore
+{
+    private static final List<String> SPACE = List.of("TaskManager");
+
+    private static final LocalDocumentReference MIGRATION_CLASS_REFERENCE =
+        new LocalDocumentReference(SPACE, "TaskMigrationClass");
+
+    private static final LocalDocumentReference MIGRATIONS_REFERENCE =
+        new LocalDocumentReference(SPACE, "TaskMigrations");
+
+    private static final String MIGRATION = "migration";
+
+    private static final String CURSOR = "cursor";
+
+    private static final String COMPLETED = "completed";
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    /**
+     * @param wiki a wiki.
+     * @return the migrations that have been completed on the given wiki.
+     * @throws TaskException if the progress of the migrations could not be retrieved.
+     */
+    public Set<String> getCompleted(String wiki) throws TaskException
+    {
+        XWikiContext context = contextProvider.get();
+        try {
+            return getMigrationsDocument(wiki, context).getXObjects(MIGRATION_CLASS_REFERENCE).stream()
+                .filter(migrationObject -> migrationObject != null && migrationObject.getIntValue(COMPLETED) == 1)
+                .map(migrationObject -> migrationObject.getStringValue(MIGRATION)).collect(Collectors.toSet());
+        } catch (XWikiException e) {
+            throw new TaskException(String.format("Failed to retrieve the task migrations of [%s].", wiki), e);
+        }
+    }
+
+    /**
+     * @param wiki a wiki.
+     * @param migration the hint of a migration.
+     * @return the cursor saved by the last run of the migration on the given wiki, or {@code null} if there is none.
+     * @throws TaskException if the progress of the migration could not be retrieved.
+     */
+    public String getCursor(String wiki, String migration) throws TaskException
+    {
+        XWikiContext context = contextProvider.get();
+        try {
+            BaseObject migrationObject = getMigrationsDocument(wiki, context)
+                .getXObject(MIGRATION_CLASS_REFERENCE, MIGRATION, migration, false);
+            String cursor = migrationObject != null ? migrationObject.getStringValue(CURSOR) : null;
+            return StringUtils.isEmpty(cursor) ? null : cursor;
+        } catch (XWikiException e) {
+            throw new TaskException(
+                String.format("Failed to retrieve the progress of the task migration [%s] of [%s].", migration, wiki),
+                e);
+        }
+    }
+
+    /**
+     * @param wiki a wiki.
+     * @param migration the hint of a migration.
+     * @param cursor the position up to which the migration processed the wiki.
+     * @throws TaskException if the progress of the migration could not be saved.
+     */
+    public void saveCursor(String wiki, String migration, String cursor) throws TaskException
+    {
+        update(wiki, migration, migrationObject -> migrationObject.setStringValue(CURSOR, cursor),
+            String.format("Task migration [%s] processed the pages up to [%s].", migration, cursor), false);
+    }
+
+    /**
+     * @param wiki a wiki.
+     * @param migration the hint of a migration that has been completed on the given wiki.
+     * @throws TaskException if the progress of the migration could not be saved.
+     */
+    public void markCompleted(String wiki, String migration) throws TaskException
+    {
+        update(wiki, migration, migrationObject -> migrationObject.setIntValue(COMPLETED, 1),
+            String.format("Task migration [%s] completed.", migration), true);
+    }
+
+    private synchronized void update(String wiki, String migration, Consumer<BaseObject> update, String comment,
+        boolean newRevision) throws TaskException
+    {
+        XWikiContext context = contextProvider.get();
+        try {
+            XWikiDocument migrationsDocument = getMigrationsDocument(wiki, context).clone();
+            BaseObject migrationObject =
+                migrationsDocument.getXObject(MIGRATION_CLASS_REFERENCE, MIGRATION, migration, false);
+            if (migrationObject == null) {
+                migrationObject = migrationsDocument.newXObject(MIGRATION_CLASS_REFERENCE, context);
+                migrationObject.setStringValue(MIGRATION, migration);
+            }
+            update.accept(migrationObject);
+            migrationsDocument.setHidden(true);
+            if (!newRevision && !migrationsDocument.isNew()) {
+                // The store only creates a new revision of the documents whose content or metadata is dirty.
+                migrationsDocument.setContentDirty(false);
+                migrationsDocument.setMetaDataDirty(false);
+            }
+            context.getWiki().saveDocument(migrationsDocument, comment, true, context);
+        } catch (XWikiException e) {
+            throw new TaskException(
+                String.format("Failed to save the progress of the task migration [%s] of [%s].", migration, wiki), e);
+        }
+    }
+
+    private XWikiDocument getMigrationsDocument(String wiki, XWikiContext context) throws XWikiException
+    {
+        return context.getWiki().getDocument(new DocumentReference(MIGRATIONS_REFERENCE, new WikiReference(wiki)),
+            context);
+    }
+}
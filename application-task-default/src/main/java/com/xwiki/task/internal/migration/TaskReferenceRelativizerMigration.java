@@ -0,0 +1,149 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task.internal.migration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xwiki.task.TaskException;
+import com.xwiki.task.event.TaskRelativizedEvent;
+import com.xwiki.task.event.TaskRelativizingEvent;
+import com.xwiki.task.internal.TaskMacroReferenceMigrator;
+
+/**
+ * Relativizes the references of the task macros. The pages that contain tasks are processed in chunks, in the order of
+ * their references, and the last processed page is saved after each chunk so that an interrupted migration resumes
+ * where it stopped.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component
+@Named("taskReferenceRelativizer")
+@Singleton
+public class TaskReferenceRelativizerMigration implements TaskMigration
+{
+    private static final String MIGRATION_ID = "taskReferenceRelativizer";
+
+    // Marks the wikis where the relativizer was executed before the migrations were tracked by TaskMigrationStore.
+    private static final LocalDocumentReference EXECUTED_DOC_FLAG = new LocalDocumentReference("TaskManager",
+        "ReferenceRelitivizerExecuted");
+
+    private static final int CHUNK_SIZE = 100;
+
+    private static final String AFTER = "after";
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private Provider<QueryManager> queryManagerProvider;
+
+    @Inject
+    private DocumentReferenceResolver<String> referenceResolver;
+
+    @Inject
+    private Provider<TaskMacroReferenceMigrator> referenceMigratorProvider;
+
+    @Inject
+    private Provider<ObservationManager> observationManagerProvider;
+
+    @Inject
+    private TaskMigrationStore store;
+
+    @Override
+    public void migrate(String wiki) throws TaskException
+    {
+        XWikiContext context = contextProvider.get();
+        try {
+            if (context.getWiki().exists(new DocumentReference(EXECUTED_DOC_FLAG, context.getWikiReference()),
+                context))
+            {
+                return;
+            }
+        } catch (XWikiException e) {
+            throw new TaskException(String.format("Failed to check whether [%s] exists or not.", EXECUTED_DOC_FLAG),
+                e);
+        }
+
+        String cursor = store.getCursor(wiki, MIGRATION_ID);
+        logger.info("Starting task reference relativizing on the wiki [{}].", wiki);
+        List<String> owners;
+        do {
+            try {
+                owners = getOwnersAfter(cursor);
+            } catch (QueryException e) {
+                // The query fails if the application is installed for the first time as there is no TaskManagerClass.
+                logger.debug("Failed to retrieve the pages that contain tasks. Cause: [{}].", e.getMessage());
+                return;
+            }
+            if (!owners.isEmpty()) {
+                relativize(owners);
+                cursor = owners.get(owners.size() - 1);
+                store.saveCursor(wiki, MIGRATION_ID, cursor);
+            }
+        } while (owners.size() == CHUNK_SIZE);
+        logger.info("Done.");
+    }
+
+    private List<String> getOwnersAfter(String cursor) throws QueryException
+    {
+        String statement = "SELECT DISTINCT task.owner "
+            + "FROM Document AS doc, doc.object(TaskManager.TaskManagerClass) AS task "
+            + "WHERE task.owner <> ''" + (cursor != null ? " AND task.owner > :after" : "")
+            + " ORDER BY task.owner";
+        Query query = queryManagerProvider.get().createQuery(statement, Query.XWQL).setLimit(CHUNK_SIZE);
+        if (cursor != null) {
+            query.bindValue(AFTER, cursor);
+        }
+        return query.execute();
+    }
+
+    private void relativize(List<String> owners)
+    {
+        List<DocumentReference> docRefs = owners.stream()
+            .map(result -> referenceResolver.resolve(result))
+            .collect(Collectors.toList());
+        ObservationManager observationManager = observationManagerProvider.get();
+        observationManager.notify(new TaskRelativizingEvent(), this, docRefs);
+        referenceMigratorProvider.get().relativizeReferenceInChunks(docRefs);
+        observationManager.notify(new TaskRelativizedEvent(), this, docRefs);
+    }
+}
@@ -19,6 +19,8 @@
  */
 package com.xwiki.task.internal.rest;
 
+import java.util.stream.Collectors;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -51,6 +53,8 @@ import com.xwiki.task.rest.TaskReferenceResource;
 @Singleton
 public class DefaultTaskReferenceResource extends XWikiResource implements TaskReferenceResource
 {
+    private static final int MAX_COUNT = 1000;
+
     @Inject
     private ContextualAuthorizationManager contextualAuthorizationManager;
 
@@ -67,6 +71,16 @@ public class DefaultTaskReferenceResource extends XWikiResource implements TaskR
     @Override
     public String generateId(String wikiName, String spaces, String pageName) throws XWikiRestException
     {
+        return generateIds(wikiName, spaces, pageName, 1);
+    }
+
+    @Override
+    public String generateIds(String wikiName, String spaces, String pageName, int count)
+        throws XWikiRestException
+    {
+        if (count < 1 || count > MAX_COUNT) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
         DocumentReference ownerRef = new DocumentReference(pageName, getSpaceReference(spaces, wikiName));
         DocumentReference docRef =
             new DocumentReference(pageName, new SpaceReference("Tasks", getSpaceReference(spaces, wikiName)));
@@ -74,8 +88,9 @@ public class DefaultTaskReferenceResource extends XWikiResource implements TaskR
             throw new WebApplicationException(Response.Status.FORBIDDEN);
         }
         try {
-            return serializer.serialize(pageReferenceResolver.resolve(taskReferenceGenerator.generate(docRef)),
-                ownerRef);
+            return taskReferenceGenerator.generate(docRef, count).stream()
+                .map(reference -> serializer.serialize(pageReferenceResolver.resolve(reference), ownerRef))
+                .collect(Collectors.joining("\n"));
         } catch (TaskException e) {
             throw new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR);
         }
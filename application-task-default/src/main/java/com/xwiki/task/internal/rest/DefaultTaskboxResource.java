@@ -110,7 +110,7 @@ public class DefaultTaskboxResource extends XWikiResource implements TaskboxReso
         XWikiDocument document)
     {
         AtomicReference<Boolean> contentChanged = new AtomicReference<>(false);
-        XDOM updatedXDOM = macroBlockFinder.find(docDOM, document.getSyntax(), (macroBlock -> {
+        XDOM updatedXDOM = macroBlockFinder.visit(docDOM, document.getSyntax(), ((macroBlock, modifications) -> {
             if (!"checkbox".equals(macroBlock.getId())) {
                 return MacroBlockFinder.Lookup.CONTINUE;
             }
@@ -123,6 +123,7 @@ public class DefaultTaskboxResource extends XWikiResource implements TaskboxReso
                 return MacroBlockFinder.Lookup.BREAK;
             }
             macroBlock.setParameter(PARAM_CHECKED, checked);
+            modifications.markModified();
             contentChanged.set(true);
 
             return MacroBlockFinder.Lookup.BREAK;
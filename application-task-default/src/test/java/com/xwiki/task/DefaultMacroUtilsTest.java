@@ -0,0 +1,89 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.macro.MacroContentParser;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.task.internal.DefaultMacroUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class DefaultMacroUtilsTest
+{
+    @InjectMockComponents
+    private DefaultMacroUtils macroUtils;
+
+    @MockComponent
+    private MacroContentParser contentParser;
+
+    @Test
+    void getMacroContentXDOMParsesOnce() throws Exception
+    {
+        when(this.contentParser.parse(eq("content"), any(MacroTransformationContext.class), anyBoolean(),
+            anyBoolean())).thenReturn(new XDOM(List.of(new WordBlock("content"))));
+        MacroBlock macro1 = new MacroBlock("info", Collections.emptyMap(), "content", false);
+        MacroBlock macro2 = new MacroBlock("box", Collections.emptyMap(), "content", false);
+
+        XDOM first = this.macroUtils.getMacroContentXDOM(macro1, Syntax.XWIKI_2_1);
+        first.getChildren().clear();
+        XDOM second = this.macroUtils.getMacroContentXDOM(macro2, Syntax.XWIKI_2_1);
+
+        assertNotSame(first, second);
+        assertEquals(List.of(new WordBlock("content")), second.getChildren());
+        verify(this.contentParser, times(1)).parse(eq("content"), any(MacroTransformationContext.class),
+            anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void getMacroContentXDOMDoesNotCacheLargeContents() throws Exception
+    {
+        String content = StringUtils.repeat('a', 10001);
+        when(this.contentParser.parse(eq(content), any(MacroTransformationContext.class), anyBoolean(),
+            anyBoolean())).thenReturn(new XDOM(List.of(new WordBlock(content))));
+        MacroBlock macro = new MacroBlock("info", Collections.emptyMap(), content, false);
+
+        this.macroUtils.getMacroContentXDOM(macro, Syntax.XWIKI_2_1);
+        this.macroUtils.getMacroContentXDOM(macro, Syntax.XWIKI_2_1);
+
+        verify(this.contentParser, times(2)).parse(eq(content), any(MacroTransformationContext.class),
+            anyBoolean(), anyBoolean());
+    }
+}
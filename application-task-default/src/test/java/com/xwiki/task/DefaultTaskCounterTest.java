@@ -34,10 +34,15 @@ import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 
 import com.xwiki.task.internal.DefaultTaskCounter;
+import com.xwiki.task.internal.TaskCounterStore;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ComponentTest
@@ -52,6 +57,9 @@ public class DefaultTaskCounterTest
     @MockComponent
     private ModelContext modelContext;
 
+    @MockComponent
+    private TaskCounterStore counterStore;
+
     @Mock
     private Query query;
 
@@ -63,6 +71,8 @@ public class DefaultTaskCounterTest
         when(this.modelContext.getCurrentEntityReference()).thenReturn(defaultWiki);
         when(this.queryManager.createQuery(any(String.class), eq(Query.XWQL))).thenReturn(this.query);
         when(this.query.setWiki(defaultWiki.getName())).thenReturn(this.query);
+        when(this.counterStore.reserveBlock(any(String.class), anyInt(), anyInt()))
+            .thenAnswer(invocation -> invocation.getArgument(1));
     }
 
     @Test
@@ -120,4 +130,44 @@ public class DefaultTaskCounterTest
 
         assertEquals(6, this.taskCounter.getNextNumber());
     }
+
+    @Test
+    void reserveContiguousRange() throws QueryException, TaskException
+    {
+        when(this.query.execute()).thenReturn(Collections.singletonList(2));
+
+        assertEquals(3, this.taskCounter.reserve(150));
+        assertEquals(153, this.taskCounter.getNextNumber());
+        verify(this.counterStore).reserveBlock(defaultWiki.getName(), 2, 150);
+    }
+
+    @Test
+    void getNextNumberSkipsNumbersReservedElsewhere() throws QueryException, TaskException
+    {
+        when(this.query.execute()).thenReturn(Collections.singletonList(2));
+        when(this.counterStore.reserveBlock(defaultWiki.getName(), 2, 100)).thenReturn(500);
+
+        assertEquals(501, this.taskCounter.getNextNumber());
+        assertEquals(502, this.taskCounter.getNextNumber());
+        verify(this.query, times(1)).execute();
+    }
+
+    @Test
+    void getNextNumberRereadsTheMaxNumberForEachBlock() throws QueryException, TaskException
+    {
+        when(this.query.execute()).thenReturn(Collections.singletonList(2));
+        assertEquals(3, this.taskCounter.reserve(100));
+
+        // Tasks with higher numbers were imported after the first block was reserved.
+        when(this.query.execute()).thenReturn(Collections.singletonList(300));
+
+        assertEquals(301, this.taskCounter.getNextNumber());
+        verify(this.counterStore).reserveBlock(defaultWiki.getName(), 300, 100);
+    }
+
+    @Test
+    void reserveWithInvalidCount()
+    {
+        assertThrows(TaskException.class, () -> this.taskCounter.reserve(0));
+    }
 }
@@ -21,6 +21,8 @@ package com.xwiki.task;
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import javax.inject.Named;
 import javax.inject.Provider;
@@ -47,11 +49,14 @@ import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xwiki.task.internal.DefaultTaskManager;
+import com.xwiki.task.internal.TaskPropertyReader;
 import com.xwiki.task.model.Task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -85,6 +90,13 @@ class DefaultTaskManagerTest
     @Named("compactwiki")
     private EntityReferenceSerializer<String> compactSerializer;
 
+    @MockComponent
+    private TaskPropertyReader taskPropertyReader;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<EntityReference> currentResolver;
+
     // TODO: Use MockitoOldCore instead of mocking each class from xwiki-oldcore.
     @Mock
     private XWikiContext context;
@@ -153,6 +165,31 @@ class DefaultTaskManagerTest
         assertEquals(TASK_0_DATE, task.getCreateDate());
     }
 
+    @Test
+    void getTaskByReferenceFromProperties() throws TaskException, QueryException, XWikiException
+    {
+        Task storedTask = new Task();
+        storedTask.setReference(documentReference);
+        when(this.currentResolver.resolve(documentReference)).thenReturn(documentReference);
+        when(this.taskPropertyReader.getTask(documentReference)).thenReturn(storedTask);
+
+        assertSame(storedTask, this.taskManager.getTask(documentReference));
+        verify(this.wiki, never()).getDocument(any(EntityReference.class), any(XWikiContext.class));
+    }
+
+    @Test
+    void getTaskByIdFromProperties() throws TaskException, QueryException
+    {
+        Task storedTask = new Task();
+        storedTask.setReference(documentReference);
+        storedTask.setNumber(TASK_0_NUMBER);
+        when(this.taskPropertyReader.getTasksByNumber(List.of(TASK_0_NUMBER), "xwiki"))
+            .thenReturn(Map.of(TASK_0_NUMBER, storedTask));
+
+        assertSame(storedTask, this.taskManager.getTask(TASK_0_NUMBER));
+        verify(this.queryManager, never()).createQuery(any(), any());
+    }
+
     @Test
     void getTaskById() throws TaskException, QueryException
     {
@@ -0,0 +1,152 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xwiki.task.internal.DefaultTaskMissingDataManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.AdditionalMatchers.and;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class DefaultTaskMissingDataManagerTest
+{
+    private static final DocumentReference PAGE_1 = new DocumentReference("xwiki", "Space", "Page1");
+
+    private static final DocumentReference PAGE_2 = new DocumentReference("xwiki", "Space", "Page2");
+
+    @InjectMockComponents
+    private DefaultTaskMissingDataManager manager;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    private DocumentReferenceResolver<String> resolver;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @Mock
+    private XWikiContext context;
+
+    @Mock
+    private Query firstPageQuery;
+
+    @Mock
+    private Query nextPageQuery;
+
+    @Mock
+    private Query countQuery;
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        when(this.contextProvider.get()).thenReturn(this.context);
+        when(this.context.getWikiId()).thenReturn("xwiki");
+        when(this.resolver.resolve("Space.Page1")).thenReturn(PAGE_1);
+        when(this.resolver.resolve("Space.Page2")).thenReturn(PAGE_2);
+        when(this.queryManager.createQuery(startsWith("SELECT count"), eq(Query.XWQL))).thenReturn(this.countQuery);
+        when(this.queryManager.createQuery(startsWith("SELECT DISTINCT"), eq(Query.XWQL)))
+            .thenReturn(this.firstPageQuery);
+        when(this.queryManager.createQuery(contains(":after"), eq(Query.XWQL))).thenReturn(this.nextPageQuery);
+        when(this.countQuery.execute()).thenReturn(List.of(2L));
+    }
+
+    @Test
+    void getMissingDataTaskOwnersAfter() throws Exception
+    {
+        when(this.firstPageQuery.execute()).thenReturn(List.of("Space.Page1"));
+        when(this.nextPageQuery.execute()).thenReturn(List.of("Space.Page2"));
+
+        PaginatedReferences firstPage = this.manager.getMissingDataTaskOwnersAfter("", 1);
+        assertEquals(List.of(PAGE_1), firstPage.getPages());
+        assertEquals("Space.Page1", firstPage.getNextCursor());
+        assertEquals(2, firstPage.getTotal());
+
+        PaginatedReferences nextPage = this.manager.getMissingDataTaskOwnersAfter(firstPage.getNextCursor(), 2);
+        assertEquals(List.of(PAGE_2), nextPage.getPages());
+        assertNull(nextPage.getNextCursor());
+        assertEquals(2, nextPage.getTotal());
+
+        verify(this.nextPageQuery).bindValue("after", "Space.Page1");
+        verify(this.firstPageQuery, never()).setOffset(1);
+        // The total is computed only once.
+        verify(this.countQuery, times(1)).execute();
+    }
+
+    @Test
+    void countMissingDataTaskOwnersAfter() throws Exception
+    {
+        Query remainingCountQuery = mock(Query.class);
+        when(this.queryManager.createQuery(and(startsWith("SELECT count"), contains(":after")), eq(Query.XWQL)))
+            .thenReturn(remainingCountQuery);
+        when(remainingCountQuery.execute()).thenReturn(List.of(1L));
+
+        assertEquals(2, this.manager.countMissingDataTaskOwnersAfter(null));
+        assertEquals(1, this.manager.countMissingDataTaskOwnersAfter("Space.Page1"));
+
+        verify(remainingCountQuery).bindValue("after", "Space.Page1");
+    }
+
+    @Test
+    void forEachOwner() throws Exception
+    {
+        List<String> firstChunk = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            firstChunk.add("Space.Page1");
+        }
+        when(this.firstPageQuery.execute()).thenReturn(firstChunk);
+        when(this.nextPageQuery.execute()).thenReturn(List.of("Space.Page2"));
+
+        List<DocumentReference> owners = new ArrayList<>();
+        this.manager.forEachOwner(owners::add);
+
+        assertEquals(101, owners.size());
+        assertEquals(PAGE_2, owners.get(100));
+        verify(this.firstPageQuery).setLimit(100);
+        verify(this.nextPageQuery).bindValue("after", "Space.Page1");
+    }
+}
@@ -19,6 +19,10 @@
  */
 package com.xwiki.task;
 
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Named;
 import javax.inject.Provider;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +30,10 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
@@ -36,6 +44,11 @@ import com.xwiki.task.internal.DefaultTaskReferenceGenerator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ComponentTest
@@ -50,6 +63,16 @@ class DefaultTaskReferenceGeneratorTest
     @MockComponent
     private DocumentAccessBridge documentAccessBridge;
 
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Mock
+    private Query query;
+
     @Mock
     private XWikiContext context;
 
@@ -61,8 +84,15 @@ class DefaultTaskReferenceGeneratorTest
     private final DocumentReference userReference = new DocumentReference("xwiki", "XWiki", "User");
 
     @BeforeEach
-    public void setup()
+    public void setup() throws QueryException
     {
+        when(this.localSerializer.serialize(documentReference.getLastSpaceReference())).thenReturn("XWiki");
+        when(this.queryManager.createQuery(any(String.class), eq(Query.HQL))).thenReturn(this.query);
+        when(this.query.setWiki("xwiki")).thenReturn(this.query);
+        when(this.query.bindValue(any(String.class), any())).thenReturn(this.query);
+        when(this.query.setLimit(anyInt())).thenReturn(this.query);
+        when(this.query.setOffset(anyInt())).thenReturn(this.query);
+        when(this.query.execute()).thenReturn(Collections.emptyList());
         when(this.contextProvider.get()).thenReturn(this.context);
         when(this.context.getUserReference()).thenReturn(this.userReference);
         when(this.context.getWiki()).thenReturn(this.wiki);
@@ -93,4 +123,26 @@ class DefaultTaskReferenceGeneratorTest
         assertEquals(new DocumentReference("Task_2", documentReference.getLastSpaceReference()),
             generatedReference);
     }
+
+    @Test
+    void generateReferenceAfterHighestExistingTask() throws Exception
+    {
+        Query nestedQuery = mock(Query.class);
+        when(this.queryManager.createQuery(contains("doc.space like"), eq(Query.HQL))).thenReturn(nestedQuery);
+        when(nestedQuery.bindValue(any(String.class), any())).thenReturn(nestedQuery);
+        when(nestedQuery.setWiki("xwiki")).thenReturn(nestedQuery);
+        when(nestedQuery.setLimit(anyInt())).thenReturn(nestedQuery);
+        when(nestedQuery.setOffset(anyInt())).thenReturn(nestedQuery);
+        when(nestedQuery.execute()).thenReturn(List.of("XWiki.Task_12"));
+        when(this.documentAccessBridge.exists(any(DocumentReference.class))).thenReturn(false);
+        when(this.query.execute()).thenReturn(List.of("Task_Other", "Task_7"));
+
+        assertEquals(new DocumentReference("Task_13", documentReference.getLastSpaceReference()),
+            this.referenceGenerator.generate(documentReference));
+        assertEquals(new DocumentReference("Task_14", documentReference.getLastSpaceReference()),
+            this.referenceGenerator.generate(documentReference));
+        verify(this.query).execute();
+        verify(this.query).bindValue("prefix", "Task!_%");
+        verify(nestedQuery).bindValue("prefix", "XWiki.Task!_%");
+    }
 }
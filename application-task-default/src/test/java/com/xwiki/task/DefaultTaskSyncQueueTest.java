@@ -0,0 +1,110 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xwiki.task.internal.DefaultTaskSyncQueue;
+import com.xwiki.task.internal.TaskSyncQueueStore;
+import com.xwiki.task.internal.TaskWorkers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+@ComponentList({ TaskWorkers.class })
+class DefaultTaskSyncQueueTest
+{
+    @InjectMockComponents
+    private DefaultTaskSyncQueue syncQueue;
+
+    @MockComponent
+    private TaskConfiguration configuration;
+
+    @MockComponent
+    private TaskSyncQueueStore store;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    private Execution execution;
+
+    private final XWikiContext context = new XWikiContext();
+
+    @BeforeEach
+    void setup()
+    {
+        when(this.contextProvider.get()).thenReturn(this.context);
+    }
+
+    @Test
+    void isAsynchronous()
+    {
+        assertFalse(this.syncQueue.isAsynchronous());
+
+        when(this.configuration.isAsyncTaskPageSyncEnabled()).thenReturn(true);
+        assertTrue(this.syncQueue.isAsynchronous());
+
+        this.syncQueue.setSynchronous(true);
+        assertFalse(this.syncQueue.isAsynchronous());
+
+        this.syncQueue.setSynchronous(false);
+        assertTrue(this.syncQueue.isAsynchronous());
+    }
+
+    @Test
+    void enqueuedOwnersArePersistedInTheBackground() throws TaskException
+    {
+        DocumentReference owner = new DocumentReference("xwiki", "Space", "Page");
+
+        this.syncQueue.enqueue(owner);
+
+        verify(this.store, never()).update(any(), any(), any());
+        assertEquals(List.of(owner), this.syncQueue.getBacklog("xwiki"));
+
+        // The synchronization fails without a wiki, so the owner is still waiting when the queue is disposed.
+        this.syncQueue.dispose();
+
+        verify(this.store).update("xwiki", Set.of(owner), Set.of());
+    }
+}
@@ -21,6 +21,9 @@
 package com.xwiki.task;
 
 import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.inject.Provider;
 
@@ -129,8 +132,28 @@ public class IntegrationTests
         when(taskManager.getTask(3)).thenReturn(task3);
         when(taskManager.getTask(2)).thenReturn(task2);
         when(taskManager.getTask(1)).thenReturn(task);
+        Map<Integer, Task> tasksById = Map.of(1, task, 2, task2, 3, task3);
+        when(taskManager.getTasksById(any())).thenAnswer(invocation -> {
+            Map<Integer, Task> result = new LinkedHashMap<>();
+            for (Integer id : invocation.<Collection<Integer>>getArgument(0)) {
+                if (tasksById.containsKey(id)) {
+                    result.put(id, tasksById.get(id));
+                }
+            }
+            return result;
+        });
         when(taskManager.getTask((EntityReference) ref1)).thenReturn(task);
         when(taskManager.getTask((EntityReference) ref2)).thenReturn(task2);
+        Map<EntityReference, Task> tasksByReference = Map.of(ref1, task, ref2, task2);
+        when(taskManager.getTasks(any())).thenAnswer(invocation -> {
+            Map<EntityReference, Task> result = new LinkedHashMap<>();
+            for (EntityReference reference : invocation.<Collection<EntityReference>>getArgument(0)) {
+                if (tasksByReference.containsKey(reference)) {
+                    result.put(reference, tasksByReference.get(reference));
+                }
+            }
+            return result;
+        });
         when(context.getUserReference()).thenReturn(user);
         when(authorizationManager.hasAccess(Right.VIEW, ref1)).thenReturn(true);
         when(authorizationManager.hasAccess(Right.VIEW, ref2)).thenReturn(true);
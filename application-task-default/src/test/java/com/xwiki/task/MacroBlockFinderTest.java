@@ -0,0 +1,126 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.task.internal.MacroBlockFinder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class MacroBlockFinderTest
+{
+    @InjectMockComponents
+    private MacroBlockFinder blockFinder;
+
+    @MockComponent
+    private MacroUtils macroUtils;
+
+    private final MacroBlock task1 = new MacroBlock("task", Collections.emptyMap(), "Task 1", false);
+
+    private final MacroBlock task2 = new MacroBlock("task", Collections.emptyMap(), "Task 2", false);
+
+    private final MacroBlock box = new MacroBlock("box", Collections.emptyMap(), "{{task}}Task 1{{/task}}", false);
+
+    private XDOM content;
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        when(this.macroUtils.isMacroContentParsable("box")).thenReturn(true);
+        when(this.macroUtils.getMacroContentXDOM(this.box, Syntax.XWIKI_2_1))
+            .thenReturn(new XDOM(List.of(this.task1)));
+        when(this.macroUtils.renderMacroContent(anyList(), eq(Syntax.XWIKI_2_1))).thenReturn("rendered");
+        this.content = new XDOM(List.of(this.box, this.task2));
+    }
+
+    @Test
+    void visitWithoutModificationsDoesNotRender() throws Exception
+    {
+        List<MacroBlock> visited = new ArrayList<>();
+        this.blockFinder.visit(this.content, Syntax.XWIKI_2_1, (macro, modifications) -> {
+            visited.add(macro);
+            return MacroBlockFinder.Lookup.CONTINUE;
+        });
+
+        assertEquals(List.of(this.box, this.task1, this.task2), visited);
+        verify(this.macroUtils, never()).renderMacroContent(anyList(), any());
+        verify(this.macroUtils, never()).updateMacroContent(any(), any(), anyInt());
+    }
+
+    @Test
+    void visitStopsOnNestedBreakAndUpdatesModifiedContent() throws Exception
+    {
+        List<MacroBlock> visited = new ArrayList<>();
+        this.blockFinder.visit(this.content, Syntax.XWIKI_2_1, (macro, modifications) -> {
+            visited.add(macro);
+            if (macro == this.task1) {
+                modifications.markModified();
+                return MacroBlockFinder.Lookup.BREAK;
+            }
+            return MacroBlockFinder.Lookup.CONTINUE;
+        });
+
+        assertEquals(List.of(this.box, this.task1), visited);
+        verify(this.macroUtils).updateMacroContent(this.box, "rendered", 0);
+    }
+
+    @Test
+    void findUpdatesEveryVisitedContent() throws Exception
+    {
+        this.blockFinder.find(this.content, Syntax.XWIKI_2_1, macro -> MacroBlockFinder.Lookup.CONTINUE);
+
+        verify(this.macroUtils).updateMacroContent(this.box, "rendered", 0);
+        verify(this.macroUtils, never()).updateMacroContent(eq(this.task2), any(), anyInt());
+    }
+
+    @Test
+    void visitSkipsMacroContent() throws Exception
+    {
+        List<Block> visited = new ArrayList<>();
+        this.blockFinder.visit(this.content, Syntax.XWIKI_2_1, (macro, modifications) -> {
+            visited.add(macro);
+            return MacroBlockFinder.Lookup.SKIP;
+        });
+
+        assertEquals(List.of(this.box, this.task2), visited);
+        verify(this.macroUtils, never()).getMacroContentXDOM(any(), any());
+    }
+}
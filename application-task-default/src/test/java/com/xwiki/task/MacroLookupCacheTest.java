@@ -0,0 +1,113 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroId;
+import org.xwiki.rendering.macro.MacroLookupException;
+import org.xwiki.rendering.macro.MacroManager;
+import org.xwiki.rendering.macro.descriptor.ContentDescriptor;
+import org.xwiki.rendering.macro.descriptor.MacroDescriptor;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xwiki.task.internal.MacroLookupCache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class MacroLookupCacheTest
+{
+    @InjectMockComponents
+    private MacroLookupCache macroLookupCache;
+
+    @MockComponent
+    private MacroManager macroManager;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @Mock
+    private XWikiContext context;
+
+    @BeforeEach
+    void setup()
+    {
+        when(this.contextProvider.get()).thenReturn(this.context);
+        when(this.context.getWikiId()).thenReturn("xwiki");
+    }
+
+    @Test
+    void isMacroContentParsableLooksUpOnce() throws Exception
+    {
+        Macro<?> macro = mock(Macro.class);
+        MacroDescriptor descriptor = mock(MacroDescriptor.class);
+        ContentDescriptor contentDescriptor = mock(ContentDescriptor.class);
+        doReturn(macro).when(this.macroManager).getMacro(new MacroId("info"));
+        when(macro.getDescriptor()).thenReturn(descriptor);
+        when(descriptor.getContentDescriptor()).thenReturn(contentDescriptor);
+        when(contentDescriptor.getType()).thenReturn(Block.LIST_BLOCK_TYPE);
+
+        assertTrue(this.macroLookupCache.isMacroContentParsable("info"));
+        assertTrue(this.macroLookupCache.isMacroContentParsable("info"));
+        verify(this.macroManager, times(1)).getMacro(new MacroId("info"));
+
+        this.macroLookupCache.clear();
+        assertTrue(this.macroLookupCache.isMacroContentParsable("info"));
+        verify(this.macroManager, times(2)).getMacro(new MacroId("info"));
+    }
+
+    @Test
+    void isMacroContentParsableIsCachedPerWiki() throws Exception
+    {
+        Macro<?> macro = mock(Macro.class);
+        MacroDescriptor descriptor = mock(MacroDescriptor.class);
+        ContentDescriptor contentDescriptor = mock(ContentDescriptor.class);
+        doReturn(macro).when(this.macroManager).getMacro(new MacroId("wikiMacro"));
+        when(macro.getDescriptor()).thenReturn(descriptor);
+        when(descriptor.getContentDescriptor()).thenReturn(contentDescriptor);
+        when(contentDescriptor.getType()).thenReturn(Block.LIST_BLOCK_TYPE);
+
+        assertTrue(this.macroLookupCache.isMacroContentParsable("wikiMacro"));
+
+        // The macro is not registered in the other wiki.
+        when(this.context.getWikiId()).thenReturn("subwiki");
+        when(this.macroManager.getMacro(new MacroId("wikiMacro"))).thenThrow(MacroLookupException.class);
+
+        assertFalse(this.macroLookupCache.isMacroContentParsable("wikiMacro"));
+
+        when(this.context.getWikiId()).thenReturn("xwiki");
+        assertTrue(this.macroLookupCache.isMacroContentParsable("wikiMacro"));
+    }
+}
@@ -130,6 +130,7 @@ class TaskDatesInitializerTest
         when(this.doc.getAuthorReference()).thenReturn(this.userReference);
         when(this.serializer.serialize(this.userReference)).thenReturn(this.serializedDocRef);
         when(this.configuration.getStorageDateFormat()).thenReturn(DATE_FORMAT);
+        when(this.configuration.getStorageDateFormatter()).thenReturn(new SimpleDateFormat(DATE_FORMAT));
     }
 
     @Test
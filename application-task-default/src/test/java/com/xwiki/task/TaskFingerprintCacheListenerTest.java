@@ -0,0 +1,86 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xwiki.task.internal.AbstractTaskEventListener;
+import com.xwiki.task.internal.TaskFingerprintCache;
+import com.xwiki.task.internal.listener.TaskFingerprintCacheListener;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class TaskFingerprintCacheListenerTest
+{
+    private static final DocumentReference TASK_DOCUMENT = new DocumentReference("xwiki", "Space", "Task_1");
+
+    @InjectMockComponents
+    private TaskFingerprintCacheListener listener;
+
+    @MockComponent
+    private TaskFingerprintCache fingerprintCache;
+
+    @Mock
+    private XWikiContext context;
+
+    @Mock
+    private XWikiDocument taskDocument;
+
+    @Mock
+    private XWikiDocument originalDocument;
+
+    @BeforeEach
+    void setup()
+    {
+        when(this.taskDocument.getOriginalDocument()).thenReturn(this.originalDocument);
+    }
+
+    @Test
+    void editingATaskPageEvictsItsOwner()
+    {
+        this.listener.onEvent(new DocumentUpdatedEvent(TASK_DOCUMENT), this.taskDocument, this.context);
+
+        verify(this.fingerprintCache).invalidateOwner(this.taskDocument);
+        verify(this.fingerprintCache).invalidateOwner(this.originalDocument);
+    }
+
+    @Test
+    void synchronizingATaskPageKeepsItsOwner()
+    {
+        when(this.context.get(AbstractTaskEventListener.TASK_UPDATE_FLAG)).thenReturn(true);
+
+        this.listener.onEvent(new DocumentUpdatedEvent(TASK_DOCUMENT), this.taskDocument, this.context);
+
+        verify(this.fingerprintCache, never()).invalidateOwner(any());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xwiki.task.internal.AbstractTaskEventListener;
+import com.xwiki.task.internal.TaskFingerprintCache;
+import com.xwiki.task.model.Task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class TaskFingerprintCacheTest
+{
+    private static final String CONTENT = "{{task reference=\"Task_1\"}}Hello{{/task}}";
+
+    private static final DocumentReference OWNER = new DocumentReference("xwiki", "Space", "Page");
+
+    private static final DocumentReference TASK_DOCUMENT = new DocumentReference("xwiki", "Space", "Task_1");
+
+    private static final Map<DocumentReference, String> FINGERPRINTS = Map.of(TASK_DOCUMENT, "fingerprint");
+
+    @InjectMockComponents
+    private TaskFingerprintCache fingerprintCache;
+
+    @MockComponent
+    private DocumentReferenceResolver<String> resolver;
+
+    @Mock
+    private XWikiDocument taskDocument;
+
+    @Mock
+    private BaseObject taskObject;
+
+    @BeforeEach
+    void setup()
+    {
+        when(this.taskDocument.getDocumentReference()).thenReturn(TASK_DOCUMENT);
+        when(this.taskObject.getStringValue(Task.OWNER)).thenReturn("Page");
+        when(this.resolver.resolve("Page", TASK_DOCUMENT)).thenReturn(OWNER);
+        this.fingerprintCache.put(OWNER, CONTENT, FINGERPRINTS);
+    }
+
+    @Test
+    void getReturnsTheFingerprintsOfTheSameContent()
+    {
+        assertEquals(FINGERPRINTS, this.fingerprintCache.get(OWNER, CONTENT));
+        assertNull(this.fingerprintCache.get(OWNER, CONTENT + "\n"));
+    }
+
+    @Test
+    void invalidateOwnerEvictsTheOwnerOfATaskPage()
+    {
+        when(this.taskDocument.getXObject(AbstractTaskEventListener.TASK_CLASS_REFERENCE))
+            .thenReturn(this.taskObject);
+
+        this.fingerprintCache.invalidateOwner(this.taskDocument);
+
+        assertNull(this.fingerprintCache.get(OWNER, CONTENT));
+    }
+
+    @Test
+    void invalidateOwnerIgnoresTheOtherPages()
+    {
+        this.fingerprintCache.invalidateOwner(this.taskDocument);
+        this.fingerprintCache.invalidateOwner(null);
+
+        assertEquals(FINGERPRINTS, this.fingerprintCache.get(OWNER, CONTENT));
+    }
+
+    @Test
+    void fingerprintDistinguishesTasksWithCollidingHashCodes()
+    {
+        Task task = new Task();
+        task.setName("Aa");
+        Task renamedTask = new Task();
+        renamedTask.setName("BB");
+
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(TaskFingerprintCache.fingerprint(task), TaskFingerprintCache.fingerprint(renamedTask));
+        assertEquals(TaskFingerprintCache.fingerprint(task), TaskFingerprintCache.fingerprint(task));
+    }
+}
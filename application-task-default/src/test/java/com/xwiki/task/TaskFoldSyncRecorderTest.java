@@ -0,0 +1,126 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.xwiki.job.Job;
+import org.xwiki.job.JobContext;
+import org.xwiki.job.JobException;
+import org.xwiki.job.JobExecutor;
+import org.xwiki.job.Request;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xwiki.task.internal.TaskFoldSyncRecorder;
+import com.xwiki.task.internal.job.TaskReconciliationJob;
+import com.xwiki.task.job.TaskReconciliationJobRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class TaskFoldSyncRecorderTest
+{
+    private static final DocumentReference USER = new DocumentReference("xwiki", "XWiki", "Importer");
+
+    private static final DocumentReference PAGE_1 = new DocumentReference("xwiki", "Space", "Page1");
+
+    private static final DocumentReference PAGE_2 = new DocumentReference("xwiki", "Space", "Page2");
+
+    @InjectMockComponents
+    private TaskFoldSyncRecorder recorder;
+
+    @MockComponent
+    private TaskConfiguration configuration;
+
+    @MockComponent
+    private JobContext jobContext;
+
+    @MockComponent
+    private JobExecutor jobExecutor;
+
+    @Mock
+    private Job importJob;
+
+    @Mock
+    private XWikiContext context;
+
+    @BeforeEach
+    void setup()
+    {
+        when(this.jobContext.getCurrentJob()).thenReturn(this.importJob);
+        when(this.context.getUserReference()).thenReturn(USER);
+    }
+
+    @Test
+    void isEnabled()
+    {
+        assertFalse(this.recorder.isEnabled());
+
+        when(this.configuration.getBulkSyncWorkers()).thenReturn(4);
+        assertTrue(this.recorder.isEnabled());
+
+        when(this.jobContext.getCurrentJob()).thenReturn(null);
+        assertFalse(this.recorder.isEnabled());
+    }
+
+    @Test
+    void completeStartsReconciliationJob() throws JobException
+    {
+        this.recorder.record(PAGE_1, this.context);
+        this.recorder.record(PAGE_2, this.context);
+        this.recorder.record(PAGE_1, this.context);
+
+        this.recorder.complete(this.importJob);
+
+        ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request.class);
+        verify(this.jobExecutor).execute(eq(TaskReconciliationJob.JOBTYPE), requestCaptor.capture());
+        TaskReconciliationJobRequest request = (TaskReconciliationJobRequest) requestCaptor.getValue();
+        assertEquals(List.of(PAGE_1, PAGE_2), request.getOwners());
+        assertEquals(USER, request.getUser());
+
+        // The recorded documents are handed over only once.
+        this.recorder.complete(this.importJob);
+        verify(this.jobExecutor).execute(anyString(), any());
+    }
+
+    @Test
+    void completeWithoutRecordedDocuments() throws JobException
+    {
+        this.recorder.complete(this.importJob);
+
+        verify(this.jobExecutor, never()).execute(anyString(), any());
+    }
+}
@@ -21,8 +21,8 @@ package com.xwiki.task;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 
 import javax.inject.Named;
 import javax.inject.Provider;
@@ -32,14 +32,19 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.model.reference.PageReference;
 import org.xwiki.model.reference.PageReferenceResolver;
+import org.xwiki.observation.ObservationManager;
 import org.xwiki.rendering.block.MacroBlock;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
@@ -48,13 +53,19 @@ import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xwiki.task.event.TaskRelativizingProgressEvent;
 import com.xwiki.task.internal.MacroBlockFinder;
 import com.xwiki.task.internal.TaskMacroReferenceMigrator;
+import com.xwiki.task.internal.TaskMacroStreamExtractor;
+import com.xwiki.task.internal.TaskWorkers;
 import com.xwiki.task.model.Task;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -78,8 +89,26 @@ public class TaskMacroReferenceMigratorTest
     @MockComponent
     private PageReferenceResolver<EntityReference> pageReferenceResolver;
 
+    @MockComponent
+    private TaskMacroStreamExtractor streamExtractor;
+
+    @MockComponent
+    private TaskConfiguration configuration;
+
+    @MockComponent
+    private Provider<ObservationManager> observationManagerProvider;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    private Execution execution;
+
+    @Mock
+    private ObservationManager observationManager;
+
     @Captor
-    private ArgumentCaptor<Function<MacroBlock, MacroBlockFinder.Lookup>> visitorLambdaCaptor;
+    private ArgumentCaptor<MacroBlockFinder.MacroBlockVisitor> visitorLambdaCaptor;
 
     @Mock
     private XWikiContext context;
@@ -87,6 +116,9 @@ public class TaskMacroReferenceMigratorTest
     @Mock
     private XWikiDocument document;
 
+    @Mock
+    private XWikiDocument documentClone;
+
     @Mock
     private XWiki xWiki;
 
@@ -106,14 +138,18 @@ public class TaskMacroReferenceMigratorTest
         when(contextProvider.get()).thenReturn(context);
         when(context.getWiki()).thenReturn(xWiki);
         when(xWiki.getDocument(documentReference, context)).thenReturn(document);
+        when(document.clone()).thenReturn(documentClone);
         when(document.getXDOM()).thenReturn(xdom);
         when(document.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+        when(document.getContent()).thenReturn("{{task reference=\"Task/Page/Tasks/Task_0\"/}}");
         Map<String, String> params = new HashMap<>();
         params.put(Task.REFERENCE, "Task/Page/Tasks/Task_0");
         when(this.taskMacro1.getParameters()).thenReturn(params);
         when(this.taskMacro1.getParameter(Task.REFERENCE)).thenReturn("Task/Page/Tasks/Task_0");
         when(this.taskMacro1.getId()).thenReturn(Task.MACRO_NAME);
-        when(this.blockFinder.find(any(), any(), any())).thenReturn(mock(XDOM.class));
+        when(this.streamExtractor.extractParameters(document.getContent(), Syntax.XWIKI_2_1)).thenReturn(
+            List.of(params));
+        when(this.blockFinder.visit(any(), any(), any())).thenReturn(mock(XDOM.class));
 
         when(pageReferenceResolver.resolve(documentReference)).thenReturn(pageReference);
         when(serializer.serialize(pageReference)).thenReturn("Task/Page");
@@ -124,13 +160,61 @@ public class TaskMacroReferenceMigratorTest
     {
         referenceMigrator.relativizeReference(Arrays.asList(documentReference));
 
-        verify(this.blockFinder).find(eq(xdom), eq(Syntax.XWIKI_2_1), visitorLambdaCaptor.capture());
-        Function<MacroBlock, MacroBlockFinder.Lookup> extractLambda = visitorLambdaCaptor.getValue();
-        extractLambda.apply(this.taskMacro1);
+        verify(this.blockFinder).visit(eq(xdom), eq(Syntax.XWIKI_2_1), visitorLambdaCaptor.capture());
+        MacroBlockFinder.MacroBlockVisitor extractLambda = visitorLambdaCaptor.getValue();
+        extractLambda.visit(this.taskMacro1, new MacroBlockFinder.Modifications());
 
         verify(taskMacro1).setParameter(Task.REFERENCE, "/Tasks/Task_0");
         verify(context, times(2)).setUserReference(any());
-        verify(document).setContent(any(XDOM.class));
-        verify(xWiki).saveDocument(eq(document), any(String.class), eq(true), eq(context));
+        verify(document, never()).setContent(any(XDOM.class));
+        verify(documentClone).setContent(any(XDOM.class));
+        verify(xWiki).saveDocument(eq(documentClone), any(String.class), eq(true), eq(context));
+    }
+
+    @Test
+    void skipPagesWithRelativeReferences() throws TaskException, XWikiException
+    {
+        when(this.streamExtractor.extractParameters(document.getContent(), Syntax.XWIKI_2_1)).thenReturn(
+            List.of(Map.of(Task.REFERENCE, "/Tasks/Task_0")));
+
+        referenceMigrator.relativizeReference(Arrays.asList(documentReference));
+
+        verify(this.document, never()).getXDOM();
+        verify(xWiki, never()).saveDocument(any(XWikiDocument.class), any(String.class), eq(true), eq(context));
+    }
+
+    @Test
+    void skipPagesWithoutAbsoluteReferencesInTheirContent() throws TaskException, XWikiException
+    {
+        when(document.getContent()).thenReturn("{{task reference=\"/Tasks/Task_0\"/}}");
+
+        referenceMigrator.relativizeReference(Arrays.asList(documentReference));
+
+        verify(this.streamExtractor, never()).extractParameters(anyString(), any());
+        verify(this.document, never()).getXDOM();
+        verify(xWiki, never()).saveDocument(any(XWikiDocument.class), any(String.class), eq(true), eq(context));
+    }
+
+    @Test
+    void relativizeReferenceInChunks() throws Exception
+    {
+        when(this.context.getWikiId()).thenReturn("xwiki");
+        when(this.configuration.getReferenceRelativizerWorkers()).thenReturn(2);
+        when(this.observationManagerProvider.get()).thenReturn(this.observationManager);
+
+        referenceMigrator.relativizeReferenceInChunks(Arrays.asList(documentReference));
+
+        verify(this.executionContextManager).initialize(any(ExecutionContext.class));
+        verify(this.context).setWikiId("xwiki");
+        verify(document, never()).setContent(any(XDOM.class));
+        verify(documentClone).setContent(any(XDOM.class));
+        verify(xWiki).saveDocument(eq(documentClone), any(String.class), eq(true), eq(context));
+        verify(this.observationManager).notify(
+            argThat(event -> event instanceof TaskRelativizingProgressEvent
+                && ((TaskRelativizingProgressEvent) event).getProcessed() == 1
+                && ((TaskRelativizingProgressEvent) event).getTotal() == 1
+                && ((TaskRelativizingProgressEvent) event).getUpdated() == 1),
+            eq(this.referenceMigrator), eq(List.of(documentReference)));
+        verify(this.execution).removeContext();
     }
 }
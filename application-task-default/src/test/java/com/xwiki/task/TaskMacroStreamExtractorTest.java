@@ -0,0 +1,103 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.listener.Listener;
+import org.xwiki.rendering.parser.StreamParser;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.task.internal.TaskMacroStreamExtractor;
+import com.xwiki.task.model.Task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class TaskMacroStreamExtractorTest
+{
+    @InjectMockComponents
+    private TaskMacroStreamExtractor streamExtractor;
+
+    @MockComponent
+    @Named("context")
+    private ComponentManager contextComponentManager;
+
+    @MockComponent
+    private MacroUtils macroUtils;
+
+    @Mock
+    private StreamParser parser;
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        when(this.contextComponentManager.getInstance(StreamParser.class, Syntax.XWIKI_2_1.toIdString()))
+            .thenReturn(this.parser);
+        when(this.macroUtils.isMacroContentParsable("info")).thenReturn(true);
+        doAnswer(invocation -> {
+            String content = new BufferedReader(invocation.<Reader>getArgument(0)).lines()
+                .collect(Collectors.joining("\n"));
+            Listener listener = invocation.getArgument(1);
+            if ("page".equals(content)) {
+                listener.onMacro(Task.MACRO_NAME, Map.of(Task.REFERENCE, "Task_1"), "Do it", false);
+                listener.onMacro("info", Map.of(), "nested", false);
+                listener.onMacro("code", Map.of(), "nested", false);
+            } else if ("nested".equals(content)) {
+                listener.onMacro(Task.MACRO_NAME, Map.of(Task.REFERENCE, "Task_2"), "", true);
+            }
+            return null;
+        }).when(this.parser).parse(any(Reader.class), any(Listener.class));
+    }
+
+    @Test
+    void extractParametersFromNestedContent() throws TaskException
+    {
+        assertEquals(List.of(Map.of(Task.REFERENCE, "Task_1"), Map.of(Task.REFERENCE, "Task_2")),
+            this.streamExtractor.extractParameters("page", Syntax.XWIKI_2_1));
+    }
+
+    @Test
+    void extractParametersWithoutStreamParser() throws Exception
+    {
+        when(this.contextComponentManager.getInstance(StreamParser.class, Syntax.HTML_5_0.toIdString()))
+            .thenThrow(new ComponentLookupException("No parser"));
+
+        assertThrows(TaskException.class, () -> this.streamExtractor.extractParameters("page", Syntax.HTML_5_0));
+    }
+}
@@ -23,7 +23,11 @@ package com.xwiki.task;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Named;
 
@@ -40,6 +44,7 @@ import org.xwiki.model.reference.EntityReferenceProvider;
 import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.rendering.block.MacroBlock;
 import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.Right;
 import org.xwiki.test.junit5.mockito.ComponentTest;
@@ -56,11 +61,19 @@ import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.ObjectDiff;
 import com.xwiki.task.internal.AbstractTaskEventListener;
+import com.xwiki.task.internal.TaskFingerprintCache;
 import com.xwiki.task.internal.TaskMacroUpdateEventListener;
+import com.xwiki.task.internal.TaskPageSynchronizer;
 import com.xwiki.task.internal.TaskXDOMProcessor;
+import com.xwiki.task.internal.listener.TaskSyncQueueListener;
 import com.xwiki.task.model.Task;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -69,6 +82,10 @@ class TaskMacroUpdateEventListenerTest
 {
     private static final String TASK_NAME = "Hello there";
 
+    private static final String CURRENT_CONTENT = "{{task reference=\"Task\"}}Hello there{{/task}}";
+
+    private static final String PREVIOUS_CONTENT = "{{task reference=\"Task_1\"}}Hello there{{/task}}";
+
     @InjectMockComponents
     private TaskMacroUpdateEventListener eventListener;
 
@@ -88,6 +105,15 @@ class TaskMacroUpdateEventListenerTest
     @MockComponent
     private DocumentReferenceResolver<String> resolver;
 
+    @MockComponent
+    private TaskFingerprintCache fingerprintCache;
+
+    @MockComponent
+    private TaskPageSynchronizer taskPageSynchronizer;
+
+    @MockComponent
+    private TaskSyncQueue syncQueue;
+
     @MockComponent
     private EntityReferenceProvider referenceProvider;
 
@@ -158,6 +184,10 @@ class TaskMacroUpdateEventListenerTest
         when(this.docWithTasks.getDocumentReference()).thenReturn(this.pageWithMacro);
         when(this.docWithTasks.getXDOM()).thenReturn(this.docXDOM);
         when(this.docWithTasks.getOriginalDocument()).thenReturn(this.prevVersionDoc);
+        when(this.docWithTasks.getContent()).thenReturn(CURRENT_CONTENT);
+        when(this.docWithTasks.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+        when(this.prevVersionDoc.getContent()).thenReturn(PREVIOUS_CONTENT);
+        when(this.prevVersionDoc.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
         when(this.prevVersionDoc.getXDOM()).thenReturn(this.prevVersionDocXDOM);
         when(this.docWithTasks.clone()).thenReturn(this.docWithTasks);
         when(this.docWithTasks.getAuthors()).thenReturn(this.documentAuthors);
@@ -219,23 +249,82 @@ class TaskMacroUpdateEventListenerTest
     }
 
     @Test
-    void onUpdatingWithRemovedTaskEvent() throws XWikiException
+    void onUpdatingWithRemovedTaskEvent() throws XWikiException, TaskException
     {
         when(this.taskXDOMProcessor.extract(this.docXDOM, this.pageWithMacro)).thenReturn(
             new ArrayList<>(Collections.singletonList(task)));
-        when(this.taskXDOMProcessor.extract(this.prevVersionDocXDOM, this.pageWithMacro, true)).thenReturn(
-            new ArrayList<>(Collections.singletonList(task_1)));
-        when(this.taskDoc.isNew()).thenReturn(true);
-        when(this.authorizationManager.hasAccess(Right.EDIT, taskPage)).thenReturn(true);
+        when(this.taskXDOMProcessor.extractReferences(PREVIOUS_CONTENT, Syntax.XWIKI_2_1, this.pageWithMacro))
+            .thenReturn(new ArrayList<>(Collections.singletonList(task_1)));
         when(this.authorizationManager.hasAccess(Right.DELETE, taskPage_1)).thenReturn(true);
 
         this.eventListener.onEvent(new DocumentUpdatingEvent(), this.docWithTasks, this.context);
 
-        verify(this.taskObj).set(Task.OWNER, this.pageWithMacro.toString(), this.context);
-        verify(this.documentAuthors).setEffectiveMetadataAuthor(this.userRef);
-        verify(this.documentAuthors).setOriginalMetadataAuthor(this.userRef);
-        verify(this.taskObj).set(Task.NAME, "Hello there", this.context);
-        verify(this.wiki).saveDocument(this.taskDoc, "Task updated!", this.context);
+        verify(this.taskPageSynchronizer).syncTaskPages(this.docWithTasks, this.context, List.of(task),
+            Collections.emptyMap());
         verify(this.wiki).deleteDocument(this.task_1Doc, this.context);
     }
+
+    @Test
+    void onUpdatingWithCachedPreviousVersion() throws XWikiException, TaskException
+    {
+        when(this.taskXDOMProcessor.extract(this.docXDOM, this.pageWithMacro)).thenReturn(
+            new ArrayList<>(Collections.singletonList(task)));
+        Map<DocumentReference, String> previousFingerprints = new HashMap<>();
+        previousFingerprints.put(taskPage, TaskFingerprintCache.fingerprint(task));
+        previousFingerprints.put(taskPage_1, null);
+        when(this.fingerprintCache.get(this.pageWithMacro, PREVIOUS_CONTENT)).thenReturn(previousFingerprints);
+        when(this.authorizationManager.hasAccess(Right.DELETE, taskPage_1)).thenReturn(true);
+        Map<DocumentReference, String> fingerprints = Map.of(taskPage, TaskFingerprintCache.fingerprint(task));
+        when(this.taskPageSynchronizer.syncTaskPages(this.docWithTasks, this.context, List.of(task),
+            previousFingerprints)).thenReturn(fingerprints);
+
+        this.eventListener.onEvent(new DocumentUpdatingEvent(), this.docWithTasks, this.context);
+
+        verify(this.taskXDOMProcessor, never()).extract(any(XDOM.class), any(DocumentReference.class), anyBoolean());
+        verify(this.taskXDOMProcessor, never()).extractReferences(any(), any(), any());
+        verify(this.wiki).deleteDocument(this.task_1Doc, this.context);
+        verify(this.fingerprintCache).put(this.pageWithMacro, CURRENT_CONTENT, fingerprints);
+    }
+
+    @Test
+    void onUpdatingWithAsynchronousSync() throws XWikiException
+    {
+        when(this.taskXDOMProcessor.extract(this.docXDOM, this.pageWithMacro)).thenReturn(
+            new ArrayList<>(Collections.singletonList(task)));
+        when(this.syncQueue.isAsynchronous()).thenReturn(true);
+        Set<DocumentReference> deferredOwners = new HashSet<>();
+        when(this.context.computeIfAbsent(eq(TaskSyncQueueListener.DEFERRED_OWNERS), any())).thenReturn(
+            deferredOwners);
+
+        this.eventListener.onEvent(new DocumentUpdatingEvent(), this.docWithTasks, this.context);
+
+        verify(this.taskPageSynchronizer, never()).syncTaskPages(any(), any(), any(), any());
+        verify(this.wiki, never()).getDocument(this.taskPage, this.context);
+        assertEquals(Set.of(this.pageWithMacro), deferredOwners);
+        verify(this.fingerprintCache).put(this.pageWithMacro, CURRENT_CONTENT,
+            Collections.singletonMap(taskPage, null));
+    }
+
+    @Test
+    void onUpdatingWithoutTaskMacros()
+    {
+        when(this.docWithTasks.getContent()).thenReturn("Some content");
+        when(this.prevVersionDoc.getContent()).thenReturn("Some other content");
+
+        this.eventListener.onEvent(new DocumentUpdatingEvent(), this.docWithTasks, this.context);
+
+        verify(this.docWithTasks, never()).getXDOM();
+        verify(this.prevVersionDoc, never()).getXDOM();
+    }
+
+    @Test
+    void onUpdatingWithUnchangedContent()
+    {
+        when(this.prevVersionDoc.getContent()).thenReturn(CURRENT_CONTENT);
+
+        this.eventListener.onEvent(new DocumentUpdatingEvent(), this.docWithTasks, this.context);
+
+        verify(this.docWithTasks, never()).getXDOM();
+        verify(this.prevVersionDoc, never()).getXDOM();
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.job.JobException;
+import org.xwiki.job.JobExecutor;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.task.internal.job.TaskMigrationJob;
+import com.xwiki.task.internal.migration.TaskMigration;
+import com.xwiki.task.internal.migration.TaskMigrationManager;
+import com.xwiki.task.internal.migration.TaskMigrationStore;
+import com.xwiki.task.job.TaskMigrationJobRequest;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class TaskMigrationManagerTest
+{
+    private static final String WIKI = "xwiki";
+
+    @InjectMockComponents
+    private TaskMigrationManager manager;
+
+    @MockComponent
+    @Named("context")
+    private ComponentManager contextComponentManager;
+
+    @MockComponent
+    private JobExecutor jobExecutor;
+
+    @MockComponent
+    private TaskMigrationStore store;
+
+    @Mock
+    private TaskMigration firstMigration;
+
+    @Mock
+    private TaskMigration secondMigration;
+
+    @Mock
+    private TaskMigration thirdMigration;
+
+    @Test
+    void scheduleStartsOneJobPerWiki() throws Exception
+    {
+        this.manager.schedule(WIKI);
+        this.manager.schedule(WIKI);
+        this.manager.schedule("subwiki");
+
+        verify(this.jobExecutor, times(2)).execute(eq(TaskMigrationJob.JOBTYPE), any(TaskMigrationJobRequest.class));
+    }
+
+    @Test
+    void scheduleRetriesWhenTheJobCouldNotBeStarted() throws Exception
+    {
+        when(this.jobExecutor.execute(eq(TaskMigrationJob.JOBTYPE), any(TaskMigrationJobRequest.class)))
+            .thenThrow(new JobException("Failed"))
+            .thenReturn(null);
+
+        this.manager.schedule(WIKI);
+        this.manager.schedule(WIKI);
+        this.manager.schedule(WIKI);
+
+        verify(this.jobExecutor, times(2)).execute(eq(TaskMigrationJob.JOBTYPE), any(TaskMigrationJobRequest.class));
+    }
+
+    @Test
+    void migrateRunsThePendingMigrationsInOrder() throws Exception
+    {
+        when(this.store.getCompleted(WIKI)).thenReturn(Set.of("b"));
+        when(this.contextComponentManager.<TaskMigration>getInstanceMap(TaskMigration.class))
+            .thenReturn(Map.of("c", this.thirdMigration, "b", this.secondMigration, "a", this.firstMigration));
+
+        this.manager.migrate(WIKI);
+
+        InOrder inOrder = inOrder(this.firstMigration, this.thirdMigration, this.store);
+        inOrder.verify(this.firstMigration).migrate(WIKI);
+        inOrder.verify(this.store).markCompleted(WIKI, "a");
+        inOrder.verify(this.thirdMigration).migrate(WIKI);
+        inOrder.verify(this.store).markCompleted(WIKI, "c");
+        verify(this.secondMigration, never()).migrate(any());
+    }
+
+    @Test
+    void migrateDoesNotMarkFailedMigrationsAsCompleted() throws Exception
+    {
+        when(this.store.getCompleted(WIKI)).thenReturn(Set.of());
+        when(this.contextComponentManager.<TaskMigration>getInstanceMap(TaskMigration.class))
+            .thenReturn(Map.of("a", this.firstMigration, "b", this.secondMigration));
+        doThrow(new TaskException("Failed")).when(this.firstMigration).migrate(WIKI);
+
+        this.manager.migrate(WIKI);
+
+        verify(this.store, never()).markCompleted(WIKI, "a");
+        verify(this.secondMigration).migrate(WIKI);
+        verify(this.store).markCompleted(WIKI, "b");
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.model.document.DocumentAuthors;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xwiki.task.internal.TaskOwnerUpdater;
+import com.xwiki.task.internal.TaskWorkers;
+import com.xwiki.task.internal.TaskXDOMProcessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+@ComponentList({ TaskWorkers.class })
+class TaskOwnerUpdaterTest
+{
+    private static final DocumentReference OWNER = new DocumentReference("xwiki", "Space", "Owner");
+
+    private static final DocumentReference TASK_1 = new DocumentReference("xwiki", "Space", "Task1");
+
+    private static final DocumentReference TASK_2 = new DocumentReference("xwiki", "Space", "Task2");
+
+    @InjectMockComponents
+    private TaskOwnerUpdater ownerUpdater;
+
+    @MockComponent
+    private TaskConfiguration configuration;
+
+    @MockComponent
+    private TaskXDOMProcessor taskXDOMProcessor;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    private Execution execution;
+
+    @Mock
+    private XWiki wiki;
+
+    @Mock
+    private XWikiDocument ownerDocument;
+
+    @Mock
+    private DocumentAuthors documentAuthors;
+
+    @Mock
+    private XDOM ownerXDOM;
+
+    @Mock
+    private XDOM updatedXDOM;
+
+    @Mock
+    private BaseObject taskObject1;
+
+    @Mock
+    private BaseObject taskObject2;
+
+    private final XWikiContext context = new XWikiContext();
+
+    @BeforeEach
+    void setup() throws XWikiException
+    {
+        this.context.setWiki(this.wiki);
+        when(this.contextProvider.get()).thenReturn(this.context);
+        when(this.wiki.getDocument(OWNER, this.context)).thenReturn(this.ownerDocument);
+        when(this.ownerDocument.clone()).thenReturn(this.ownerDocument);
+        when(this.ownerDocument.getXDOM()).thenReturn(this.ownerXDOM);
+        when(this.ownerDocument.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+        when(this.ownerDocument.getAuthors()).thenReturn(this.documentAuthors);
+        when(this.taskXDOMProcessor.updateTaskMacroCalls(eq(OWNER), any(), eq(this.ownerXDOM), eq(Syntax.XWIKI_2_1)))
+            .thenReturn(this.updatedXDOM);
+        when(this.taskObject1.getDocumentReference()).thenReturn(TASK_1);
+        when(this.taskObject1.clone()).thenReturn(this.taskObject1);
+        when(this.taskObject2.getDocumentReference()).thenReturn(TASK_2);
+        when(this.taskObject2.clone()).thenReturn(this.taskObject2);
+    }
+
+    @Test
+    void updateWithoutDelay() throws XWikiException
+    {
+        this.ownerUpdater.update(OWNER, this.taskObject1, this.context);
+
+        verify(this.taskXDOMProcessor).updateTaskMacroCalls(OWNER, List.of(this.taskObject1), this.ownerXDOM,
+            Syntax.XWIKI_2_1);
+        verify(this.ownerDocument).setContent(this.updatedXDOM);
+        verify(this.wiki).saveDocument(this.ownerDocument, "Task [xwiki:Space.Task1] has been updated!",
+            this.context);
+    }
+
+    @Test
+    void updateWithDelayIsCoalescedUntilTheEndOfTheRequest() throws XWikiException
+    {
+        when(this.configuration.getOwnerUpdateDelay()).thenReturn(60000L);
+
+        this.ownerUpdater.update(OWNER, this.taskObject1, this.context);
+        this.ownerUpdater.update(OWNER, this.taskObject2, this.context);
+        this.ownerUpdater.update(OWNER, this.taskObject1, this.context);
+
+        verify(this.taskXDOMProcessor).prepareTaskObject(this.taskObject2);
+        verify(this.wiki, never()).saveDocument(any(), anyString(), any());
+
+        this.ownerUpdater.flushRequest(this.context);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<BaseObject>> taskObjectsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(this.taskXDOMProcessor).updateTaskMacroCalls(eq(OWNER), taskObjectsCaptor.capture(),
+            eq(this.ownerXDOM), eq(Syntax.XWIKI_2_1));
+        assertEquals(List.of(this.taskObject1, this.taskObject2), List.copyOf(taskObjectsCaptor.getValue()));
+        verify(this.wiki).saveDocument(this.ownerDocument, "[2] tasks have been updated!", this.context);
+
+        // Nothing is left to apply.
+        this.ownerUpdater.flushRequest(this.context);
+        verify(this.ownerDocument).setContent(this.updatedXDOM);
+    }
+
+    @Test
+    void disposeAppliesTheDelayedUpdates() throws XWikiException
+    {
+        when(this.configuration.getOwnerUpdateDelay()).thenReturn(60000L);
+
+        this.ownerUpdater.update(OWNER, this.taskObject1, this.context);
+        verify(this.wiki, never()).saveDocument(any(), anyString(), any());
+
+        this.ownerUpdater.dispose();
+
+        verify(this.ownerDocument).setContent(this.updatedXDOM);
+        verify(this.wiki).saveDocument(this.ownerDocument, "Task [xwiki:Space.Task1] has been updated!",
+            this.context);
+    }
+}
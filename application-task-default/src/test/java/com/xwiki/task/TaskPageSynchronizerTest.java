@@ -0,0 +1,161 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.model.document.DocumentAuthors;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.user.UserReference;
+import org.xwiki.user.internal.document.DocumentUserReference;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.ObjectDiff;
+import com.xwiki.task.internal.AbstractTaskEventListener;
+import com.xwiki.task.internal.TaskFingerprintCache;
+import com.xwiki.task.internal.TaskPageSynchronizer;
+import com.xwiki.task.model.Task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class TaskPageSynchronizerTest
+{
+    @InjectMockComponents
+    private TaskPageSynchronizer synchronizer;
+
+    @MockComponent
+    private ContextualAuthorizationManager authorizationManager;
+
+    @MockComponent
+    @Named("compactwiki")
+    private EntityReferenceSerializer<String> serializer;
+
+    @Mock
+    private XWikiContext context;
+
+    @Mock
+    private XWiki wiki;
+
+    @Mock
+    private XWikiDocument docWithTasks;
+
+    @Mock
+    private XWikiDocument taskDoc;
+
+    @Mock
+    private BaseObject taskObj;
+
+    @Mock
+    private DocumentAuthors documentAuthors;
+
+    private final DocumentReference adminRef = new DocumentReference("xwiki", "XWiki", "Admin");
+
+    private final DocumentReference pageWithMacro = new DocumentReference("xwiki", "XWiki", "Home");
+
+    private final DocumentReference taskPage = new DocumentReference("xwiki", "XWiki", "Task");
+
+    private final UserReference userRef =
+        new DocumentUserReference(new DocumentReference("xwiki", "XWiki", "User1"), true);
+
+    private final Task task = new Task();
+
+    @BeforeEach
+    void setup() throws XWikiException
+    {
+        when(this.context.getWiki()).thenReturn(this.wiki);
+        when(this.docWithTasks.getDocumentReference()).thenReturn(this.pageWithMacro);
+        when(this.docWithTasks.getAuthors()).thenReturn(this.documentAuthors);
+        when(this.documentAuthors.getContentAuthor()).thenReturn(this.userRef);
+        when(this.wiki.getDocument(this.taskPage, this.context)).thenReturn(this.taskDoc);
+        when(this.taskDoc.clone()).thenReturn(this.taskDoc);
+        when(this.taskDoc.getXObject(AbstractTaskEventListener.TASK_CLASS_REFERENCE, true, this.context)).thenReturn(
+            this.taskObj);
+        when(this.taskDoc.getDocumentReference()).thenReturn(this.taskPage);
+        when(this.taskDoc.getAuthors()).thenReturn(this.documentAuthors);
+        when(this.serializer.serialize(this.pageWithMacro, this.taskPage)).thenReturn(this.pageWithMacro.toString());
+        when(this.taskObj.clone()).thenReturn(this.taskObj);
+        when(this.taskObj.getDiff(this.taskObj, this.context)).thenReturn(
+            Collections.singletonList(mock(ObjectDiff.class)));
+
+        Date date = new Date(1000);
+        task.setReference(taskPage);
+        task.setReporter(adminRef);
+        task.setDuedate(date);
+        task.setAssignees(List.of(adminRef));
+        task.setName("Hello there");
+        task.setCompleteDate(date);
+        task.setStatus(Task.STATUS_DONE);
+        task.setNumber(2);
+        task.setOwner(pageWithMacro);
+        task.setCreateDate(date);
+    }
+
+    @Test
+    void syncNewTaskPage() throws XWikiException
+    {
+        when(this.taskDoc.isNew()).thenReturn(true);
+        when(this.authorizationManager.hasAccess(Right.EDIT, taskPage)).thenReturn(true);
+
+        Map<DocumentReference, String> fingerprints =
+            this.synchronizer.syncTaskPages(this.docWithTasks, this.context, List.of(task), Collections.emptyMap());
+
+        verify(this.taskObj).set(Task.OWNER, this.pageWithMacro.toString(), this.context);
+        verify(this.documentAuthors).setEffectiveMetadataAuthor(this.userRef);
+        verify(this.documentAuthors).setOriginalMetadataAuthor(this.userRef);
+        verify(this.taskObj).set(Task.NAME, "Hello there", this.context);
+        verify(this.wiki).saveDocument(this.taskDoc, "Task updated!", this.context);
+        assertEquals(Map.of(taskPage, TaskFingerprintCache.fingerprint(task)), fingerprints);
+    }
+
+    @Test
+    void syncSkipsUnchangedTasks() throws XWikiException
+    {
+        Map<DocumentReference, String> fingerprints = this.synchronizer.syncTaskPages(this.docWithTasks,
+            this.context, List.of(task), Map.of(taskPage, TaskFingerprintCache.fingerprint(task)));
+
+        verify(this.wiki, never()).getDocument(this.taskPage, this.context);
+        verify(this.wiki, never()).saveDocument(any(XWikiDocument.class), any(String.class), any(XWikiContext.class));
+        assertEquals(Map.of(taskPage, TaskFingerprintCache.fingerprint(task)), fingerprints);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.task.internal.TaskPrefetcher;
+import com.xwiki.task.internal.TaskReferenceUtils;
+import com.xwiki.task.model.Task;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class TaskPrefetcherTest
+{
+    private static final DocumentReference TASK_1 = new DocumentReference("xwiki", "Sandbox", "Task1");
+
+    private static final DocumentReference TASK_2 = new DocumentReference("xwiki", "Sandbox", "Task2");
+
+    private static final DocumentReference OTHER_TASK = new DocumentReference("xwiki", "Sandbox", "Other");
+
+    @InjectMockComponents
+    private TaskPrefetcher prefetcher;
+
+    @MockComponent
+    private TaskManager taskManager;
+
+    @MockComponent
+    private TaskReferenceUtils taskReferenceUtils;
+
+    @MockComponent
+    @Named("macro")
+    private DocumentReferenceResolver<String> macroDocumentReferenceResolver;
+
+    @MockComponent
+    private Execution execution;
+
+    private final Task task1 = new Task();
+
+    private final MacroTransformationContext macroContext = new MacroTransformationContext();
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        when(this.execution.getContext()).thenReturn(new ExecutionContext());
+        when(this.taskReferenceUtils.resolve("Sandbox.Task1", null)).thenReturn(TASK_1);
+        when(this.taskReferenceUtils.resolve("Sandbox.Task2", null)).thenReturn(TASK_2);
+        when(this.taskManager.getTasks(List.of(TASK_1, TASK_2))).thenReturn(Map.of(TASK_1, this.task1));
+        this.macroContext.setXDOM(new XDOM(List.of(
+            new MacroBlock(Task.MACRO_NAME, Map.of(Task.REFERENCE, "Sandbox.Task1"), false),
+            new MacroBlock(Task.MACRO_NAME, Map.of(Task.REFERENCE, "Sandbox.Task2"), false))));
+    }
+
+    @Test
+    void getTaskRetrievesTheTasksOfTheContentOnce() throws Exception
+    {
+        assertSame(this.task1, this.prefetcher.getTask(TASK_1, this.macroContext));
+        assertSame(this.task1, this.prefetcher.getTask(TASK_1, this.macroContext));
+
+        verify(this.taskManager, times(1)).getTasks(any());
+        verify(this.taskManager, never()).getTask(any(EntityReference.class));
+    }
+
+    @Test
+    void getTaskReplacesTheTasksOfThePreviousContent() throws Exception
+    {
+        XDOM previousContent = this.macroContext.getXDOM();
+        assertSame(this.task1, this.prefetcher.getTask(TASK_1, this.macroContext));
+
+        this.macroContext.setXDOM(new XDOM(List.of(
+            new MacroBlock(Task.MACRO_NAME, Map.of(Task.REFERENCE, "Sandbox.Task1"), false),
+            new MacroBlock(Task.MACRO_NAME, Map.of(Task.REFERENCE, "Sandbox.Task2"), false))));
+        assertSame(this.task1, this.prefetcher.getTask(TASK_1, this.macroContext));
+
+        this.macroContext.setXDOM(previousContent);
+        assertSame(this.task1, this.prefetcher.getTask(TASK_1, this.macroContext));
+
+        verify(this.taskManager, times(3)).getTasks(any());
+    }
+
+    @Test
+    void getTaskFailsForPrefetchedTasksWithoutPage() throws Exception
+    {
+        assertThrows(TaskException.class, () -> this.prefetcher.getTask(TASK_2, this.macroContext));
+
+        verify(this.taskManager, never()).getTask(any(EntityReference.class));
+    }
+
+    @Test
+    void getTaskFallsBackForTasksOutsideTheContent() throws Exception
+    {
+        Task otherTask = new Task();
+        when(this.taskManager.getTask((EntityReference) OTHER_TASK)).thenReturn(otherTask);
+
+        assertSame(otherTask, this.prefetcher.getTask(OTHER_TASK, this.macroContext));
+    }
+}
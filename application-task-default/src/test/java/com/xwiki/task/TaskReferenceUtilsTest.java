@@ -0,0 +1,114 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.PageReference;
+import org.xwiki.model.reference.PageReferenceResolver;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.task.internal.TaskReferenceUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class TaskReferenceUtilsTest
+{
+    private static final String TASK = "Tasks.Task_1";
+
+    private static final DocumentReference OWNER = new DocumentReference("xwiki", "Space", "Page");
+
+    private static final DocumentReference TASK_DOCUMENT = new DocumentReference("xwiki", "Tasks", "Task_1");
+
+    private static final PageReference TASK_PAGE = new PageReference("xwiki", List.of("Tasks", "Task_1"));
+
+    @InjectMockComponents
+    private TaskReferenceUtils referenceUtils;
+
+    @MockComponent
+    private DocumentAccessBridge documentAccessBridge;
+
+    @MockComponent
+    private DocumentReferenceResolver<String> docStringResolver;
+
+    @MockComponent
+    private PageReferenceResolver<String> pageReferenceResolver;
+
+    @BeforeEach
+    void setup()
+    {
+        when(this.docStringResolver.resolve(TASK, OWNER)).thenReturn(TASK_DOCUMENT);
+        when(this.pageReferenceResolver.resolve(TASK, OWNER)).thenReturn(TASK_PAGE);
+    }
+
+    @Test
+    void resolveCachesTheResolutionAndTheExistence()
+    {
+        when(this.documentAccessBridge.exists(TASK_DOCUMENT)).thenReturn(false);
+
+        assertEquals(TASK_PAGE, this.referenceUtils.resolve(TASK, OWNER));
+        assertEquals(TASK_PAGE, this.referenceUtils.resolve(TASK, OWNER));
+
+        verify(this.docStringResolver, times(1)).resolve(TASK, OWNER);
+        verify(this.pageReferenceResolver, times(1)).resolve(TASK, OWNER);
+        verify(this.documentAccessBridge, times(1)).exists(TASK_DOCUMENT);
+    }
+
+    @Test
+    void resolveChecksTheExistenceAgainAfterTheDocumentIsCreated()
+    {
+        when(this.documentAccessBridge.exists(TASK_DOCUMENT)).thenReturn(false);
+
+        assertEquals(TASK_PAGE, this.referenceUtils.resolve(TASK, OWNER));
+
+        when(this.documentAccessBridge.exists(TASK_DOCUMENT)).thenReturn(true);
+        this.referenceUtils.invalidateExistence(TASK_DOCUMENT);
+
+        assertEquals(TASK_DOCUMENT, this.referenceUtils.resolve(TASK, OWNER));
+        verify(this.documentAccessBridge, times(2)).exists(TASK_DOCUMENT);
+    }
+
+    @Test
+    void resolveDoesNotCacheTheResolutionOfReferencesWithoutWiki()
+    {
+        EntityReference owner = new EntityReference("Page", EntityType.DOCUMENT);
+        when(this.docStringResolver.resolve(TASK, owner)).thenReturn(TASK_DOCUMENT);
+        when(this.documentAccessBridge.exists(TASK_DOCUMENT)).thenReturn(true);
+
+        assertEquals(TASK_DOCUMENT, this.referenceUtils.resolve(TASK, owner));
+        assertEquals(TASK_DOCUMENT, this.referenceUtils.resolve(TASK, owner));
+
+        verify(this.docStringResolver, times(2)).resolve(TASK, owner);
+        verify(this.documentAccessBridge, times(1)).exists(TASK_DOCUMENT);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.suigeneris.jrcs.rcs.Version;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.doc.XWikiDocumentArchive;
+import com.xpn.xwiki.doc.rcs.XWikiPatch;
+import com.xpn.xwiki.doc.rcs.XWikiRCSNodeContent;
+import com.xpn.xwiki.doc.rcs.XWikiRCSNodeInfo;
+import com.xwiki.task.internal.TaskRevisionScanner;
+import com.xwiki.task.internal.TaskRevisionWatermarkStore;
+import com.xwiki.task.internal.TaskRevisionWatermarkStore.Watermark;
+import com.xwiki.task.model.Task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class TaskRevisionScannerTest
+{
+    private static final DateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy");
+
+    private static final DocumentReference DOC_REFERENCE = new DocumentReference("xwiki", "Space", "Page");
+
+    private static final String AUTHOR = "XWiki.Admin";
+
+    @InjectMockComponents
+    private TaskRevisionScanner scanner;
+
+    @MockComponent
+    private TaskRevisionWatermarkStore watermarkStore;
+
+    @Mock
+    private XWikiContext context;
+
+    @Mock
+    private XWikiDocument doc;
+
+    @Mock
+    private XWikiDocumentArchive archive;
+
+    private final Version[] versions = new Version[] { new Version(1, 1), new Version(2, 1), new Version(3, 1),
+        new Version(4, 1) };
+
+    @BeforeEach
+    void setup() throws XWikiException
+    {
+        when(this.doc.getDocumentReferenceWithLocale()).thenReturn(DOC_REFERENCE);
+        when(this.doc.getDocumentReference()).thenReturn(DOC_REFERENCE);
+        when(this.doc.getDocumentArchive(this.context)).thenReturn(this.archive);
+    }
+
+    @Test
+    void scanStopsWhenAllTasksHaveDates() throws Exception
+    {
+        mockRevision(this.versions[0], new Date(0), "Nothing yet.");
+        Date created = mockRevision(this.versions[1], new Date(100000000L), "{{task reference=\"Task_1\"/}}");
+        Date completed =
+            mockRevision(this.versions[2], new Date(200000000L), "{{task reference=\"Task_1\" status=\"Done\"/}}");
+        mockRevision(this.versions[3], new Date(300000000L), "{{task reference=\"Task_1\" status=\"Done\"/}}");
+
+        MacroBlock task = new MacroBlock(Task.MACRO_NAME, new HashMap<>(), true);
+        Map<String, Block> createDateTasks = new HashMap<>(Map.of("Task_1", task));
+        Map<String, Block> completeDateTasks = new HashMap<>(Map.of("Task_1", task));
+
+        this.scanner.scan(this.doc, this.versions, createDateTasks, completeDateTasks, DATE_FORMAT, this.context);
+
+        assertTrue(createDateTasks.isEmpty());
+        assertTrue(completeDateTasks.isEmpty());
+        assertEquals(DATE_FORMAT.format(created), task.getParameter(Task.CREATE_DATE));
+        assertEquals(DATE_FORMAT.format(completed), task.getParameter(Task.COMPLETE_DATE));
+        assertEquals(AUTHOR, task.getParameter(Task.REPORTER));
+        // Each version is rebuilt once, by applying its diff to the version after it.
+        for (Version version : this.versions) {
+            verify(this.archive.getNode(version), times(1)).getContent(this.context);
+        }
+        verify(this.archive, never()).loadDocument(any(), any());
+        verify(this.watermarkStore, never()).save(any(), any());
+    }
+
+    @Test
+    void rescanSkipsTheRevisionsAlreadyRead() throws Exception
+    {
+        for (int i = 0; i < this.versions.length; i++) {
+            mockRevision(this.versions[i], new Date(i * 100000000L), "{{task reference=\"Task_1\"/}}");
+        }
+        MacroBlock task = new MacroBlock(Task.MACRO_NAME, new HashMap<>(), true);
+        Map<String, Block> completeDateTasks = new HashMap<>(Map.of("Task_2", task));
+
+        this.scanner.scan(this.doc, this.versions, new HashMap<>(), completeDateTasks, DATE_FORMAT, this.context);
+
+        assertNull(task.getParameter(Task.COMPLETE_DATE));
+        ArgumentCaptor<Watermark> watermarkCaptor = ArgumentCaptor.forClass(Watermark.class);
+        verify(this.watermarkStore).save(eq(DOC_REFERENCE), watermarkCaptor.capture());
+        Watermark watermark = watermarkCaptor.getValue();
+        assertEquals(this.versions[3].toString(), watermark.getVersion());
+        assertEquals(Set.of("Task_2"), watermark.getPending());
+        when(this.watermarkStore.get(DOC_REFERENCE)).thenReturn(watermark);
+
+        Version[] newVersions = new Version[] { this.versions[0], this.versions[1], this.versions[2],
+            this.versions[3], new Version(5, 1) };
+        Date completed = mockRevision(newVersions[4], new Date(400000000L),
+            "{{task reference=\"Task_1\"/}}{{task reference=\"Task_2\" status=\"Done\"/}}");
+
+        this.scanner.scan(this.doc, newVersions, new HashMap<>(), completeDateTasks, DATE_FORMAT, this.context);
+
+        assertTrue(completeDateTasks.isEmpty());
+        assertEquals(DATE_FORMAT.format(completed), task.getParameter(Task.COMPLETE_DATE));
+        assertNull(task.getParameter(Task.CREATE_DATE));
+        for (Version version : newVersions) {
+            verify(this.archive.getNode(version), times(1)).getContent(this.context);
+        }
+        verify(this.watermarkStore).remove(DOC_REFERENCE);
+    }
+
+    private Date mockRevision(Version version, Date date, String content) throws XWikiException
+    {
+        XWikiRCSNodeInfo node = mock(XWikiRCSNodeInfo.class);
+        when(node.getDate()).thenReturn(date);
+        when(node.getAuthor()).thenReturn(AUTHOR);
+        XWikiRCSNodeContent nodeContent = mock(XWikiRCSNodeContent.class);
+        XWikiPatch patch = mock(XWikiPatch.class);
+        when(node.getContent(this.context)).thenReturn(nodeContent);
+        when(nodeContent.getPatch()).thenReturn(patch);
+        doAnswer(invocation -> {
+            List<String> lines = invocation.getArgument(0);
+            lines.clear();
+            lines.add(String.format("<xwikidoc><version>%s</version><content>%s</content></xwikidoc>", version,
+                content));
+            return null;
+        }).when(patch).patch(anyList());
+        when(this.archive.getNode(version)).thenReturn(node);
+        return date;
+    }
+}
@@ -19,6 +19,7 @@
  */
 package com.xwiki.task;
 
+import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -26,7 +27,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 
 import javax.inject.Named;
 
@@ -96,7 +96,7 @@ public class TaskXDOMProcessorTest
     private EntityReferenceSerializer<String> serializer;
 
     @Captor
-    private ArgumentCaptor<Function<MacroBlock, MacroBlockFinder.Lookup>> visitorLambdaCaptor;
+    private ArgumentCaptor<MacroBlockFinder.MacroBlockVisitor> visitorLambdaCaptor;
 
     @Mock
     private XDOM docContent;
@@ -142,6 +142,7 @@ public class TaskXDOMProcessorTest
         when(this.taskReferenceUtils.resolveAsDocumentReference(TASK2_ID, contentSource)).thenReturn(this.task2Reference);
         when(this.resolver.resolve(adminReference.toString())).thenReturn(adminReference);
         when(this.configuration.getStorageDateFormat()).thenReturn("dd/MM/yyyy");
+        when(this.configuration.getStorageDateFormatter()).thenReturn(new SimpleDateFormat("dd/MM/yyyy"));
         when(this.docContent.getMetaData()).thenReturn(this.metaData);
         when(this.metaData.getMetaData()).thenReturn(Collections.singletonMap(MetaData.SYNTAX, Syntax.XWIKI_2_1));
         when(this.macroUtils.getMacroContentXDOM(this.taskMacro1, Syntax.XWIKI_2_1)).thenReturn(
@@ -206,7 +207,7 @@ public class TaskXDOMProcessorTest
 
         when(this.taskBlockProcessor.generateTaskContentBlocks(eq(List.of(adminReference.toString())),
             eq(DEFAULT_TASK_DATE),
-            eq(TASK1_ID), any(SimpleDateFormat.class))).thenReturn(Collections.emptyList());
+            eq(TASK1_ID), any(DateFormat.class))).thenReturn(Collections.emptyList());
         when(this.macroUtils.renderMacroContent(Collections.emptyList(), Syntax.XWIKI_2_1)).thenReturn(
             "TaskContent");
 
@@ -222,7 +223,7 @@ public class TaskXDOMProcessorTest
         verify(this.taskMacro1).setParameter(Task.REPORTER, this.adminReference.toString());
         verify(this.taskBlockProcessor).generateTaskContentBlocks(eq(List.of(adminReference.toString())),
             eq(DEFAULT_TASK_DATE),
-            eq(TASK1_ID), any(SimpleDateFormat.class));
+            eq(TASK1_ID), any(DateFormat.class));
         verify(this.macroUtils).renderMacroContent(Collections.emptyList(), Syntax.XWIKI_2_1);
     }
 
@@ -247,9 +248,9 @@ public class TaskXDOMProcessorTest
 
     private void callVisitorLambdaFunction()
     {
-        verify(this.blockFinder).find(eq(this.docContent), eq(Syntax.XWIKI_2_1), visitorLambdaCaptor.capture());
-        Function<MacroBlock, MacroBlockFinder.Lookup> extractLambda = visitorLambdaCaptor.getValue();
-        extractLambda.apply(this.taskMacro1);
+        verify(this.blockFinder).visit(eq(this.docContent), eq(Syntax.XWIKI_2_1), visitorLambdaCaptor.capture());
+        MacroBlockFinder.MacroBlockVisitor extractLambda = visitorLambdaCaptor.getValue();
+        extractLambda.visit(this.taskMacro1, new MacroBlockFinder.Modifications());
     }
 
     Map<String, String> initTaskMacroParams(String ref, String createDate, String status, String reporter,
@@ -0,0 +1,88 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.task;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xwiki.task.internal.index.TaskIndexEntry;
+import com.xwiki.task.internal.index.WikiTaskIndex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WikiTaskIndexTest
+{
+    private static final String WIKI = "wiki";
+
+    private final DocumentReference task1 = new DocumentReference(WIKI, "Space", "Task_1");
+
+    private final DocumentReference task2 = new DocumentReference(WIKI, "Space", "Task_2");
+
+    private final DocumentReference owner = new DocumentReference(WIKI, "Space", "WebHome");
+
+    private final DocumentReference otherOwner = new DocumentReference(WIKI, "Other", "WebHome");
+
+    private final WikiTaskIndex index = new WikiTaskIndex();
+
+    @Test
+    void putAndUpdate()
+    {
+        index.put(new TaskIndexEntry(task1, owner));
+
+        assertEquals(Set.of(task1), index.getByOwner(owner));
+
+        index.put(new TaskIndexEntry(task1, otherOwner));
+
+        assertEquals(Set.of(), index.getByOwner(owner));
+        assertEquals(Set.of(task1), index.getByOwner(otherOwner));
+    }
+
+    @Test
+    void removeKeepsOtherTasksOfTheOwner()
+    {
+        index.put(new TaskIndexEntry(task1, owner));
+        index.put(new TaskIndexEntry(task2, owner));
+
+        index.remove(task1);
+
+        assertEquals(Set.of(task2), index.getByOwner(owner));
+        assertNull(index.get(task1));
+    }
+
+    @Test
+    void loadDoesNotOverrideChangesMadeDuringTheBuild()
+    {
+        index.put(new TaskIndexEntry(task1, otherOwner));
+        index.load(new TaskIndexEntry(task1, owner));
+        index.load(new TaskIndexEntry(task2, owner));
+
+        assertFalse(index.isReady());
+        index.markReady();
+        assertTrue(index.isReady());
+
+        assertEquals(Set.of(task2), index.getByOwner(owner));
+        assertEquals(Set.of(task1), index.getByOwner(otherOwner));
+    }
+}
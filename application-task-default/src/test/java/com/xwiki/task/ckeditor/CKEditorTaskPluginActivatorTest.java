@@ -25,7 +25,6 @@ import javax.inject.Provider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
-import org.xwiki.component.phase.InitializationException;
 import org.xwiki.model.document.DocumentAuthors;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.LocalDocumentReference;
@@ -40,7 +39,8 @@ import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
-import com.xwiki.task.internal.ckeditor.CKEditorTaskPluginActivatorListener;
+import com.xwiki.task.TaskException;
+import com.xwiki.task.internal.ckeditor.CKEditorTaskPluginActivator;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.contains;
@@ -51,10 +51,10 @@ import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ComponentTest
-public class CKEditorTaskPluginActivatorListenerTest
+public class CKEditorTaskPluginActivatorTest
 {
     @InjectMockComponents
-    private CKEditorTaskPluginActivatorListener activatorListener;
+    private CKEditorTaskPluginActivator activator;
 
     @MockComponent
     private Provider<XWikiContext> contextProvider;
@@ -91,28 +91,28 @@ public class CKEditorTaskPluginActivatorListenerTest
     }
 
     @Test
-    void initializationHappensAtXWikiStartUpTest() throws InitializationException
+    void initializationHappensAtXWikiStartUpTest() throws TaskException
     {
         when(contextProvider.get()).thenReturn(null);
-        activatorListener.initialize();
+        activator.migrate("xwiki");
         verifyNoInteractions(context);
     }
 
     @Test
-    void initializationAlreadyHappenedTest() throws InitializationException, XWikiException
+    void initializationAlreadyHappenedTest() throws TaskException, XWikiException
     {
         when(baseObject.getLargeStringValue("advanced")).thenReturn("config.extraPlugins = 'xwiki-task-insert';");
-        activatorListener.initialize();
+        activator.migrate("xwiki");
         verify(baseObject, never()).set(any(), any(), any());
         verify(xWiki, never()).saveDocument(any(), any(), any());
     }
 
     @Test
-    void editorConfigHasNeverBeenSavedTest() throws InitializationException, XWikiException
+    void editorConfigHasNeverBeenSavedTest() throws TaskException, XWikiException
     {
         when(baseObject.getLargeStringValue("advanced")).thenReturn("");
         when(xWikiDocument.isNew()).thenReturn(true);
-        activatorListener.initialize();
+        activator.migrate("xwiki");
         verify(baseObject).set("removePlugins", "bidi,colorbutton,font,justify,save,sourcearea", context);
         verify(baseObject).set("removeButtons",
             "Anchor,BulletedList,Copy,CopyFormatting,Cut,Find,HorizontalRule,Indent,Language"
@@ -125,12 +125,12 @@ public class CKEditorTaskPluginActivatorListenerTest
     }
 
     @Test
-    void configurationAlreadyContainsExtraPlugins() throws InitializationException, XWikiException
+    void configurationAlreadyContainsExtraPlugins() throws TaskException, XWikiException
     {
         when(baseObject.getLargeStringValue("advanced")).thenReturn(
             "// config.extraPlugins = 'somePlugin';\n"
                 + "config.extraPlugins = 'some-plugin,some-other-plugin';");
-        activatorListener.initialize();
+        activator.migrate("xwiki");
         verify(baseObject).set(
             "advanced",
             "// config.extraPlugins = 'somePlugin';\n"
@@ -141,11 +141,11 @@ public class CKEditorTaskPluginActivatorListenerTest
     }
 
     @Test
-    void configurationHasEmptyExtraPlugins() throws InitializationException, XWikiException
+    void configurationHasEmptyExtraPlugins() throws TaskException, XWikiException
     {
         when(baseObject.getLargeStringValue("advanced")).thenReturn(
             "config.extraPlugins =\"\"");
-        activatorListener.initialize();
+        activator.migrate("xwiki");
         verify(baseObject).set(
             "advanced",
             "config.extraPlugins = \"xwiki-task-insert\"",
@@ -155,7 +155,7 @@ public class CKEditorTaskPluginActivatorListenerTest
     }
 
     @Test
-    void configurationHasMoreComplexCode() throws InitializationException, XWikiException
+    void configurationHasMoreComplexCode() throws TaskException, XWikiException
     {
         when(baseObject.getLargeStringValue("advanced")).thenReturn(
             "// 'xwiki-link' is the name of a CKEditor plugin.\n"
@@ -165,7 +165,7 @@ public class CKEditorTaskPluginActivatorListenerTest
                 + "// 'autoGenerateLabels' is the configuration parameter for that plugin.\n"
                 + "config['xwiki-link'].autoGenerateLabels = true;\n"
         );
-        activatorListener.initialize();
+        activator.migrate("xwiki");
         verify(baseObject).set(
             "advanced",
             "// 'xwiki-link' is the name of a CKEditor plugin.\n"
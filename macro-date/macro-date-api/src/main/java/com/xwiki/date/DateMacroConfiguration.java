@@ -19,6 +19,8 @@
  */
 package com.xwiki.date;
 
+import java.text.DateFormat;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.stability.Unstable;
 
@@ -41,4 +43,26 @@ public interface DateMacroConfiguration
      * @return the date format that should be used for displaying purposes.
      */
     String getDisplayDateFormat();
+
+    /**
+     * @return a formatter for the {@link #getStorageDateFormat() storage format}, owned by the caller since date
+     *     formats are not thread-safe
+     * @since 3.11.0
+     */
+    DateFormat getStorageDateFormatter();
+
+    /**
+     * @return a formatter for the {@link #getDisplayDateFormat() display format}, owned by the caller since date
+     *     formats are not thread-safe
+     * @since 3.11.0
+     */
+    DateFormat getDisplayDateFormatter();
+
+    /**
+     * @param pattern a date pattern, using the syntax of {@link java.text.SimpleDateFormat}
+     * @return a formatter for the given pattern and the default locale, owned by the caller since date formats are not
+     *     thread-safe
+     * @since 3.11.0
+     */
+    DateFormat getDateFormatter(String pattern);
 }
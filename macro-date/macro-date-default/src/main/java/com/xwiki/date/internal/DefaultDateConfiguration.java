@@ -19,18 +19,33 @@
  */
 package com.xwiki.date.internal;
 
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.ModelContext;
+import org.xwiki.model.reference.EntityReference;
 import org.xwiki.stability.Unstable;
 
 import com.xwiki.date.DateMacroConfiguration;
 
 /**
- * The default implementation of {@link DateMacroConfiguration}.
+ * The default implementation of {@link DateMacroConfiguration}. The formats of each wiki are cached until the
+ * configuration document or the preferences of the wiki change, see
+ * {@link com.xwiki.date.internal.listener.DateConfigurationListener}. The formatters are copies of a cached formatter
+ * of each pattern, which is cheaper than compiling the pattern again and keeps the lenient parsing of
+ * {@link SimpleDateFormat}.
  *
  * @version $Id$
  * @since 3.5.0
@@ -48,6 +63,11 @@ public class DefaultDateConfiguration implements DateMacroConfiguration
 
     private static final String PROPERTIES_PREFIX = "datemacro.";
 
+    /**
+     * The patterns come from the configuration but also from the macro parameters so keep the cache bounded.
+     */
+    private static final int MAX_FORMATTERS = 1000;
+
     @Inject
     @Named("xwikiproperties")
     private ConfigurationSource xwikiProperties;
@@ -60,16 +80,90 @@ public class DefaultDateConfiguration implements DateMacroConfiguration
     @Named(DateMacroConfigurationSource.HINT)
     private ConfigurationSource configurationSource;
 
+    @Inject
+    private ModelContext modelContext;
+
+    private final Map<String, Formats> formatsByWiki = new ConcurrentHashMap<>();
+
+    // Never used directly, only copied, so they can be shared between threads.
+    private final Map<Pair<String, Locale>, SimpleDateFormat> formatters = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Forget the formats of a wiki, e.g. because its configuration changed.
+     *
+     * @param wiki the identifier of a wiki.
+     */
+    public void invalidate(String wiki)
+    {
+        this.generation.incrementAndGet();
+        this.formatsByWiki.remove(wiki);
+    }
+
     @Override
     public String getStorageDateFormat()
     {
-        return getProperty(STORAGE_FORMAT_KEY, DEFAULT_DATE_FORMAT);
+        return getFormats().storageFormat;
     }
 
     @Override
     public String getDisplayDateFormat()
     {
-        return getProperty(DISPLAY_FORMAT_KEY, preferencesConfiguration.getProperty("dateformat", DEFAULT_DATE_FORMAT));
+        return getFormats().displayFormat;
+    }
+
+    @Override
+    public DateFormat getStorageDateFormatter()
+    {
+        return getDateFormatter(getStorageDateFormat());
+    }
+
+    @Override
+    public DateFormat getDisplayDateFormatter()
+    {
+        return getDateFormatter(getDisplayDateFormat());
+    }
+
+    @Override
+    public DateFormat getDateFormatter(String pattern)
+    {
+        Pair<String, Locale> key = Pair.of(pattern, Locale.getDefault(Locale.Category.FORMAT));
+        SimpleDateFormat formatter = this.formatters.get(key);
+        if (formatter == null) {
+            if (this.formatters.size() >= MAX_FORMATTERS) {
+                this.formatters.clear();
+            }
+            formatter = this.formatters.computeIfAbsent(key, k -> new SimpleDateFormat(k.getLeft(), k.getRight()));
+        }
+        return (DateFormat) formatter.clone();
+    }
+
+    private Formats getFormats()
+    {
+        EntityReference currentReference = this.modelContext.getCurrentEntityReference();
+        if (currentReference == null) {
+            return loadFormats();
+        }
+        String wiki = currentReference.extractReference(EntityType.WIKI).getName();
+        Formats formats = this.formatsByWiki.get(wiki);
+        if (formats == null) {
+            long loadedGeneration = this.generation.get();
+            formats = loadFormats();
+            // Don't cache formats that might have been loaded before a change of the configuration.
+            if (loadedGeneration == this.generation.get()) {
+                this.formatsByWiki.put(wiki, formats);
+            }
+        }
+        return formats;
+    }
+
+    private Formats loadFormats()
+    {
+        String storageFormat = getProperty(STORAGE_FORMAT_KEY, DEFAULT_DATE_FORMAT);
+        String displayFormat =
+            getProperty(DISPLAY_FORMAT_KEY, preferencesConfiguration.getProperty("dateformat", DEFAULT_DATE_FORMAT));
+        return new Formats(storageFormat, displayFormat);
     }
 
     private <T> T getProperty(String key, T defaultValue)
@@ -80,4 +174,17 @@ public class DefaultDateConfiguration implements DateMacroConfiguration
             return this.xwikiProperties.getProperty(PROPERTIES_PREFIX + key, defaultValue);
         }
     }
+
+    private static final class Formats
+    {
+        private final String storageFormat;
+
+        private final String displayFormat;
+
+        Formats(String storageFormat, String displayFormat)
+        {
+            this.storageFormat = storageFormat;
+            this.displayFormat = displayFormat;
+        }
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.date.internal.listener;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.DocumentModelBridge;
+import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xwiki.date.DateMacroConfiguration;
+import com.xwiki.date.internal.DefaultDateConfiguration;
+
+/**
+ * Makes the {@link DefaultDateConfiguration} load again the date formats of a wiki when the configuration of the date
+ * macro or the preferences of the wiki change.
+ *
+ * @version $Id$
+ * @since 3.11.0
+ */
+@Component
+@Named(DateConfigurationListener.NAME)
+@Singleton
+public class DateConfigurationListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "DateConfigurationListener";
+
+    private static final List<LocalDocumentReference> CONFIGURATION_DOCUMENTS = Arrays.asList(
+        new LocalDocumentReference(Arrays.asList("DateMacro", "Code"), "Configuration"),
+        new LocalDocumentReference("XWiki", "XWikiPreferences"));
+
+    @Inject
+    private DateMacroConfiguration configuration;
+
+    /**
+     * Default constructor.
+     */
+    public DateConfigurationListener()
+    {
+        super(NAME, Arrays.asList(new DocumentCreatedEvent(), new DocumentUpdatedEvent(), new DocumentDeletedEvent()));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        DocumentReference reference = ((DocumentModelBridge) source).getDocumentReference();
+        if (this.configuration instanceof DefaultDateConfiguration
+            && CONFIGURATION_DOCUMENTS.contains(reference.getLocalDocumentReference()))
+        {
+            ((DefaultDateConfiguration) this.configuration).invalidate(reference.getWikiReference().getName());
+        }
+    }
+}
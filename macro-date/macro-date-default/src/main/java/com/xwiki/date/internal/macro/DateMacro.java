@@ -20,10 +20,13 @@
 package com.xwiki.date.internal.macro;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -66,6 +69,12 @@ public class DateMacro extends AbstractMacro<DateMacroParameters>
      */
     public static final String SKIN_RESOURCES_DOCUMENT_REFERENCE = "DateMacro.Code.SkinExtension";
 
+    /**
+     * Pages like the task reports can display the same dates many times but the values are user input, so keep the
+     * memo bounded.
+     */
+    private static final int MAX_DISPLAY_DATES = 5000;
+
     @Inject
     private DateMacroConfiguration configuration;
 
@@ -73,6 +82,12 @@ public class DateMacro extends AbstractMacro<DateMacroParameters>
     @Named("ssx")
     private SkinExtension ssx;
 
+    /**
+     * The displayed dates, keyed by the value, the resolved storage and display formats and the locale. Since the
+     * formats are resolved before the lookup, a change of the configured formats results in new keys.
+     */
+    private final Map<List<Object>, String> displayDates = new ConcurrentHashMap<>();
+
     /**
      * The default Constructor for the Date macro.
      */
@@ -93,22 +108,12 @@ public class DateMacro extends AbstractMacro<DateMacroParameters>
         throws MacroExecutionException
     {
         this.ssx.use(SKIN_RESOURCES_DOCUMENT_REFERENCE);
-        Date paramDate;
-        String format = configuration.getStorageDateFormat();
-        try {
-            if (!StringUtils.isEmpty(parameters.getFormat())) {
-                format = parameters.getFormat();
-            }
-            paramDate = new SimpleDateFormat(format).parse(parameters.getValue());
-        } catch (ParseException e) {
-            throw new MacroExecutionException(
-                String.format("Failed to parse the given date, expected format [%s]!", format));
-        }
-
+        String format = StringUtils.isEmpty(parameters.getFormat()) ? configuration.getStorageDateFormat()
+            : parameters.getFormat();
         String displayFormat =
             StringUtils.isEmpty(parameters.getDisplayFormat()) ? configuration.getDisplayDateFormat()
                 : parameters.getDisplayFormat();
-        String displayDate = new SimpleDateFormat(displayFormat).format(paramDate);
+        String displayDate = getDisplayDate(parameters.getValue(), format, displayFormat);
 
         Block returnBlock =
             context.isInline() ? new FormatBlock(Collections.singletonList(new WordBlock(displayDate)), Format.NONE)
@@ -117,5 +122,25 @@ public class DateMacro extends AbstractMacro<DateMacroParameters>
 
         return Collections.singletonList(returnBlock);
     }
-}
 
+    private String getDisplayDate(String value, String format, String displayFormat) throws MacroExecutionException
+    {
+        List<Object> key = Arrays.asList(value, format, displayFormat, Locale.getDefault(Locale.Category.FORMAT));
+        String displayDate = this.displayDates.get(key);
+        if (displayDate == null) {
+            Date paramDate;
+            try {
+                paramDate = configuration.getDateFormatter(format).parse(value);
+            } catch (ParseException e) {
+                throw new MacroExecutionException(
+                    String.format("Failed to parse the given date, expected format [%s]!", format));
+            }
+            displayDate = configuration.getDateFormatter(displayFormat).format(paramDate);
+            if (this.displayDates.size() >= MAX_DISPLAY_DATES) {
+                this.displayDates.clear();
+            }
+            this.displayDates.put(key, displayDate);
+        }
+        return displayDate;
+    }
+}
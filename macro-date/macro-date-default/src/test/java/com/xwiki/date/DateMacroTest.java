@@ -0,0 +1,174 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.date;
+
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.FormatBlock;
+import org.xwiki.rendering.block.WordBlock;
+import org.xwiki.rendering.listener.Format;
+import org.xwiki.rendering.macro.MacroExecutionException;
+import org.xwiki.rendering.transformation.MacroTransformationContext;
+import org.xwiki.skinx.SkinExtension;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.date.internal.macro.DateMacro;
+import com.xwiki.date.macro.DateMacroParameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class DateMacroTest
+{
+    private static final String STORAGE_FORMAT = "yyyy/MM/dd HH:mm";
+
+    private static final String DISPLAY_FORMAT = "dd/MM/yyyy";
+
+    @InjectMockComponents
+    private DateMacro dateMacro;
+
+    @MockComponent
+    private DateMacroConfiguration configuration;
+
+    @MockComponent
+    @Named("ssx")
+    private SkinExtension ssx;
+
+    private final MacroTransformationContext context = new MacroTransformationContext();
+
+    private Locale defaultLocale;
+
+    @BeforeEach
+    void setup()
+    {
+        this.defaultLocale = Locale.getDefault(Locale.Category.FORMAT);
+        Locale.setDefault(Locale.Category.FORMAT, Locale.ENGLISH);
+        this.context.setInline(true);
+        when(this.configuration.getStorageDateFormat()).thenReturn(STORAGE_FORMAT);
+        when(this.configuration.getDisplayDateFormat()).thenReturn(DISPLAY_FORMAT);
+        when(this.configuration.getDateFormatter(any(String.class)))
+            .thenAnswer(invocation -> new SimpleDateFormat(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        Locale.setDefault(Locale.Category.FORMAT, this.defaultLocale);
+    }
+
+    @Test
+    void executeDisplaysTheDateInTheDisplayFormat() throws MacroExecutionException
+    {
+        List<Block> blocks = this.dateMacro.execute(parameters("2023/01/31 10:00"), null, this.context);
+
+        assertEquals(1, blocks.size());
+        assertEquals(new FormatBlock(Collections.singletonList(new WordBlock("31/01/2023")), Format.NONE),
+            blocks.get(0));
+        assertEquals("xwiki-date", blocks.get(0).getParameter("class"));
+    }
+
+    @Test
+    void executeReusesTheDisplayedDate() throws MacroExecutionException
+    {
+        this.dateMacro.execute(parameters("2023/01/31 10:00"), null, this.context);
+        List<Block> blocks = this.dateMacro.execute(parameters("2023/01/31 10:00"), null, this.context);
+
+        assertEquals("31/01/2023", ((WordBlock) blocks.get(0).getChildren().get(0)).getWord());
+        verify(this.configuration, times(1)).getDateFormatter(STORAGE_FORMAT);
+        verify(this.configuration, times(1)).getDateFormatter(DISPLAY_FORMAT);
+    }
+
+    @Test
+    void executeFormatsAgainWhenTheDisplayFormatChanges() throws MacroExecutionException
+    {
+        this.dateMacro.execute(parameters("2023/01/31 10:00"), null, this.context);
+        when(this.configuration.getDisplayDateFormat()).thenReturn("yyyy-MM-dd");
+
+        List<Block> blocks = this.dateMacro.execute(parameters("2023/01/31 10:00"), null, this.context);
+
+        assertEquals("2023-01-31", ((WordBlock) blocks.get(0).getChildren().get(0)).getWord());
+    }
+
+    @Test
+    void executeClearsTheDisplayedDatesPastTheLimit() throws MacroExecutionException
+    {
+        // Fill the memo with 5000 distinct value and display format pairs.
+        for (int i = 0; i < 5000; i++) {
+            this.dateMacro.execute(parameters(String.format("2023/01/01 00:%02d", i % 60), i / 60), null,
+                this.context);
+        }
+        verify(this.configuration, times(5000)).getDateFormatter(STORAGE_FORMAT);
+
+        // The first value is still memoized, the next new value clears the memo.
+        this.dateMacro.execute(parameters("2023/01/01 00:00", 0), null, this.context);
+        verify(this.configuration, times(5000)).getDateFormatter(STORAGE_FORMAT);
+        this.dateMacro.execute(parameters("2023/01/31 10:00"), null, this.context);
+        verify(this.configuration, times(5001)).getDateFormatter(STORAGE_FORMAT);
+
+        // The first value has to be parsed again.
+        this.dateMacro.execute(parameters("2023/01/01 00:00", 0), null, this.context);
+        verify(this.configuration, times(5002)).getDateFormatter(STORAGE_FORMAT);
+    }
+
+    @Test
+    void executeDoesNotRememberParseFailures()
+    {
+        assertThrows(MacroExecutionException.class,
+            () -> this.dateMacro.execute(parameters("not a date"), null, this.context));
+        MacroExecutionException exception = assertThrows(MacroExecutionException.class,
+            () -> this.dateMacro.execute(parameters("not a date"), null, this.context));
+
+        assertEquals("Failed to parse the given date, expected format [yyyy/MM/dd HH:mm]!", exception.getMessage());
+        verify(this.configuration, times(2)).getDateFormatter(STORAGE_FORMAT);
+        verify(this.configuration, never()).getDateFormatter(DISPLAY_FORMAT);
+    }
+
+    private DateMacroParameters parameters(String value)
+    {
+        DateMacroParameters parameters = new DateMacroParameters();
+        parameters.setValue(value);
+        return parameters;
+    }
+
+    private DateMacroParameters parameters(String value, int variant)
+    {
+        DateMacroParameters parameters = parameters(value);
+        // A quoted prefix makes distinct display formats that display the same date.
+        parameters.setDisplayFormat(String.format("'%d' %s", variant, DISPLAY_FORMAT));
+        return parameters;
+    }
+}
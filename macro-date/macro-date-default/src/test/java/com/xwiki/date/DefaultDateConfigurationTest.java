@@ -0,0 +1,136 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xwiki.date;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.ModelContext;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xwiki.date.internal.DefaultDateConfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ComponentTest
+class DefaultDateConfigurationTest
+{
+    private static final String STORAGE_FORMAT = "storageDateFormat";
+
+    private static final WikiReference WIKI = new WikiReference("wiki");
+
+    @InjectMockComponents
+    private DefaultDateConfiguration configuration;
+
+    @MockComponent
+    @Named("datemacro")
+    private ConfigurationSource configurationSource;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiProperties;
+
+    @MockComponent
+    @Named("wiki")
+    private ConfigurationSource preferencesConfiguration;
+
+    @MockComponent
+    private ModelContext modelContext;
+
+    private Locale defaultLocale;
+
+    @BeforeEach
+    void setup()
+    {
+        this.defaultLocale = Locale.getDefault(Locale.Category.FORMAT);
+        Locale.setDefault(Locale.Category.FORMAT, Locale.ENGLISH);
+        when(this.modelContext.getCurrentEntityReference()).thenReturn(WIKI);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        Locale.setDefault(Locale.Category.FORMAT, this.defaultLocale);
+    }
+
+    @Test
+    void getStorageDateFormatIsCachedUntilTheConfigurationChanges()
+    {
+        when(this.configurationSource.containsKey(STORAGE_FORMAT)).thenReturn(true);
+        when(this.configurationSource.getProperty(STORAGE_FORMAT, "yyyy/MM/dd HH:mm")).thenReturn("dd/MM/yyyy");
+
+        assertEquals("dd/MM/yyyy", this.configuration.getStorageDateFormat());
+        assertEquals("dd/MM/yyyy", this.configuration.getStorageDateFormat());
+        verify(this.configurationSource, times(1)).getProperty(STORAGE_FORMAT, "yyyy/MM/dd HH:mm");
+
+        when(this.configurationSource.getProperty(STORAGE_FORMAT, "yyyy/MM/dd HH:mm")).thenReturn("yyyy-MM-dd");
+        this.configuration.invalidate(WIKI.getName());
+
+        assertEquals("yyyy-MM-dd", this.configuration.getStorageDateFormat());
+    }
+
+    @Test
+    void getDateFormatterReturnsACopyForEachCaller()
+    {
+        DateFormat first = this.configuration.getDateFormatter("yyyy/MM/dd HH:mm");
+        DateFormat second = this.configuration.getDateFormatter("yyyy/MM/dd HH:mm");
+
+        assertNotSame(first, second);
+        assertEquals(first, second);
+    }
+
+    @Test
+    void getDateFormatterParsesLikeSimpleDateFormat() throws ParseException
+    {
+        // The formats configured by users, with values written by hand in the date and task macros.
+        assertParsedLikeSimpleDateFormat("yyyy/MM/dd HH:mm", "2023/01/01 00:00");
+        assertParsedLikeSimpleDateFormat("yyyy/MM/dd HH:mm", "2023/1/5 9:05");
+        assertParsedLikeSimpleDateFormat("yyyy/MM/dd", "2023/01/01 10:30");
+        assertParsedLikeSimpleDateFormat("dd/MM/yyyy", "31/12/2023");
+        assertParsedLikeSimpleDateFormat("dd.MM.yyyy HH:mm", "1.2.2023 14:00");
+        assertParsedLikeSimpleDateFormat("MM/dd/yyyy hh:mm a", "02/28/2024 03:15 PM");
+        assertParsedLikeSimpleDateFormat("yyyy-MM-dd'T'HH:mm", "2024-02-29T23:59");
+        assertParsedLikeSimpleDateFormat("d MMMM yyyy", "5 March 2024");
+        // Lenient: out of range fields roll over.
+        assertParsedLikeSimpleDateFormat("dd/MM/yyyy", "32/01/2023");
+    }
+
+    private void assertParsedLikeSimpleDateFormat(String pattern, String value) throws ParseException
+    {
+        Date expected = new SimpleDateFormat(pattern, Locale.ENGLISH).parse(value);
+        assertEquals(expected, this.configuration.getDateFormatter(pattern).parse(value));
+    }
+}